@@ -1,7 +1,9 @@
 package am.ik.blog;
 
+import java.time.Duration;
 import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "blog")
 public final class BlogProps {
@@ -10,6 +12,16 @@ public final class BlogProps {
 
 	private Init init = new Init();
 
+	private Retry retry = new Retry();
+
+	private Cache cache = new Cache();
+
+	private ResponseCache responseCache = new ResponseCache();
+
+	private Ingest ingest = new Ingest();
+
+	private Ai ai = new Ai();
+
 	public TokenizerType getTokenizerType() {
 		return tokenizerType;
 	}
@@ -26,6 +38,46 @@ public final class BlogProps {
 		this.init = init;
 	}
 
+	public Retry getRetry() {
+		return retry;
+	}
+
+	public void setRetry(Retry retry) {
+		this.retry = retry;
+	}
+
+	public Cache getCache() {
+		return cache;
+	}
+
+	public void setCache(Cache cache) {
+		this.cache = cache;
+	}
+
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	public Ingest getIngest() {
+		return ingest;
+	}
+
+	public void setIngest(Ingest ingest) {
+		this.ingest = ingest;
+	}
+
+	public Ai getAi() {
+		return ai;
+	}
+
+	public void setAi(Ai ai) {
+		this.ai = ai;
+	}
+
 	public enum TokenizerType {
 
 		KUROMOJI, TRIGRAM
@@ -100,4 +152,659 @@ public final class BlogProps {
 
 	}
 
+	/**
+	 * Retry settings for write transactions aborted by optimistic concurrency conflicts
+	 * (SQLSTATE 40001 on DSQL).
+	 */
+	public static final class Retry {
+
+		private boolean enabled = true;
+
+		private long maxRetries = 3;
+
+		private Duration delay = Duration.ofMillis(20);
+
+		private double multiplier = 2.0;
+
+		private Duration maxDelay = Duration.ofSeconds(1);
+
+		private Duration jitter = Duration.ofMillis(10);
+
+		/**
+		 * Maximum number of retry tokens that can be accumulated.
+		 */
+		private int budgetCapacity = 20;
+
+		/**
+		 * Retry tokens deposited per write operation. 0.2 allows one retry for every five
+		 * writes once the initial capacity has been used up.
+		 */
+		private double budgetRatio = 0.2;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public long getMaxRetries() {
+			return maxRetries;
+		}
+
+		public void setMaxRetries(long maxRetries) {
+			this.maxRetries = maxRetries;
+		}
+
+		public Duration getDelay() {
+			return delay;
+		}
+
+		public void setDelay(Duration delay) {
+			this.delay = delay;
+		}
+
+		public double getMultiplier() {
+			return multiplier;
+		}
+
+		public void setMultiplier(double multiplier) {
+			this.multiplier = multiplier;
+		}
+
+		public Duration getMaxDelay() {
+			return maxDelay;
+		}
+
+		public void setMaxDelay(Duration maxDelay) {
+			this.maxDelay = maxDelay;
+		}
+
+		public Duration getJitter() {
+			return jitter;
+		}
+
+		public void setJitter(Duration jitter) {
+			this.jitter = jitter;
+		}
+
+		public int getBudgetCapacity() {
+			return budgetCapacity;
+		}
+
+		public void setBudgetCapacity(int budgetCapacity) {
+			this.budgetCapacity = budgetCapacity;
+		}
+
+		public double getBudgetRatio() {
+			return budgetRatio;
+		}
+
+		public void setBudgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+		}
+
+		@Override
+		public String toString() {
+			return "Retry{" + "enabled=" + enabled + ", maxRetries=" + maxRetries + ", delay=" + delay + ", multiplier="
+					+ multiplier + ", maxDelay=" + maxDelay + ", jitter=" + jitter + ", budgetCapacity="
+					+ budgetCapacity + ", budgetRatio=" + budgetRatio + '}';
+		}
+
+	}
+
+	/**
+	 * Settings for caches that are enabled with the {@code redis} profile.
+	 */
+	public static final class Cache {
+
+		/**
+		 * Time to live of cached entry pages.
+		 */
+		private Duration entryPagesTtl = Duration.ofHours(1);
+
+		/**
+		 * Whether to keep serving a page cached at an older content version while it is
+		 * reloaded in the background. This gives up read-your-writes: the first list read
+		 * after a write still returns the page as it was before the write. Only enable it
+		 * when list latency matters more than showing a change right away.
+		 */
+		private boolean staleWhileRevalidate = false;
+
+		/**
+		 * Whether to take a Redis lock so that only one node loads a missing page.
+		 */
+		private boolean distributedLock = false;
+
+		/**
+		 * Expiry of the Redis lock in case its holder dies before releasing it.
+		 */
+		private Duration lockTtl = Duration.ofSeconds(10);
+
+		/**
+		 * How long a node waits for the lock holder to cache the page before loading it
+		 * itself.
+		 */
+		private Duration lockWaitTimeout = Duration.ofSeconds(2);
+
+		/**
+		 * Number of most requested entries per tenant to preload.
+		 */
+		private int warmUpTopEntries = 50;
+
+		/**
+		 * Upper bound of the time spent on warming up the caches. Startup readiness is
+		 * delayed by at most this duration.
+		 */
+		private Duration warmUpTimeout = Duration.ofSeconds(30);
+
+		/**
+		 * Serialization format of cached entries and entry pages. Values written in the
+		 * other format are still read, so the format can be switched on a live cache.
+		 */
+		private Codec codec = Codec.BINARY;
+
+		/**
+		 * Minimum size of a binary encoded value to compress it.
+		 */
+		private DataSize compressionThreshold = DataSize.ofKilobytes(2);
+
+		public Duration getEntryPagesTtl() {
+			return entryPagesTtl;
+		}
+
+		public void setEntryPagesTtl(Duration entryPagesTtl) {
+			this.entryPagesTtl = entryPagesTtl;
+		}
+
+		public boolean isStaleWhileRevalidate() {
+			return staleWhileRevalidate;
+		}
+
+		public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+			this.staleWhileRevalidate = staleWhileRevalidate;
+		}
+
+		public boolean isDistributedLock() {
+			return distributedLock;
+		}
+
+		public void setDistributedLock(boolean distributedLock) {
+			this.distributedLock = distributedLock;
+		}
+
+		public Duration getLockTtl() {
+			return lockTtl;
+		}
+
+		public void setLockTtl(Duration lockTtl) {
+			this.lockTtl = lockTtl;
+		}
+
+		public Duration getLockWaitTimeout() {
+			return lockWaitTimeout;
+		}
+
+		public void setLockWaitTimeout(Duration lockWaitTimeout) {
+			this.lockWaitTimeout = lockWaitTimeout;
+		}
+
+		public int getWarmUpTopEntries() {
+			return warmUpTopEntries;
+		}
+
+		public void setWarmUpTopEntries(int warmUpTopEntries) {
+			this.warmUpTopEntries = warmUpTopEntries;
+		}
+
+		public Duration getWarmUpTimeout() {
+			return warmUpTimeout;
+		}
+
+		public void setWarmUpTimeout(Duration warmUpTimeout) {
+			this.warmUpTimeout = warmUpTimeout;
+		}
+
+		public Codec getCodec() {
+			return codec;
+		}
+
+		public void setCodec(Codec codec) {
+			this.codec = codec;
+		}
+
+		public DataSize getCompressionThreshold() {
+			return compressionThreshold;
+		}
+
+		public void setCompressionThreshold(DataSize compressionThreshold) {
+			this.compressionThreshold = compressionThreshold;
+		}
+
+		@Override
+		public String toString() {
+			return "Cache{" + "entryPagesTtl=" + entryPagesTtl + ", staleWhileRevalidate=" + staleWhileRevalidate
+					+ ", distributedLock=" + distributedLock + ", lockTtl=" + lockTtl + ", lockWaitTimeout="
+					+ lockWaitTimeout + ", warmUpTopEntries=" + warmUpTopEntries + ", warmUpTimeout=" + warmUpTimeout
+					+ ", codec=" + codec + ", compressionThreshold=" + compressionThreshold + '}';
+		}
+
+		public enum Codec {
+
+			JSON, BINARY
+
+		}
+
+	}
+
+	/**
+	 * Settings for the in-memory cache of encoded entry responses.
+	 */
+	public static final class ResponseCache {
+
+		/**
+		 * Whether to keep the encoded bytes of entry responses in memory.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of cached responses. The least recently used response is dropped
+		 * when it is exceeded.
+		 */
+		private int maxEntries = 1000;
+
+		/**
+		 * Responses larger than this are encoded per request instead of being cached.
+		 */
+		private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxEntries() {
+			return maxEntries;
+		}
+
+		public void setMaxEntries(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		public DataSize getMaxEntrySize() {
+			return maxEntrySize;
+		}
+
+		public void setMaxEntrySize(DataSize maxEntrySize) {
+			this.maxEntrySize = maxEntrySize;
+		}
+
+		@Override
+		public String toString() {
+			return "ResponseCache{" + "enabled=" + enabled + ", maxEntries=" + maxEntries + ", maxEntrySize="
+					+ maxEntrySize + '}';
+		}
+
+	}
+
+	/**
+	 * Limits of request bodies that are read as a stream. Larger bodies are rejected with
+	 * {@code 413 Content Too Large}, based on {@code Content-Length} if present.
+	 */
+	public static final class Ingest {
+
+		/**
+		 * Maximum size of a webhook payload. GitHub caps payloads at 25 MB.
+		 */
+		private DataSize maxWebhookPayloadSize = DataSize.ofMegabytes(25);
+
+		/**
+		 * Maximum size of markdown posted to create or update an entry.
+		 */
+		private DataSize maxMarkdownSize = DataSize.ofMegabytes(5);
+
+		public DataSize getMaxWebhookPayloadSize() {
+			return maxWebhookPayloadSize;
+		}
+
+		public void setMaxWebhookPayloadSize(DataSize maxWebhookPayloadSize) {
+			this.maxWebhookPayloadSize = maxWebhookPayloadSize;
+		}
+
+		public DataSize getMaxMarkdownSize() {
+			return maxMarkdownSize;
+		}
+
+		public void setMaxMarkdownSize(DataSize maxMarkdownSize) {
+			this.maxMarkdownSize = maxMarkdownSize;
+		}
+
+		@Override
+		public String toString() {
+			return "Ingest{" + "maxWebhookPayloadSize=" + maxWebhookPayloadSize + ", maxMarkdownSize=" + maxMarkdownSize
+					+ '}';
+		}
+
+	}
+
+	/**
+	 * Settings for calls to the chat model that generates summaries and edits.
+	 */
+	public static final class Ai {
+
+		/**
+		 * Whether to cache generated text by model, prompt and content hash. Requires a
+		 * cache manager, i.e. the {@code redis} profile.
+		 */
+		private boolean cacheEnabled = true;
+
+		/**
+		 * Time to live of cached generated text.
+		 */
+		private Duration cacheTtl = Duration.ofDays(7);
+
+		/**
+		 * Upper bound of concurrent calls to the chat model across all tenants. The
+		 * actual limit is lowered when the provider responds with 429 and recovers
+		 * gradually.
+		 */
+		private int maxConcurrentCalls = 8;
+
+		/**
+		 * Lower bound the concurrency limit is never decreased below.
+		 */
+		private int minConcurrentCalls = 1;
+
+		/**
+		 * Maximum number of concurrent calls to the chat model per tenant.
+		 */
+		private int maxConcurrentCallsPerTenant = 4;
+
+		/**
+		 * Maximum number of calls waiting for a slot. Further calls are rejected with
+		 * 429.
+		 */
+		private int maxQueueSize = 100;
+
+		/**
+		 * How long a call waits for a slot before it is rejected with 429.
+		 */
+		private Duration queueTimeout = Duration.ofSeconds(30);
+
+		private Summary summary = new Summary();
+
+		private Backfill backfill = new Backfill();
+
+		private Edit edit = new Edit();
+
+		public boolean isCacheEnabled() {
+			return cacheEnabled;
+		}
+
+		public void setCacheEnabled(boolean cacheEnabled) {
+			this.cacheEnabled = cacheEnabled;
+		}
+
+		public Duration getCacheTtl() {
+			return cacheTtl;
+		}
+
+		public void setCacheTtl(Duration cacheTtl) {
+			this.cacheTtl = cacheTtl;
+		}
+
+		public int getMaxConcurrentCalls() {
+			return maxConcurrentCalls;
+		}
+
+		public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+			this.maxConcurrentCalls = maxConcurrentCalls;
+		}
+
+		public int getMinConcurrentCalls() {
+			return minConcurrentCalls;
+		}
+
+		public void setMinConcurrentCalls(int minConcurrentCalls) {
+			this.minConcurrentCalls = minConcurrentCalls;
+		}
+
+		public int getMaxConcurrentCallsPerTenant() {
+			return maxConcurrentCallsPerTenant;
+		}
+
+		public void setMaxConcurrentCallsPerTenant(int maxConcurrentCallsPerTenant) {
+			this.maxConcurrentCallsPerTenant = maxConcurrentCallsPerTenant;
+		}
+
+		public int getMaxQueueSize() {
+			return maxQueueSize;
+		}
+
+		public void setMaxQueueSize(int maxQueueSize) {
+			this.maxQueueSize = maxQueueSize;
+		}
+
+		public Duration getQueueTimeout() {
+			return queueTimeout;
+		}
+
+		public void setQueueTimeout(Duration queueTimeout) {
+			this.queueTimeout = queueTimeout;
+		}
+
+		public Summary getSummary() {
+			return summary;
+		}
+
+		public void setSummary(Summary summary) {
+			this.summary = summary;
+		}
+
+		public Backfill getBackfill() {
+			return backfill;
+		}
+
+		public void setBackfill(Backfill backfill) {
+			this.backfill = backfill;
+		}
+
+		public Edit getEdit() {
+			return edit;
+		}
+
+		public void setEdit(Edit edit) {
+			this.edit = edit;
+		}
+
+		@Override
+		public String toString() {
+			return "Ai{" + "cacheEnabled=" + cacheEnabled + ", cacheTtl=" + cacheTtl + ", maxConcurrentCalls="
+					+ maxConcurrentCalls + ", minConcurrentCalls=" + minConcurrentCalls
+					+ ", maxConcurrentCallsPerTenant=" + maxConcurrentCallsPerTenant + ", maxQueueSize=" + maxQueueSize
+					+ ", queueTimeout=" + queueTimeout + ", summary=" + summary + ", backfill=" + backfill + ", edit="
+					+ edit + '}';
+		}
+
+		/**
+		 * Settings for summarizing articles that exceed the input token budget. Such
+		 * articles are split at headings, the chunks are summarized in parallel and the
+		 * chunk summaries are summarized in a final pass.
+		 */
+		public static final class Summary {
+
+			/**
+			 * Whether to summarize long articles chunk by chunk.
+			 */
+			private boolean chunkingEnabled = true;
+
+			/**
+			 * Estimated number of tokens above which an article is summarized chunk by
+			 * chunk.
+			 */
+			private int maxInputTokens = 8000;
+
+			/**
+			 * Estimated number of tokens of a chunk.
+			 */
+			private int chunkTokens = 3000;
+
+			/**
+			 * Maximum number of chunks of an article summarized at the same time.
+			 */
+			private int parallelism = 4;
+
+			public boolean isChunkingEnabled() {
+				return chunkingEnabled;
+			}
+
+			public void setChunkingEnabled(boolean chunkingEnabled) {
+				this.chunkingEnabled = chunkingEnabled;
+			}
+
+			public int getMaxInputTokens() {
+				return maxInputTokens;
+			}
+
+			public void setMaxInputTokens(int maxInputTokens) {
+				this.maxInputTokens = maxInputTokens;
+			}
+
+			public int getChunkTokens() {
+				return chunkTokens;
+			}
+
+			public void setChunkTokens(int chunkTokens) {
+				this.chunkTokens = chunkTokens;
+			}
+
+			public int getParallelism() {
+				return parallelism;
+			}
+
+			public void setParallelism(int parallelism) {
+				this.parallelism = parallelism;
+			}
+
+			@Override
+			public String toString() {
+				return "Summary{" + "chunkingEnabled=" + chunkingEnabled + ", maxInputTokens=" + maxInputTokens
+						+ ", chunkTokens=" + chunkTokens + ", parallelism=" + parallelism + '}';
+			}
+
+		}
+
+		/**
+		 * Settings for the job that fills in empty summaries of a tenant's entries.
+		 */
+		public static final class Backfill {
+
+			/**
+			 * Number of entries summarized and written back together. The checkpoint is
+			 * saved after every batch.
+			 */
+			private int batchSize = 20;
+
+			/**
+			 * Maximum number of entries summarized at the same time.
+			 */
+			private int concurrency = 2;
+
+			/**
+			 * Maximum number of attempts to summarize an entry when the chat model is
+			 * rate limited.
+			 */
+			private int maxAttempts = 5;
+
+			/**
+			 * Wait before the second attempt, doubled for every further attempt.
+			 */
+			private Duration backoff = Duration.ofSeconds(10);
+
+			public int getBatchSize() {
+				return batchSize;
+			}
+
+			public void setBatchSize(int batchSize) {
+				this.batchSize = batchSize;
+			}
+
+			public int getConcurrency() {
+				return concurrency;
+			}
+
+			public void setConcurrency(int concurrency) {
+				this.concurrency = concurrency;
+			}
+
+			public int getMaxAttempts() {
+				return maxAttempts;
+			}
+
+			public void setMaxAttempts(int maxAttempts) {
+				this.maxAttempts = maxAttempts;
+			}
+
+			public Duration getBackoff() {
+				return backoff;
+			}
+
+			public void setBackoff(Duration backoff) {
+				this.backoff = backoff;
+			}
+
+			@Override
+			public String toString() {
+				return "Backfill{" + "batchSize=" + batchSize + ", concurrency=" + concurrency + ", maxAttempts="
+						+ maxAttempts + ", backoff=" + backoff + '}';
+			}
+
+		}
+
+		/**
+		 * Settings for edits that send paragraphs to the model and apply the paragraphs
+		 * it changed, such as {@code PROOFREADING_PATCH}.
+		 */
+		public static final class Edit {
+
+			/**
+			 * Maximum number of characters of the paragraphs sent in one call. Longer
+			 * texts are edited in several calls.
+			 */
+			private int paragraphBatchSize = 4000;
+
+			/**
+			 * Maximum number of calls for the same text at the same time.
+			 */
+			private int parallelism = 4;
+
+			public int getParagraphBatchSize() {
+				return paragraphBatchSize;
+			}
+
+			public void setParagraphBatchSize(int paragraphBatchSize) {
+				this.paragraphBatchSize = paragraphBatchSize;
+			}
+
+			public int getParallelism() {
+				return parallelism;
+			}
+
+			public void setParallelism(int parallelism) {
+				this.parallelism = parallelism;
+			}
+
+			@Override
+			public String toString() {
+				return "Edit{" + "paragraphBatchSize=" + paragraphBatchSize + ", parallelism=" + parallelism + '}';
+			}
+
+		}
+
+	}
+
 }
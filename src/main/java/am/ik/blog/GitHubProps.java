@@ -16,6 +16,8 @@ public class GitHubProps implements Validator {
 
 	private String apiUrl = "https://api.github.com";
 
+	private String rawContentUrl = "https://raw.githubusercontent.com";
+
 	private String accessToken = "dummy";
 
 	private String webhookSecret = "dummy";
@@ -36,8 +38,11 @@ public class GitHubProps implements Validator {
 
 	private boolean directUpdate = false;
 
+	private int etagCacheSize = 500;
+
 	private final Validator validator = Validator.forInstanceOf(GitHubProps.class, ValidatorBuilder.<GitHubProps>of()
 		.constraint(GitHubProps::getApiUrl, "apiUrl", c -> c.notBlank().url())
+		.constraint(GitHubProps::getRawContentUrl, "rawContentUrl", c -> c.notBlank().url())
 		.constraint(GitHubProps::getAccessToken, "accessToken", c -> c.codePoints(ASCII_PRINTABLE_CHARS).asWhiteList())
 		.constraint(GitHubProps::getWebhookSecret, "webhookSecret",
 				c -> c.codePoints(ASCII_PRINTABLE_CHARS).asWhiteList())
@@ -50,6 +55,7 @@ public class GitHubProps implements Validator {
 		.constraintOnObject(GitHubProps::getReadTimeout, "readTimeout", c -> c.notNull())
 		.constraintOnObject(GitHubProps::getConnectTimeout, "connectTimeout", c -> c.notNull())
 		.constraintOnObject(GitHubProps::getConnectTimeout, "connectTimeout", c -> c.notNull())
+		.constraint(GitHubProps::getEtagCacheSize, "etagCacheSize", c -> c.greaterThanOrEqual(0))
 		.build()
 		.toBiConsumer(Errors::rejectValue));
 
@@ -61,6 +67,14 @@ public class GitHubProps implements Validator {
 		this.apiUrl = apiUrl;
 	}
 
+	public String getRawContentUrl() {
+		return rawContentUrl;
+	}
+
+	public void setRawContentUrl(String rawContentUrl) {
+		this.rawContentUrl = rawContentUrl;
+	}
+
 	public String getAccessToken() {
 		return accessToken;
 	}
@@ -147,6 +161,14 @@ public class GitHubProps implements Validator {
 		this.directUpdate = directUpdate;
 	}
 
+	public int getEtagCacheSize() {
+		return etagCacheSize;
+	}
+
+	public void setEtagCacheSize(int etagCacheSize) {
+		this.etagCacheSize = etagCacheSize;
+	}
+
 	@Override
 	public boolean supports(Class<?> clazz) {
 		return clazz == GitHubProps.class;
@@ -0,0 +1,320 @@
+package am.ik.blog.ai;
+
+import am.ik.blog.BlogProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bulkhead for calls to the chat model. A call runs once both the global and its tenant's
+ * number of calls in flight are below their limits; otherwise it waits in a FIFO queue,
+ * skipping only ahead of calls of tenants that are at their own limit, until it is
+ * admitted or the queue timeout elapses.
+ * <p>
+ * The global limit adapts to the provider's rate limit (AIMD): it grows by
+ * {@code 1/limit} with every successful call up to {@code max-concurrent-calls} and is
+ * halved when a call is rejected with {@code 429 Too Many Requests}. Only calls started
+ * after the last decrease decrease it again, so that a burst of rejections of calls that
+ * were already running halves the limit once. Excess requests therefore wait for a slot
+ * instead of all failing with 429.
+ */
+@Component
+public class ChatCallLimiter {
+
+	static final String METRIC_PREFIX = "ai.chat.calls";
+
+	private final int maxLimit;
+
+	private final int minLimit;
+
+	private final int maxPerTenant;
+
+	private final int maxQueueSize;
+
+	private final Duration queueTimeout;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Counter throttled;
+
+	private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+	private final Map<String, Integer> inFlightPerTenant = new HashMap<>();
+
+	private int inFlight = 0;
+
+	private double limit;
+
+	/**
+	 * Sequence number of admitted calls, used to tell whether a call started before the
+	 * last decrease.
+	 */
+	private long admitted = 0;
+
+	private long lastDecrease = 0;
+
+	private final Logger logger = LoggerFactory.getLogger(ChatCallLimiter.class);
+
+	public ChatCallLimiter(BlogProps blogProps, MeterRegistry meterRegistry) {
+		BlogProps.Ai props = blogProps.getAi();
+		this.maxLimit = props.getMaxConcurrentCalls();
+		this.minLimit = Math.min(props.getMinConcurrentCalls(), this.maxLimit);
+		this.maxPerTenant = props.getMaxConcurrentCallsPerTenant();
+		this.maxQueueSize = props.getMaxQueueSize();
+		this.queueTimeout = props.getQueueTimeout();
+		this.limit = this.maxLimit;
+		this.meterRegistry = meterRegistry;
+		Gauge.builder(METRIC_PREFIX + ".limit", this, ChatCallLimiter::limit)
+			.description("Current limit of concurrent calls to the chat model")
+			.register(meterRegistry);
+		Gauge.builder(METRIC_PREFIX + ".active", this, ChatCallLimiter::inFlight)
+			.description("Number of calls to the chat model in flight")
+			.register(meterRegistry);
+		Gauge.builder(METRIC_PREFIX + ".queued", this, ChatCallLimiter::queued)
+			.description("Number of calls to the chat model waiting for a slot")
+			.register(meterRegistry);
+		this.throttled = Counter.builder(METRIC_PREFIX + ".throttled")
+			.description("Number of calls to the chat model rejected with 429 Too Many Requests")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Subscribes to the call once a slot is available and releases the slot when the call
+	 * terminates or is cancelled.
+	 * @param tenantId the tenant on whose behalf the call is made
+	 * @param call the call to the chat model
+	 * @return the result of the call, or an error with status {@code 429} if the queue is
+	 * full or the call is not admitted within the queue timeout
+	 */
+	public <T> Flux<T> limit(String tenantId, Supplier<Flux<T>> call) {
+		return Mono.<Permit>create(sink -> {
+			CompletableFuture<Permit> permit = this.acquire(tenantId);
+			sink.onCancel(() -> {
+				// a permit granted concurrently with the cancellation is not handed out
+				if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+					permit.join().release();
+				}
+			});
+			permit.whenComplete((granted, e) -> {
+				if (e == null) {
+					sink.success(granted);
+				}
+				else if (!(e instanceof CancellationException)) {
+					sink.error(e);
+				}
+			});
+		})
+			.onErrorMap(TimeoutException.class,
+					e -> new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+							"Timed out waiting for an AI request slot"))
+			.flatMapMany(permit -> call.get()
+				.doOnError(e -> permit.throttled(isTooManyRequests(e)))
+				.doOnComplete(permit::succeeded)
+				.doFinally(signal -> permit.release()));
+	}
+
+	/**
+	 * Admits a call of the tenant or queues it.
+	 * @param tenantId the tenant on whose behalf the call is made
+	 * @return a future that completes with the permit once the call is admitted, or
+	 * exceptionally with a {@link TimeoutException} after the queue timeout
+	 */
+	CompletableFuture<Permit> acquire(String tenantId) {
+		long start = System.nanoTime();
+		Waiter waiter;
+		synchronized (this) {
+			// waiters that can be admitted are admitted first, so the call only overtakes
+			// waiters of tenants at their limit
+			this.drain();
+			if (this.canAdmit(tenantId)) {
+				Permit permit = this.admit(tenantId);
+				this.recordWait(tenantId, "admitted", start);
+				return CompletableFuture.completedFuture(permit);
+			}
+			if (this.queue.size() >= this.maxQueueSize) {
+				this.recordWait(tenantId, "rejected", start);
+				logger.warn("action=reject_chat_call tenantId={} queued={}", tenantId, this.queue.size());
+				return CompletableFuture.failedFuture(
+						new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many pending AI requests"));
+			}
+			waiter = new Waiter(tenantId, start, new CompletableFuture<>());
+			this.queue.addLast(waiter);
+		}
+		waiter.future().orTimeout(this.queueTimeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((permit, e) -> {
+			if (e == null) {
+				return;
+			}
+			synchronized (this) {
+				this.queue.remove(waiter);
+			}
+			if (e instanceof TimeoutException) {
+				this.recordWait(tenantId, "timeout", start);
+				logger.warn("action=timeout_chat_call tenantId={} timeout={}", tenantId, this.queueTimeout);
+			}
+		});
+		return waiter.future();
+	}
+
+	private boolean canAdmit(String tenantId) {
+		return this.inFlight < (int) this.limit && this.inFlightPerTenant.getOrDefault(tenantId, 0) < this.maxPerTenant;
+	}
+
+	private Permit admit(String tenantId) {
+		this.inFlight++;
+		this.inFlightPerTenant.merge(tenantId, 1, Integer::sum);
+		return new Permit(tenantId, ++this.admitted);
+	}
+
+	private synchronized void release(Permit permit) {
+		this.inFlight--;
+		this.inFlightPerTenant.computeIfPresent(permit.tenantId(), (k, v) -> v > 1 ? v - 1 : null);
+		this.drain();
+	}
+
+	/**
+	 * Admits queued calls in FIFO order as long as there are free slots, skipping calls
+	 * of tenants that are at their limit.
+	 */
+	private void drain() {
+		Iterator<Waiter> iterator = this.queue.iterator();
+		while (iterator.hasNext() && this.inFlight < (int) this.limit) {
+			Waiter waiter = iterator.next();
+			if (waiter.future().isDone()) {
+				iterator.remove();
+			}
+			else if (this.canAdmit(waiter.tenantId())) {
+				iterator.remove();
+				Permit permit = this.admit(waiter.tenantId());
+				if (waiter.future().complete(permit)) {
+					this.recordWait(waiter.tenantId(), "admitted", waiter.start());
+				}
+				else {
+					// timed out or cancelled in the meantime
+					this.inFlight--;
+					this.inFlightPerTenant.computeIfPresent(permit.tenantId(), (k, v) -> v > 1 ? v - 1 : null);
+				}
+			}
+		}
+	}
+
+	private synchronized void onSuccess() {
+		this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+	}
+
+	private synchronized void onThrottled(Permit permit) {
+		this.throttled.increment();
+		if (permit.sequence() <= this.lastDecrease) {
+			return;
+		}
+		this.limit = Math.max(this.minLimit, this.limit / 2);
+		this.lastDecrease = this.admitted;
+		logger.warn("action=decrease_chat_call_limit tenantId={} limit={}", permit.tenantId(), (int) this.limit);
+	}
+
+	private void recordWait(String tenantId, String outcome, long start) {
+		Timer.builder(METRIC_PREFIX + ".wait")
+			.description("Time spent waiting for a slot to call the chat model")
+			.tag("tenant", tenantId)
+			.tag("outcome", outcome)
+			.register(this.meterRegistry)
+			.record(Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	synchronized double limit() {
+		return this.limit;
+	}
+
+	synchronized int inFlight() {
+		return this.inFlight;
+	}
+
+	synchronized int queued() {
+		return this.queue.size();
+	}
+
+	public static boolean isTooManyRequests(@Nullable Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof WebClientResponseException ex && ex.getStatusCode().value() == 429) {
+				return true;
+			}
+			if (t instanceof RestClientResponseException ex && ex.getStatusCode().value() == 429) {
+				return true;
+			}
+			if ((t instanceof TransientAiException || t instanceof NonTransientAiException) && t.getMessage() != null
+					&& t.getMessage().startsWith("429")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private record Waiter(String tenantId, long start, CompletableFuture<Permit> future) {
+	}
+
+	/**
+	 * A slot for one call. Releasing it more than once has no effect.
+	 */
+	final class Permit {
+
+		private final String tenantId;
+
+		private final long sequence;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		Permit(String tenantId, long sequence) {
+			this.tenantId = tenantId;
+			this.sequence = sequence;
+		}
+
+		String tenantId() {
+			return this.tenantId;
+		}
+
+		long sequence() {
+			return this.sequence;
+		}
+
+		void succeeded() {
+			onSuccess();
+		}
+
+		void throttled(boolean tooManyRequests) {
+			if (tooManyRequests) {
+				onThrottled(this);
+			}
+		}
+
+		void release() {
+			if (this.released.compareAndSet(false, true)) {
+				ChatCallLimiter.this.release(this);
+			}
+		}
+
+	}
+
+}
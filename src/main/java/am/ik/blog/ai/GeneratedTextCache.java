@@ -0,0 +1,144 @@
+package am.ik.blog.ai;
+
+import am.ik.blog.BlogProps;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Caches text generated by the chat model, keyed by the model, the system prompt and the
+ * SHA-256 of the user content, so that summarizing or editing unchanged content does not
+ * call the model again. The prompt is part of the key as a hash, so changing a prompt
+ * invalidates what was generated with the previous one.
+ * <p>
+ * Generated text is stored in the {@value #CACHE_NAME} cache of the {@link CacheManager}
+ * if there is one (with the {@code redis} profile). Independently of that, concurrent
+ * requests for the same key on this node share one upstream call.
+ */
+@Component
+public class GeneratedTextCache {
+
+	public static final String CACHE_NAME = "generatedTexts";
+
+	private final @Nullable Cache cache;
+
+	private final ConcurrentMap<Key, Flux<String>> inFlight = new ConcurrentHashMap<>();
+
+	private final Logger logger = LoggerFactory.getLogger(GeneratedTextCache.class);
+
+	public GeneratedTextCache(ObjectProvider<CacheManager> cacheManager, BlogProps blogProps) {
+		CacheManager manager = cacheManager.getIfAvailable();
+		this.cache = blogProps.getAi().isCacheEnabled() && manager != null ? manager.getCache(CACHE_NAME) : null;
+	}
+
+	/**
+	 * Returns the cached text for the key, or streams the text from the generator and
+	 * caches it once it is complete. Subscribers arriving while a generation of the same
+	 * key is in progress receive the chunks of that generation, including the ones
+	 * already emitted.
+	 * @param key the cache key
+	 * @param generator calls the model
+	 * @return chunks of the generated text
+	 */
+	public Flux<String> get(Key key, Supplier<Flux<String>> generator) {
+		return Flux.defer(() -> {
+			String cached = this.lookup(key);
+			if (cached != null) {
+				logger.info("action=hit_generated_text key={}", key);
+				return Flux.just(cached);
+			}
+			Flux<String> generation = this.inFlight.get(key);
+			if (generation != null) {
+				logger.info("action=join_generated_text key={}", key);
+				return generation;
+			}
+			StringBuilder text = new StringBuilder();
+			AtomicReference<Flux<String>> self = new AtomicReference<>();
+			Flux<String> created = generator.get()
+				.doOnNext(text::append)
+				.doOnComplete(() -> this.store(key, text.toString()))
+				.doFinally(signal -> this.inFlight.remove(key, self.get()))
+				.cache();
+			self.set(created);
+			generation = this.inFlight.putIfAbsent(key, created);
+			return generation != null ? generation : created;
+		});
+	}
+
+	private @Nullable String lookup(Key key) {
+		if (this.cache == null) {
+			return null;
+		}
+		try {
+			return this.cache.get(key.toString(), String.class);
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=get_generated_text key={} message=\"{}\"", key, e.getMessage());
+			return null;
+		}
+	}
+
+	private void store(Key key, String text) {
+		if (this.cache == null || text.isEmpty()) {
+			return;
+		}
+		try {
+			this.cache.put(key.toString(), text);
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=put_generated_text key={} message=\"{}\"", key, e.getMessage());
+		}
+	}
+
+	/**
+	 * Cache key of a generated text.
+	 *
+	 * @param model the chat model
+	 * @param prompt name and hash of the system prompt, e.g. {@code summary:1a2b3c4d}
+	 * @param contentHash SHA-256 of the user content
+	 */
+	public record Key(String model, String prompt, String contentHash) {
+
+		/**
+		 * Creates the key of a generation.
+		 * @param model the chat model
+		 * @param promptName what the prompt does, e.g. {@code summary} or the edit mode
+		 * @param systemPrompt the system prompt
+		 * @param content the user content
+		 * @return the key
+		 */
+		public static Key of(String model, String promptName, String systemPrompt, String content) {
+			return new Key(model, promptName + ":" + sha256(systemPrompt).substring(0, 8), sha256(content));
+		}
+
+		static String sha256(String text) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+			}
+			catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.model + "|" + this.prompt + "|" + this.contentHash;
+		}
+
+	}
+
+}
@@ -0,0 +1,4 @@
+@NullMarked
+package am.ik.blog.ai;
+
+import org.jspecify.annotations.NullMarked;
@@ -2,9 +2,11 @@ package am.ik.blog.config;
 
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.SQLExceptionOverride;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.InstantSource;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -13,14 +15,18 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
 import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.jdbc.support.JdbcTransactionManager;
 import org.springframework.jdbc.support.SQLExceptionTranslator;
 import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
@@ -38,6 +44,8 @@ class DsqlDataSourceConfig {
 
 	private final Logger logger = LoggerFactory.getLogger(DsqlDataSourceConfig.class);
 
+	private static final String READ_ONLY_ENABLED = "blog.datasource.read-only.enabled";
+
 	private final Duration tokenTtl = Duration.ofMinutes(60);
 
 	@Bean
@@ -47,37 +55,18 @@ class DsqlDataSourceConfig {
 	}
 
 	@Bean
-	Supplier<String> dsqlTokenSupplier(DataSourceProperties dsqlDataSourceProperties,
-			AwsRegionProvider awsRegionProvider, AwsCredentialsProvider credentialsProvider) {
-		Region region = awsRegionProvider.getRegion();
-		DsqlUtilities utilities = DsqlUtilities.builder()
-			.region(region)
-			.credentialsProvider(credentialsProvider)
-			.build();
-		String username = dsqlDataSourceProperties.getUsername();
-		String hostname = Objects.requireNonNull(dsqlDataSourceProperties.getUrl()).split("/")[2];
-		return () -> {
-			Consumer<GenerateAuthTokenRequest.Builder> request = builder -> builder.hostname(hostname)
-				.region(region)
-				.expiresIn(tokenTtl);
-			return "admin".equals(username) ? utilities.generateDbConnectAdminAuthToken(request)
-					: utilities.generateDbConnectAuthToken(request);
-		};
+	DsqlTokenProvider dsqlTokenProvider(DataSourceProperties dsqlDataSourceProperties,
+			AwsRegionProvider awsRegionProvider, AwsCredentialsProvider credentialsProvider,
+			InstantSource instantSource, MeterRegistry meterRegistry) {
+		return tokenProvider("dsqlDataSource", dsqlDataSourceProperties, awsRegionProvider, credentialsProvider,
+				instantSource, meterRegistry);
 	}
 
 	@Bean
 	@ConfigurationProperties("spring.datasource.hikari")
-	HikariDataSource dsqlDataSource(DataSourceProperties dsqlDataSourceProperties, Supplier<String> dsqlTokenSupplier) {
-		HikariDataSource dataSource = dsqlDataSourceProperties.initializeDataSourceBuilder()
-			.type(HikariDataSource.class)
-			.build();
-		String token = dsqlTokenSupplier.get();
-		if (StringUtils.hasText(dataSource.getPassword())) {
-			logger.warn("Overriding existing password for the datasource with DSQL token.");
-		}
-		dataSource.setPassword(token);
-		dataSource.setExceptionOverrideClassName(DsqlExceptionOverride.class.getName());
-		return dataSource;
+	HikariDataSource dsqlDataSource(DataSourceProperties dsqlDataSourceProperties,
+			DsqlTokenProvider dsqlTokenProvider) {
+		return createDataSource(dsqlDataSourceProperties, dsqlTokenProvider);
 	}
 
 	@Bean
@@ -99,16 +88,112 @@ class DsqlDataSourceConfig {
 	}
 
 	@Bean
-	InitializingBean tokenRefresher(DataSource dataSource, Supplier<String> dsqlTokenSupplier,
-			SimpleAsyncTaskScheduler taskScheduler) throws Exception {
-		HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+	InitializingBean tokenRefresher(DsqlTokenProvider dsqlTokenProvider, SimpleAsyncTaskScheduler taskScheduler) {
+		return () -> scheduleTokenRefresh(dsqlTokenProvider, taskScheduler);
+	}
+
+	@Bean
+	@ConditionalOnBooleanProperty(READ_ONLY_ENABLED)
+	@ConfigurationProperties("blog.datasource.read-only")
+	DataSourceProperties dsqlReadOnlyDataSourceProperties(DataSourceProperties dsqlDataSourceProperties) {
+		DataSourceProperties properties = new DataSourceProperties();
+		properties.setUrl(dsqlDataSourceProperties.getUrl());
+		properties.setUsername(dsqlDataSourceProperties.getUsername());
+		properties.setDriverClassName(dsqlDataSourceProperties.getDriverClassName());
+		return properties;
+	}
+
+	@Bean
+	@ConditionalOnBooleanProperty(READ_ONLY_ENABLED)
+	DsqlTokenProvider dsqlReadOnlyTokenProvider(DataSourceProperties dsqlReadOnlyDataSourceProperties,
+			AwsRegionProvider awsRegionProvider, AwsCredentialsProvider credentialsProvider,
+			InstantSource instantSource, MeterRegistry meterRegistry) {
+		return tokenProvider("dsqlReadOnlyDataSource", dsqlReadOnlyDataSourceProperties, awsRegionProvider,
+				credentialsProvider, instantSource, meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnBooleanProperty(READ_ONLY_ENABLED)
+	@ConfigurationProperties("blog.datasource.read-only.hikari")
+	HikariDataSource dsqlReadOnlyDataSource(DataSourceProperties dsqlReadOnlyDataSourceProperties,
+			DsqlTokenProvider dsqlReadOnlyTokenProvider) {
+		HikariDataSource dataSource = createDataSource(dsqlReadOnlyDataSourceProperties, dsqlReadOnlyTokenProvider);
+		dataSource.setPoolName("dsql-read-only");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	/**
+	 * Routes read-only transactions to a dedicated connection pool so that bursts of
+	 * writes (initial import, webhook batches) cannot exhaust the connections that serve
+	 * queries. The read-only pool targets the same cluster endpoint unless
+	 * {@code blog.datasource.read-only.url} is set and is sized through
+	 * {@code blog.datasource.read-only.hikari.*}.
+	 */
+	@Bean
+	@ConditionalOnBooleanProperty(READ_ONLY_ENABLED)
+	@Primary
+	LazyConnectionDataSourceProxy dataSource(@Qualifier("dsqlDataSource") DataSource dsqlDataSource,
+			@Qualifier("dsqlReadOnlyDataSource") DataSource dsqlReadOnlyDataSource) {
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(dsqlDataSource);
+		dataSource.setReadOnlyDataSource(dsqlReadOnlyDataSource);
+		return dataSource;
+	}
+
+	@Bean
+	@ConditionalOnBooleanProperty(READ_ONLY_ENABLED)
+	InitializingBean readOnlyTokenRefresher(DsqlTokenProvider dsqlReadOnlyTokenProvider,
+			SimpleAsyncTaskScheduler taskScheduler) {
+		return () -> scheduleTokenRefresh(dsqlReadOnlyTokenProvider, taskScheduler);
+	}
+
+	private DsqlTokenProvider tokenProvider(String name, DataSourceProperties dataSourceProperties,
+			AwsRegionProvider awsRegionProvider, AwsCredentialsProvider credentialsProvider,
+			InstantSource instantSource, MeterRegistry meterRegistry) {
+		Region region = awsRegionProvider.getRegion();
+		DsqlUtilities utilities = DsqlUtilities.builder()
+			.region(region)
+			.credentialsProvider(credentialsProvider)
+			.build();
+		String username = dataSourceProperties.getUsername();
+		String hostname = Objects.requireNonNull(dataSourceProperties.getUrl()).split("/")[2];
+		Supplier<String> tokenGenerator = () -> {
+			Consumer<GenerateAuthTokenRequest.Builder> request = builder -> builder.hostname(hostname)
+				.region(region)
+				.expiresIn(tokenTtl);
+			return "admin".equals(username) ? utilities.generateDbConnectAdminAuthToken(request)
+					: utilities.generateDbConnectAuthToken(request);
+		};
+		DsqlTokenProvider tokenProvider = new DsqlTokenProvider(name, username, tokenGenerator, tokenTtl, instantSource,
+				meterRegistry);
+		tokenProvider.refresh();
+		return tokenProvider;
+	}
+
+	private HikariDataSource createDataSource(DataSourceProperties dataSourceProperties,
+			DsqlTokenProvider tokenProvider) {
+		HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+			.type(HikariDataSource.class)
+			.build();
+		if (StringUtils.hasText(dataSource.getPassword())) {
+			logger.warn("Ignoring existing password for the datasource in favor of DSQL token.");
+		}
+		dataSource.setCredentialsProvider(tokenProvider);
+		dataSource.setExceptionOverrideClassName(DsqlExceptionOverride.class.getName());
+		return dataSource;
+	}
+
+	/**
+	 * Generates the next token at half of the token lifetime. Pooled connections are left
+	 * untouched and pick up the new token when Hikari replaces them after
+	 * {@code max-lifetime}, which spreads reconnects over time instead of evicting the
+	 * whole pool at once.
+	 */
+	private void scheduleTokenRefresh(DsqlTokenProvider tokenProvider, SimpleAsyncTaskScheduler taskScheduler) {
 		Duration interval = tokenTtl.dividedBy(2);
-		return () -> taskScheduler.scheduleWithFixedDelay(() -> {
-			logger.info("refreshing DSQL token");
+		taskScheduler.scheduleWithFixedDelay(() -> {
 			try {
-				String token = dsqlTokenSupplier.get();
-				hikariDataSource.getHikariConfigMXBean().setPassword(token);
-				hikariDataSource.getHikariPoolMXBean().softEvictConnections();
+				tokenProvider.refresh();
 			}
 			catch (RuntimeException e) {
 				logger.error("Failed to refresh DSQL token", e);
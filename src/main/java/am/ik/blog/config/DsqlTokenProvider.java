@@ -0,0 +1,96 @@
+package am.ik.blog.config;
+
+import com.zaxxer.hikari.HikariCredentialsProvider;
+import com.zaxxer.hikari.util.Credentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Supplies DSQL IAM auth tokens to Hikari whenever it opens a new connection. A token is
+ * only checked when a connection is established, so refreshing it does not require
+ * evicting pooled connections; they are retired one by one as they reach
+ * {@code max-lifetime}. The next token is generated by {@link #refresh()} well before the
+ * current one expires so that connection setup does not wait on token generation.
+ */
+class DsqlTokenProvider implements HikariCredentialsProvider {
+
+	static final String METRIC_NAME = "dsql.token.generation";
+
+	private final String name;
+
+	private final @Nullable String username;
+
+	private final Supplier<String> tokenGenerator;
+
+	private final Duration tokenTtl;
+
+	private final InstantSource instantSource;
+
+	private final Timer generationTimer;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile @Nullable Token token;
+
+	private final Logger logger = LoggerFactory.getLogger(DsqlTokenProvider.class);
+
+	DsqlTokenProvider(String name, @Nullable String username, Supplier<String> tokenGenerator, Duration tokenTtl,
+			InstantSource instantSource, MeterRegistry meterRegistry) {
+		this.name = name;
+		this.username = username;
+		this.tokenGenerator = tokenGenerator;
+		this.tokenTtl = tokenTtl;
+		this.instantSource = instantSource;
+		this.generationTimer = Timer.builder(METRIC_NAME)
+			.description("Time taken to generate a DSQL auth token")
+			.tag("datasource", name)
+			.register(meterRegistry);
+	}
+
+	@Override
+	public Credentials getCredentials() {
+		Token current = this.token;
+		if (current == null || current.expiresWithin(this.instantSource.instant(), this.tokenTtl.dividedBy(4))) {
+			// the background refresh has not kept up; generate a token inline
+			current = this.refresh();
+		}
+		return Credentials.of(this.username, current.value());
+	}
+
+	/**
+	 * Generates a new token that is handed out to connections opened from now on.
+	 * @return the new token
+	 */
+	Token refresh() {
+		this.lock.lock();
+		try {
+			Instant now = this.instantSource.instant();
+			String value = Objects.requireNonNull(this.generationTimer.record(this.tokenGenerator));
+			Token refreshed = new Token(value, now.plus(this.tokenTtl));
+			this.token = refreshed;
+			logger.info("action=refresh_dsql_token datasource={} expires_at={}", this.name, refreshed.expiresAt());
+			return refreshed;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	record Token(String value, Instant expiresAt) {
+
+		boolean expiresWithin(Instant now, Duration margin) {
+			return !now.plus(margin).isBefore(this.expiresAt);
+		}
+
+	}
+
+}
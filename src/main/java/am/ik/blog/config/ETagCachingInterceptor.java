@@ -0,0 +1,133 @@
+package am.ik.blog.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor that makes GET requests conditional on the {@code ETag} of the last
+ * successful response for the same URL. A {@code 304 Not Modified} is answered with the
+ * cached response, so the caller never sees it. GitHub does not count such responses
+ * against the rate limit.
+ * <p>
+ * The cache is not keyed by credentials, so an instance must not be shared between
+ * clients that authenticate differently.
+ */
+public class ETagCachingInterceptor implements ClientHttpRequestInterceptor {
+
+	private final Map<URI, CachedResponse> responses;
+
+	private final Logger logger = LoggerFactory.getLogger(ETagCachingInterceptor.class);
+
+	/**
+	 * @param maxEntries the maximum number of responses to keep, least recently used ones
+	 * are dropped first
+	 */
+	public ETagCachingInterceptor(int maxEntries) {
+		this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsHeader(HttpHeaders.IF_NONE_MATCH)) {
+			return execution.execute(request, body);
+		}
+		URI uri = request.getURI();
+		CachedResponse cached;
+		synchronized (this.responses) {
+			cached = this.responses.get(uri);
+		}
+		if (cached != null) {
+			request.getHeaders().setIfNoneMatch(cached.etag());
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		HttpStatusCode status = response.getStatusCode();
+		if (cached != null && status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+			response.close();
+			logger.debug("action=etag_cache_hit uri={}", uri);
+			return cached.toResponse();
+		}
+		String etag = response.getHeaders().getETag();
+		if (status.isSameCodeAs(HttpStatus.OK) && etag != null) {
+			byte[] responseBody = response.getBody().readAllBytes();
+			CachedResponse updated = new CachedResponse(etag, HttpHeaders.copyOf(response.getHeaders()), responseBody);
+			synchronized (this.responses) {
+				this.responses.put(uri, updated);
+			}
+			response.close();
+			return updated.toResponse();
+		}
+		return response;
+	}
+
+	int size() {
+		synchronized (this.responses) {
+			return this.responses.size();
+		}
+	}
+
+	private record CachedResponse(String etag, HttpHeaders headers, byte[] body) {
+
+		ClientHttpResponse toResponse() {
+			return new CachedClientHttpResponse(this.headers, this.body);
+		}
+
+	}
+
+	private static class CachedClientHttpResponse implements ClientHttpResponse {
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		CachedClientHttpResponse(HttpHeaders headers, byte[] body) {
+			this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+			this.body = body;
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() {
+			return HttpStatus.OK;
+		}
+
+		@Override
+		public String getStatusText() {
+			return HttpStatus.OK.getReasonPhrase();
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.body);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+	}
+
+}
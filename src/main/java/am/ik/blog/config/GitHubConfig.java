@@ -1,14 +1,22 @@
 package am.ik.blog.config;
 
 import am.ik.blog.GitHubProps;
+import am.ik.blog.entry.EntryKey;
 import am.ik.blog.github.Committer;
 import am.ik.blog.github.GitCommit;
 import am.ik.blog.github.GitCommitter;
 import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubGraphQLClient;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
 import am.ik.blog.github.GitHubUserContentClient;
+import am.ik.blog.github.GraphQLResponse;
 import am.ik.blog.github.Parent;
 import am.ik.blog.github.Tree;
+import am.ik.blog.github.WebhookSignature;
 
+import am.ik.spring.http.client.RetryableClientHttpRequestInterceptor;
+import java.net.http.HttpClient;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -17,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aot.hint.ExecutableMode;
 import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
@@ -28,17 +37,25 @@ import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.core.env.Environment;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 import org.springframework.web.service.registry.AbstractHttpServiceRegistrar;
 import org.springframework.web.service.registry.ImportHttpServices;
+import org.springframework.web.util.DefaultUriBuilderFactory;
 
 @Configuration(proxyBeanMethods = false)
 @Import(GitHubConfig.GithubTenantsHttpServiceRegistrar.class)
 @ImportRuntimeHints(GitHubConfig.RuntimeHints.class)
-@ImportHttpServices(group = "github", types = GitHubClient.class)
+@ImportHttpServices(group = "github", types = { GitHubClient.class, GitHubGraphQLClient.class })
 @ImportHttpServices(group = "githubusercontent", types = GitHubUserContentClient.class)
 class GitHubConfig {
 
@@ -51,33 +68,153 @@ class GitHubConfig {
 	RestClientHttpServiceGroupConfigurer githubRestClientHttpServiceGroupConfigurer(GitHubProps props) {
 		ErrorLoggingInterceptor errorLoggingInterceptor = new ErrorLoggingInterceptor();
 		return groups -> {
-			groups.filterByName("github").forEachClient((_, builder) -> {
-				builder.baseUrl(props.getApiUrl())
-					.defaultHeader(HttpHeaders.AUTHORIZATION, "token %s".formatted(props.getAccessToken()))
-					.defaultStatusHandler(allwaysTrueStatusPredicate, noOpErrorHandler)
-					.requestInterceptor(errorLoggingInterceptor);
-			});
+			TenantClientConfigurer defaultTenant = new TenantClientConfigurer(props, props, EntryKey.DEFAULT_TENANT_ID,
+					errorLoggingInterceptor);
+			groups.filterByName("github").forEachClient((_, builder) -> defaultTenant.configureApi(builder));
+			groups.filterByName("githubusercontent")
+				.forEachClient((_, builder) -> defaultTenant.configureRawContent(builder));
 			Map<String, GitHubProps> tenants = props.getTenants();
 			if (!CollectionUtils.isEmpty(tenants)) {
 				tenants.forEach((tenantId, tenantProps) -> {
-					groups.filterByName("github.%s".formatted(tenantId)).forEachClient((_, builder) -> {
-						builder.baseUrl(props.getApiUrl())
-							.defaultHeader(HttpHeaders.AUTHORIZATION,
-									"token %s".formatted(tenantProps.getAccessToken()))
-							.defaultStatusHandler(allwaysTrueStatusPredicate, noOpErrorHandler)
-							.requestInterceptor(errorLoggingInterceptor);
-					});
+					TenantClientConfigurer tenant = new TenantClientConfigurer(props, tenantProps, tenantId,
+							errorLoggingInterceptor);
+					groups.filterByName("github.%s".formatted(tenantId))
+						.forEachClient((_, builder) -> tenant.configureApi(builder));
+					groups.filterByName("githubusercontent.%s".formatted(tenantId))
+						.forEachClient((_, builder) -> tenant.configureRawContent(builder));
 				});
 			}
-			groups.filterByName("githubusercontent").forEachClient((_, builder) -> {
-				builder.baseUrl("https://raw.githubusercontent.com")
-					.defaultStatusHandler(allwaysTrueStatusPredicate, noOpErrorHandler)
-					.defaultHeader(HttpHeaders.AUTHORIZATION, "token %s".formatted(props.getAccessToken()))
-					.requestInterceptor(errorLoggingInterceptor);
-			});
 		};
 	}
 
+	/**
+	 * Creates the clients of tenants provisioned at runtime, which have no HTTP service
+	 * groups, configured like the clients of the groups.
+	 */
+	@Bean
+	GitHubTenants.ClientFactory gitHubTenantClientFactory(GitHubProps props,
+			ObjectProvider<RestClient.Builder> restClientBuilder) {
+		ErrorLoggingInterceptor errorLoggingInterceptor = new ErrorLoggingInterceptor();
+		return (tenantId, tenantProps) -> {
+			TenantClientConfigurer tenant = new TenantClientConfigurer(props, tenantProps, tenantId,
+					errorLoggingInterceptor);
+			HttpServiceProxyFactory api = HttpServiceProxyFactory
+				.builderFor(RestClientAdapter.create(tenant.configureApi(restClientBuilder.getObject()).build()))
+				.build();
+			HttpServiceProxyFactory rawContent = HttpServiceProxyFactory
+				.builderFor(RestClientAdapter.create(tenant.configureRawContent(restClientBuilder.getObject()).build()))
+				.build();
+			return new GitHubTenant(tenantId, tenantProps.getContentOwner(), tenantProps.getContentRepo(),
+					api.createClient(GitHubClient.class), api.createClient(GitHubGraphQLClient.class),
+					rawContent.createClient(GitHubUserContentClient.class),
+					new WebhookSignature(tenantProps.getWebhookSecret()));
+		};
+	}
+
+	/**
+	 * Creates a request factory on its own JDK {@link HttpClient}, which keeps
+	 * connections alive between requests and multiplexes them over HTTP/2 where the
+	 * server supports it.
+	 */
+	static ClientHttpRequestFactory requestFactory(GitHubProps props) {
+		HttpClient httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_2)
+			.connectTimeout(props.getConnectTimeout())
+			.followRedirects(HttpClient.Redirect.NORMAL)
+			.build();
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(props.getReadTimeout());
+		return requestFactory;
+	}
+
+	/**
+	 * Creates an interceptor that retries transient failures (server errors, rate
+	 * limiting and connection problems) of GET and HEAD requests with the back-off of the
+	 * props. It is added after the ETag interceptor so that retried GETs stay
+	 * conditional.
+	 * <p>
+	 * Other requests are sent once. A write that timed out or failed with a server error
+	 * may have been applied already, and replaying it would fail with a conflict or
+	 * create a second commit.
+	 */
+	static ClientHttpRequestInterceptor retryInterceptor(GitHubProps props) {
+		RetryableClientHttpRequestInterceptor retryableInterceptor = new RetryableClientHttpRequestInterceptor(
+				props.getBackOff());
+		return (request, body, execution) -> {
+			HttpMethod method = request.getMethod();
+			if (method == HttpMethod.GET || method == HttpMethod.HEAD) {
+				return retryableInterceptor.intercept(request, body, execution);
+			}
+			return execution.execute(request, body);
+		};
+	}
+
+	private static DefaultUriBuilderFactory rawContentUriBuilderFactory(String rawContentUrl) {
+		DefaultUriBuilderFactory factory = new DefaultUriBuilderFactory(rawContentUrl);
+		// raw URLs take the path of the file as is, so the slashes in it must not be
+		// encoded
+		factory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.URI_COMPONENT);
+		return factory;
+	}
+
+	/**
+	 * Configures the clients of a tenant. They share a connection pool and retries, and
+	 * the API clients share an ETag cache, which must not be shared between tenants
+	 * because they authenticate differently.
+	 */
+	private final class TenantClientConfigurer {
+
+		private final String apiUrl;
+
+		private final String rawContentUrl;
+
+		private final String authorization;
+
+		private final ClientHttpRequestFactory requestFactory;
+
+		private final ClientHttpRequestInterceptor errorLoggingInterceptor;
+
+		private final ClientHttpRequestInterceptor etagCachingInterceptor;
+
+		private final ClientHttpRequestInterceptor retryInterceptor;
+
+		private final ClientRequestObservationConvention observationConvention;
+
+		TenantClientConfigurer(GitHubProps props, GitHubProps tenantProps, String tenantId,
+				ClientHttpRequestInterceptor errorLoggingInterceptor) {
+			this.apiUrl = props.getApiUrl();
+			this.rawContentUrl = props.getRawContentUrl();
+			this.authorization = "token %s".formatted(tenantProps.getAccessToken());
+			this.requestFactory = requestFactory(tenantProps);
+			this.errorLoggingInterceptor = errorLoggingInterceptor;
+			this.etagCachingInterceptor = new ETagCachingInterceptor(tenantProps.getEtagCacheSize());
+			this.retryInterceptor = retryInterceptor(tenantProps);
+			this.observationConvention = new TenantClientRequestObservationConvention(tenantId);
+		}
+
+		RestClient.Builder configureApi(RestClient.Builder builder) {
+			return builder.baseUrl(this.apiUrl)
+				.observationConvention(this.observationConvention)
+				.requestFactory(this.requestFactory)
+				.defaultHeader(HttpHeaders.AUTHORIZATION, this.authorization)
+				.defaultStatusHandler(allwaysTrueStatusPredicate, noOpErrorHandler)
+				.requestInterceptor(this.errorLoggingInterceptor)
+				.requestInterceptor(this.etagCachingInterceptor)
+				.requestInterceptor(this.retryInterceptor);
+		}
+
+		RestClient.Builder configureRawContent(RestClient.Builder builder) {
+			return builder.uriBuilderFactory(rawContentUriBuilderFactory(this.rawContentUrl))
+				.observationConvention(this.observationConvention)
+				.requestFactory(this.requestFactory)
+				.defaultStatusHandler(allwaysTrueStatusPredicate, noOpErrorHandler)
+				.defaultHeader(HttpHeaders.AUTHORIZATION, this.authorization)
+				.requestInterceptor(this.errorLoggingInterceptor)
+				.requestInterceptor(this.retryInterceptor);
+		}
+
+	}
+
 	static class RuntimeHints implements RuntimeHintsRegistrar {
 
 		@Override
@@ -87,7 +224,10 @@ class GitHubConfig {
 				.registerConstructor(GitCommitter.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
 				.registerConstructor(Committer.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
 				.registerConstructor(Parent.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
-				.registerConstructor(Tree.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE);
+				.registerConstructor(Tree.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
+				.registerConstructor(Tree.Item.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
+				.registerConstructor(GraphQLResponse.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE)
+				.registerConstructor(GraphQLResponse.Error.class.getDeclaredConstructors()[0], ExecutableMode.INVOKE);
 		}
 
 	}
@@ -113,8 +253,11 @@ class GitHubConfig {
 				logger.info("No github tenants configured");
 				return;
 			}
-			this.githubTenantIds
-				.forEach(tenantId -> registry.forGroup("github.%s".formatted(tenantId)).register(GitHubClient.class));
+			this.githubTenantIds.forEach(tenantId -> {
+				registry.forGroup("github.%s".formatted(tenantId))
+					.register(GitHubClient.class, GitHubGraphQLClient.class);
+				registry.forGroup("githubusercontent.%s".formatted(tenantId)).register(GitHubUserContentClient.class);
+			});
 		}
 
 	}
@@ -1,23 +1,41 @@
 package am.ik.blog.config;
 
+import am.ik.blog.BlogProps;
+import am.ik.blog.ai.GeneratedTextCache;
 import am.ik.blog.entry.CacheNames;
+import am.ik.blog.entry.CachingEntryRepository;
+import am.ik.blog.entry.ContentVersions;
 import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.PageLoadLock;
+import am.ik.blog.entry.codec.CacheCodec;
+import am.ik.blog.entry.codec.CachedPageCodec;
+import am.ik.blog.entry.codec.CodecRedisSerializer;
+import am.ik.blog.entry.codec.EntryCodec;
+import am.ik.blog.entry.dsql.DsqlEntryRepository;
 import am.ik.pagination.CursorPage;
 import io.lettuce.core.tracing.MicrometerTracing;
 import io.micrometer.observation.ObservationRegistry;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.cache.autoconfigure.RedisCacheManagerBuilderCustomizer;
 import org.springframework.boot.data.redis.autoconfigure.ClientResourcesBuilderCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import tools.jackson.databind.json.JsonMapper;
 
 @Profile("redis")
@@ -36,15 +54,85 @@ class RedisConfig implements CachingConfigurer {
 	}
 
 	@Bean
-	RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(JsonMapper jsonMapper) {
+	RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(JsonMapper jsonMapper, BlogProps blogProps) {
+		BlogProps.Cache props = blogProps.getCache();
 		return builder -> builder.withInitialCacheConfigurations(Map.of(CacheNames.ENTRY,
 				RedisCacheConfiguration.defaultCacheConfig()
 					.serializeValuesWith(RedisSerializationContext.SerializationPair
-						.fromSerializer(new JacksonJsonRedisSerializer<>(jsonMapper, Entry.class))),
+						.fromSerializer(valueSerializer(jsonMapper, props, new EntryCodec(), Entry.class))),
 				CacheNames.LATEST_ENTRIES,
 				RedisCacheConfiguration.defaultCacheConfig()
 					.serializeValuesWith(RedisSerializationContext.SerializationPair
-						.fromSerializer(new JacksonJsonRedisSerializer<>(jsonMapper, CursorPage.class)))));
+						.fromSerializer(new JacksonJsonRedisSerializer<>(jsonMapper, CursorPage.class))),
+				CacheNames.ENTRY_PAGES,
+				RedisCacheConfiguration.defaultCacheConfig()
+					.entryTtl(props.getEntryPagesTtl())
+					.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(
+							jsonMapper, props, new CachedPageCodec(), CachingEntryRepository.CachedPage.class))),
+				GeneratedTextCache.CACHE_NAME,
+				RedisCacheConfiguration.defaultCacheConfig()
+					.entryTtl(blogProps.getAi().getCacheTtl())
+					.serializeValuesWith(
+							RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string()))));
+	}
+
+	/**
+	 * Binary encoded values fall back to JSON for values written before the codec was
+	 * switched, and the codec recognizes binary values by their header, so both formats
+	 * can be read regardless of the configured one.
+	 */
+	private static <T> RedisSerializer<T> valueSerializer(JsonMapper jsonMapper, BlogProps.Cache props,
+			CacheCodec<T> codec, Class<T> type) {
+		JacksonJsonRedisSerializer<T> json = new JacksonJsonRedisSerializer<>(jsonMapper, type);
+		CodecRedisSerializer<T> binary = new CodecRedisSerializer<>(codec, type, json,
+				Math.toIntExact(props.getCompressionThreshold().toBytes()));
+		return switch (props.getCodec()) {
+			case BINARY -> binary;
+			case JSON -> new JsonWritingRedisSerializer<>(json, binary);
+		};
+	}
+
+	@Bean
+	ContentVersions contentVersions(StringRedisTemplate redisTemplate) {
+		return new RedisContentVersions(redisTemplate);
+	}
+
+	@Bean
+	@Primary
+	CachingEntryRepository cachingEntryRepository(DsqlEntryRepository dsqlEntryRepository, CacheManager cacheManager,
+			ContentVersions contentVersions, StringRedisTemplate redisTemplate, BlogProps blogProps) {
+		Cache cache = Objects.requireNonNull(cacheManager.getCache(CacheNames.ENTRY_PAGES));
+		Cache entryCache = Objects.requireNonNull(cacheManager.getCache(CacheNames.ENTRY));
+		BlogProps.Cache props = blogProps.getCache();
+		PageLoadLock pageLoadLock = props.isDistributedLock() ? new RedisPageLoadLock(redisTemplate, props.getLockTtl())
+				: null;
+		Executor refreshExecutor = task -> Thread.ofVirtual().name("entry-page-refresh").start(task);
+		return new CachingEntryRepository(dsqlEntryRepository, cache, entryCache, contentVersions, pageLoadLock,
+				props.getLockWaitTimeout(), props.isStaleWhileRevalidate(), refreshExecutor);
+	}
+
+	/**
+	 * Writes JSON but reads values with the binary codec, which itself reads JSON values,
+	 * so that switching back from the binary codec does not fail on cached binary values.
+	 */
+	private record JsonWritingRedisSerializer<T>(RedisSerializer<T> json,
+			CodecRedisSerializer<T> binary) implements RedisSerializer<T> {
+
+		@Override
+		public byte[] serialize(@Nullable T value) {
+			return this.json.serialize(value);
+		}
+
+		@Override
+		public @Nullable T deserialize(byte @Nullable [] bytes) {
+			return this.binary.deserialize(bytes);
+		}
+
+		@Override
+		public Class<?> getTargetType() {
+			return this.binary.getTargetType();
+		}
+
 	}
 
 }
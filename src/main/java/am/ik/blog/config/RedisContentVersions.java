@@ -0,0 +1,32 @@
+package am.ik.blog.config;
+
+import am.ik.blog.entry.ContentVersions;
+import java.util.Objects;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * {@link ContentVersions} backed by Redis counters so that a write on any node
+ * invalidates the cached pages on every node.
+ */
+class RedisContentVersions implements ContentVersions {
+
+	private static final String KEY_PREFIX = "entryContentVersion::";
+
+	private final StringRedisTemplate redisTemplate;
+
+	RedisContentVersions(StringRedisTemplate redisTemplate) {
+		this.redisTemplate = redisTemplate;
+	}
+
+	@Override
+	public long current(String tenantId) {
+		String version = this.redisTemplate.opsForValue().get(KEY_PREFIX + tenantId);
+		return version == null ? 0 : Long.parseLong(version);
+	}
+
+	@Override
+	public long increment(String tenantId) {
+		return Objects.requireNonNull(this.redisTemplate.opsForValue().increment(KEY_PREFIX + tenantId));
+	}
+
+}
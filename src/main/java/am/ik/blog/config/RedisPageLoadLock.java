@@ -0,0 +1,47 @@
+package am.ik.blog.config;
+
+import am.ik.blog.entry.PageLoadLock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * {@link PageLoadLock} based on {@code SET NX PX}. Each node uses its own token so that
+ * it never releases a lock that has expired and been taken over by another node.
+ */
+class RedisPageLoadLock implements PageLoadLock {
+
+	private static final String KEY_PREFIX = "entryPageLock::";
+
+	private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of("""
+			if redis.call('get', KEYS[1]) == ARGV[1] then
+			    return redis.call('del', KEYS[1])
+			end
+			return 0
+			""", Long.class);
+
+	private final StringRedisTemplate redisTemplate;
+
+	private final Duration lockTtl;
+
+	private final String token = UUID.randomUUID().toString();
+
+	RedisPageLoadLock(StringRedisTemplate redisTemplate, Duration lockTtl) {
+		this.redisTemplate = redisTemplate;
+		this.lockTtl = lockTtl;
+	}
+
+	@Override
+	public boolean tryLock(String key) {
+		return Boolean.TRUE
+			.equals(this.redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, this.token, this.lockTtl));
+	}
+
+	@Override
+	public void unlock(String key) {
+		this.redisTemplate.execute(UNLOCK_SCRIPT, List.of(KEY_PREFIX + key), this.token);
+	}
+
+}
@@ -6,7 +6,7 @@ import am.ik.blog.tenant.MethodInvocationTenantAuthorizationManager;
 import am.ik.blog.tenant.RequestTenantAuthorizationManager;
 import am.ik.blog.tenant.TenantUserDetails;
 import am.ik.blog.tenant.TenantUserDetailsService;
-import am.ik.blog.tenant.TenantUserProps;
+import am.ik.blog.tenant.TenantUsers;
 import org.jspecify.annotations.Nullable;
 import org.springframework.aop.Advisor;
 import org.springframework.aot.hint.ExecutableMode;
@@ -66,15 +66,18 @@ public class SecurityConfig {
 		// @formatter:off
 			.authorizeHttpRequests(authorize -> authorize
 				.requestMatchers(HttpMethod.POST,   "/entries").hasAuthority("entry:edit")
+				.requestMatchers(HttpMethod.POST,   "/entries/batch").hasAuthority("entry:edit")
 				.requestMatchers(HttpMethod.PATCH,  "/entries/**").hasAuthority("entry:edit")
 				.requestMatchers(HttpMethod.PUT,    "/entries/**").hasAuthority("entry:edit")
 				.requestMatchers(HttpMethod.DELETE, "/entries/**").hasAuthority("entry:delete")
 				.requestMatchers(HttpMethod.POST,   "/admin/import").hasAuthority("entry:import")
+				.requestMatchers("/admin/tenants/**", "/admin/tenant-users/**").hasAuthority("*:entry:admin")
 				.requestMatchers(HttpMethod.POST,   "/tenants/{tenantId}/webhook").permitAll()
 				.requestMatchers(HttpMethod.GET,    "/tenants/{tenantId}/entries").access(listForTenant)
 				.requestMatchers(HttpMethod.GET,    "/tenants/{tenantId}/categories").access(listForTenant)
 				.requestMatchers(HttpMethod.GET,    "/tenants/{tenantId}/tag").access(listForTenant)
 				.requestMatchers(HttpMethod.GET,    "/tenants/{tenantId}/entries/**").access(getForTenant)
+				.requestMatchers("/tenants/{tenantId}/admin/summary-backfill").access(editForTenant)
 				.requestMatchers(HttpMethod.POST,   "/tenants/{tenantId}/**").access(editForTenant)
 				.requestMatchers(HttpMethod.PATCH,  "/tenants/{tenantId}/**").access(editForTenant)
 				.requestMatchers(HttpMethod.PUT,    "/tenants/{tenantId}/**").access(editForTenant)
@@ -99,9 +102,9 @@ public class SecurityConfig {
 
 	@Bean
 	CompositeUserDetailsService compositeUserDetailsService(SecurityProperties properties,
-			PasswordEncoder passwordEncoder, TenantUserProps props) {
+			PasswordEncoder passwordEncoder, TenantUsers tenantUsers) {
 		InMemoryUserDetailsManager inMemoryUserDetailsManager = inMemoryUserDetailsManager(properties, passwordEncoder);
-		TenantUserDetailsService tenantUserDetailsService = tenantUserDetailsService(props);
+		TenantUserDetailsService tenantUserDetailsService = tenantUserDetailsService(tenantUsers);
 		return new CompositeUserDetailsService(List.of(inMemoryUserDetailsManager, tenantUserDetailsService));
 	}
 
@@ -121,8 +124,8 @@ public class SecurityConfig {
 			.build());
 	}
 
-	TenantUserDetailsService tenantUserDetailsService(TenantUserProps props) {
-		return new TenantUserDetailsService(props);
+	TenantUserDetailsService tenantUserDetailsService(TenantUsers tenantUsers) {
+		return new TenantUserDetailsService(tenantUsers);
 	}
 
 	public static class RuntimeHints implements RuntimeHintsRegistrar {
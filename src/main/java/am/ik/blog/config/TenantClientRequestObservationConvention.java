@@ -0,0 +1,24 @@
+package am.ik.blog.config;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+/**
+ * Adds the tenant of the client to the {@code http.client.requests} observations, so that
+ * the throughput and latency of the GitHub clients can be told apart per tenant.
+ */
+class TenantClientRequestObservationConvention extends DefaultClientRequestObservationConvention {
+
+	private final String tenantId;
+
+	TenantClientRequestObservationConvention(String tenantId) {
+		this.tenantId = tenantId;
+	}
+
+	@Override
+	public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+		return super.getLowCardinalityKeyValues(context).and("tenant", this.tenantId);
+	}
+
+}
@@ -2,30 +2,44 @@ package am.ik.blog.edit;
 
 public enum EditMode {
 
-	PROOFREADING("""
-			You need to proofread user-entered text (blog posts) for formatting and stylistic issues only.
-			Fix typos, punctuation errors, and grammatical mistakes.
-			Do not change the content, structure, or meaning of the text.
-			Do not add or remove any sentences.
-			"""), //
+	PROOFREADING(Constants.PROOFREADING_PROMPT, false), //
+	/**
+	 * Proofreading that only sends paragraphs of prose to the model and receives only the
+	 * paragraphs it changed, as patches that are applied to the original text.
+	 */
+	PROOFREADING_PATCH(Constants.PROOFREADING_PROMPT, true), //
 	COMPLETION("""
 			In addition to proofreading, fill in missing sentences or explanations that are lacking.
 			If a sentence is incomplete or an explanation is insufficient, complete it naturally.
 			Do not add entirely new topics or sections.
-			"""), //
+			""", false), //
 	EXPANSION(
 			"""
 					In addition to proofreading and completing the article, imagine what the author would write next and continue the article naturally.
 					Do not add headings like "Follow-up" or "Continuation". Just seamlessly extend the content.
-					""");
+					""",
+			false);
 
 	private final String systemPrompt;
 
-	EditMode(String systemPrompt) {
+	private final boolean paragraphPatch;
+
+	EditMode(String systemPrompt, boolean paragraphPatch) {
 		this.systemPrompt = systemPrompt;
+		this.paragraphPatch = paragraphPatch;
 	}
 
 	public String systemPrompt() {
+		if (this.paragraphPatch) {
+			return """
+					You are a professional technical editor.
+					%s
+					The user inputs paragraphs of the text as a JSON array of objects with the paragraph number as "index" and the paragraph as "text".
+					Reply with a JSON array in the same format that contains only the paragraphs you changed, each with its full edited text. Reply with [] if no paragraph needs to be changed.
+					Please reply only the JSON array.
+					"""
+				.formatted(systemPrompt);
+		}
 		return """
 				You are a professional technical editor.
 				%s
@@ -33,4 +47,23 @@ public enum EditMode {
 				""".formatted(systemPrompt);
 	}
 
+	/**
+	 * Whether the text is edited paragraph by paragraph with the model replying only the
+	 * changed paragraphs.
+	 */
+	public boolean paragraphPatch() {
+		return this.paragraphPatch;
+	}
+
+	private static final class Constants {
+
+		static final String PROOFREADING_PROMPT = """
+				You need to proofread user-entered text (blog posts) for formatting and stylistic issues only.
+				Fix typos, punctuation errors, and grammatical mistakes.
+				Do not change the content, structure, or meaning of the text.
+				Do not add or remove any sentences.
+				""";
+
+	}
+
 }
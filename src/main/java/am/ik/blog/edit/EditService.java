@@ -1,40 +1,155 @@
 package am.ik.blog.edit;
 
+import am.ik.blog.BlogProps;
+import am.ik.blog.ai.ChatCallLimiter;
+import am.ik.blog.ai.GeneratedTextCache;
+import am.ik.blog.edit.Paragraphs.Paragraph;
+import am.ik.blog.edit.Paragraphs.Patch;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
 
 @Service
 public class EditService {
 
+	private static final TypeReference<List<Patch>> PATCHES = new TypeReference<>() {
+	};
+
 	private final ChatClient chatClient;
 
 	private final String chatModel;
 
+	private final GeneratedTextCache generatedTextCache;
+
+	private final ChatCallLimiter chatCallLimiter;
+
+	private final JsonMapper jsonMapper;
+
+	private final BlogProps.Ai.Edit props;
+
 	private final Logger logger = LoggerFactory.getLogger(EditService.class);
 
 	public EditService(ChatClient.Builder chatClientBuilder,
-			@Value("${spring.ai.openai.chat.options.model:N/A}") String chatModel) {
+			@Value("${spring.ai.openai.chat.options.model:N/A}") String chatModel,
+			GeneratedTextCache generatedTextCache, ChatCallLimiter chatCallLimiter, JsonMapper jsonMapper,
+			BlogProps blogProps) {
 		this.chatClient = chatClientBuilder.build();
 		this.chatModel = chatModel;
+		this.generatedTextCache = generatedTextCache;
+		this.chatCallLimiter = chatCallLimiter;
+		this.jsonMapper = jsonMapper;
+		this.props = blogProps.getAi().getEdit();
 	}
 
-	public String edit(String content, EditMode editMode) {
-		logger.info("action=start_edit mode={} model={}", editMode, chatModel);
-		long start = System.currentTimeMillis();
-		String text = this.chatClient.prompt()
-			.system(editMode.systemPrompt())
-			.user(u -> u.text(content))
-			.stream()
-			.content()
-			.collectList()
-			.map(list -> String.join("", list))
-			.block();
-		long end = System.currentTimeMillis();
-		logger.info("action=finish_edit mode={} model={} duration={}", editMode, chatModel, end - start);
+	public String edit(String tenantId, String content, EditMode editMode) {
+		String text = this.editStream(tenantId, content, editMode).collect(Collectors.joining()).block();
 		return text == null ? "" : text;
 	}
 
+	/**
+	 * Streams the edited text as the model generates it. An edit of the same content in
+	 * the same mode generated before is returned as a single chunk, as is the text edited
+	 * by a {@link EditMode#paragraphPatch() paragraph patch} mode.
+	 * @param tenantId the tenant requesting the edit
+	 * @param content the text to edit
+	 * @param editMode how to edit the text
+	 * @return chunks of the edited text
+	 */
+	public Flux<String> editStream(String tenantId, String content, EditMode editMode) {
+		GeneratedTextCache.Key key = GeneratedTextCache.Key.of(this.chatModel, editMode.name(), editMode.systemPrompt(),
+				content);
+		return this.generatedTextCache.get(key, () -> editMode.paragraphPatch()
+				? this.editParagraphs(tenantId, content, editMode) : this.generate(tenantId, editMode, content));
+	}
+
+	/**
+	 * Sends the paragraphs of prose in batches, in parallel, and applies the paragraphs
+	 * the model replies with to the original text. Code blocks and paragraphs without
+	 * prose are never sent, and unchanged paragraphs are not sent back, so the output
+	 * tokens are proportional to the changes rather than to the text.
+	 */
+	private Flux<String> editParagraphs(String tenantId, String content, EditMode editMode) {
+		return Flux.defer(() -> {
+			List<Paragraph> paragraphs = Paragraphs.split(content);
+			List<List<Integer>> batches = Paragraphs.batches(paragraphs, this.props.getParagraphBatchSize());
+			logger.info("action=split_paragraphs mode={} paragraphs={} batches={}", editMode, paragraphs.size(),
+					batches.size());
+			return Flux.fromIterable(batches)
+				.flatMap(batch -> this.generate(tenantId, editMode, this.toJson(paragraphs, batch))
+					.collect(Collectors.joining())
+					.map(reply -> this.parsePatches(reply, batch)), this.props.getParallelism())
+				.collect(HashMap<Integer, String>::new, Map::putAll)
+				.map(patches -> {
+					logger.info("action=apply_patches mode={} patches={}", editMode, patches.size());
+					return Paragraphs.apply(paragraphs, patches);
+				})
+				.flux();
+		});
+	}
+
+	private String toJson(List<Paragraph> paragraphs, List<Integer> batch) {
+		return this.jsonMapper
+			.writeValueAsString(batch.stream().map(i -> new Patch(i, paragraphs.get(i).text())).toList());
+	}
+
+	/**
+	 * Reads the patches from the reply, ignoring patches of paragraphs that were not
+	 * sent.
+	 */
+	Map<Integer, String> parsePatches(String reply, List<Integer> batch) {
+		String json = reply.strip();
+		if (json.startsWith("```")) {
+			// the reply is wrapped in a code block despite the instructions. A truncated
+			// reply has no closing fence.
+			int newLine = json.indexOf('\n');
+			int closingFence = json.lastIndexOf("```");
+			json = json.substring(newLine + 1, closingFence > newLine ? closingFence : json.length()).strip();
+		}
+		try {
+			Map<Integer, String> patches = new HashMap<>();
+			for (Patch patch : this.jsonMapper.readValue(json, PATCHES)) {
+				if (batch.contains(patch.index()) && patch.text() != null) {
+					patches.put(patch.index(), patch.text());
+				}
+			}
+			return patches;
+		}
+		catch (JacksonException e) {
+			logger.warn("action=parse_patches message=\"{}\"", e.getMessage());
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "The model did not reply with valid patches");
+		}
+	}
+
+	private Flux<String> generate(String tenantId, EditMode editMode, String content) {
+		return this.chatCallLimiter.limit(tenantId, () -> Flux.defer(() -> {
+			logger.info("action=start_edit mode={} model={}", editMode, chatModel);
+			long start = System.currentTimeMillis();
+			AtomicLong firstChunk = new AtomicLong();
+			return this.chatClient.prompt()
+				.system(editMode.systemPrompt())
+				.user(u -> u.text(content))
+				.stream()
+				.content()
+				.doOnNext(chunk -> firstChunk.compareAndSet(0, System.currentTimeMillis()))
+				.doOnComplete(() -> {
+					long end = System.currentTimeMillis();
+					logger.info("action=finish_edit mode={} model={} duration={} first_chunk={}", editMode, chatModel,
+							end - start, firstChunk.get() == 0 ? -1 : firstChunk.get() - start);
+				});
+		}));
+	}
+
 }
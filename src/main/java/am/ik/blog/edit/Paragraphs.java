@@ -0,0 +1,154 @@
+package am.ik.blog.edit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Splits markdown into paragraphs separated by blank lines, keeping the separators so
+ * that the paragraphs join to the original text. A fenced code block is one paragraph
+ * regardless of blank lines in it.
+ */
+final class Paragraphs {
+
+	/**
+	 * Lines that consist of nothing a proofreader could fix: images, link reference
+	 * definitions, HTML tags, horizontal rules and table delimiter rows.
+	 */
+	private static final Pattern NON_PROSE_LINE = Pattern
+		.compile("\\s*(!\\[[^]]*]\\([^)]*\\)|\\[[^]]+]:\\s*\\S+.*|<[^>]+>|[-*_]{3,}|\\|?[\\s:|-]+\\|?)\\s*");
+
+	private Paragraphs() {
+	}
+
+	static List<Paragraph> split(String content) {
+		List<Paragraph> paragraphs = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		StringBuilder separator = new StringBuilder();
+		@Nullable String fence = null;
+		boolean code = false;
+		for (String line : content.split("(?<=\n)")) {
+			String trimmed = line.strip();
+			if (fence == null && trimmed.isEmpty()) {
+				separator.append(line);
+				continue;
+			}
+			if (!separator.isEmpty() || (fence == null && code)) {
+				// a non-blank line after blank lines, or after the closing fence
+				addParagraph(paragraphs, text, separator, code);
+				code = false;
+			}
+			if (fence != null) {
+				if (trimmed.startsWith(fence)) {
+					fence = null;
+				}
+			}
+			else if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+				if (!text.isEmpty()) {
+					addParagraph(paragraphs, text, separator, false);
+				}
+				fence = trimmed.substring(0, 3);
+				code = true;
+			}
+			text.append(line);
+		}
+		if (!text.isEmpty() || !separator.isEmpty()) {
+			addParagraph(paragraphs, text, separator, code);
+		}
+		return paragraphs;
+	}
+
+	private static void addParagraph(List<Paragraph> paragraphs, StringBuilder text, StringBuilder separator,
+			boolean code) {
+		String body = text.toString();
+		// the line break ending the paragraph belongs to the separator
+		int end = body.length();
+		while (end > 0 && (body.charAt(end - 1) == '\n' || body.charAt(end - 1) == '\r')) {
+			end--;
+		}
+		String paragraph = body.substring(0, end);
+		paragraphs.add(new Paragraph(paragraph, body.substring(end) + separator, !code && isProse(paragraph)));
+		text.setLength(0);
+		separator.setLength(0);
+	}
+
+	private static boolean isProse(String paragraph) {
+		if (paragraph.isBlank()) {
+			return false;
+		}
+		for (String line : paragraph.split("\n")) {
+			if (!NON_PROSE_LINE.matcher(line).matches()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Groups the indexes of the editable paragraphs into batches of at most
+	 * {@code maxChars} characters. A longer paragraph forms a batch of its own.
+	 * @param paragraphs the paragraphs
+	 * @param maxChars the maximum number of characters of a batch
+	 * @return batches of paragraph indexes
+	 */
+	static List<List<Integer>> batches(List<Paragraph> paragraphs, int maxChars) {
+		List<List<Integer>> batches = new ArrayList<>();
+		List<Integer> batch = new ArrayList<>();
+		int chars = 0;
+		for (int i = 0; i < paragraphs.size(); i++) {
+			Paragraph paragraph = paragraphs.get(i);
+			if (!paragraph.editable()) {
+				continue;
+			}
+			if (!batch.isEmpty() && chars + paragraph.text().length() > maxChars) {
+				batches.add(batch);
+				batch = new ArrayList<>();
+				chars = 0;
+			}
+			batch.add(i);
+			chars += paragraph.text().length();
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		return batches;
+	}
+
+	/**
+	 * Replaces the text of the patched paragraphs and joins all paragraphs.
+	 * @param paragraphs the paragraphs of the original text
+	 * @param patches edited text by paragraph index
+	 * @return the edited text
+	 */
+	static String apply(List<Paragraph> paragraphs, Map<Integer, String> patches) {
+		StringBuilder edited = new StringBuilder();
+		for (int i = 0; i < paragraphs.size(); i++) {
+			Paragraph paragraph = paragraphs.get(i);
+			String patch = paragraph.editable() ? patches.get(i) : null;
+			edited.append(patch != null ? patch.strip() : paragraph.text()).append(paragraph.separator());
+		}
+		return edited.toString();
+	}
+
+	/**
+	 * A paragraph of the text.
+	 *
+	 * @param text the paragraph without the line break ending it
+	 * @param separator line breaks and blank lines following the paragraph
+	 * @param editable whether the paragraph contains prose to be sent to the model
+	 */
+	record Paragraph(String text, String separator, boolean editable) {
+	}
+
+	/**
+	 * A paragraph as exchanged with the model.
+	 *
+	 * @param index position of the paragraph in the text
+	 * @param text the paragraph
+	 */
+	record Patch(int index, String text) {
+	}
+
+}
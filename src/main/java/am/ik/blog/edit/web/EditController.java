@@ -4,11 +4,13 @@ import am.ik.blog.edit.EditMode;
 import am.ik.blog.edit.EditService;
 import org.jspecify.annotations.Nullable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 
 import java.util.Objects;
 
@@ -26,11 +28,25 @@ public class EditController {
 		if (request.content() == null || request.content().isBlank()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Content must not be empty");
 		}
-		String content = this.editService.edit(request.content(),
+		String content = this.editService.edit(tenantId, request.content(),
 				Objects.requireNonNullElse(request.mode(), EditMode.PROOFREADING));
 		return new EditResponse(content);
 	}
 
+	/**
+	 * Streams the edited text as server-sent events. Each event carries the next chunk of
+	 * the text as it is generated; the stream completes when the text is complete.
+	 */
+	@PostMapping(path = "/tenants/{tenantId}/edit", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<EditResponse> editStream(@PathVariable String tenantId, @RequestBody EditRequest request) {
+		if (request.content() == null || request.content().isBlank()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Content must not be empty");
+		}
+		return this.editService
+			.editStream(tenantId, request.content(), Objects.requireNonNullElse(request.mode(), EditMode.PROOFREADING))
+			.map(EditResponse::new);
+	}
+
 	public record EditRequest(@Nullable String content, @Nullable EditMode mode) {
 
 	}
@@ -6,4 +6,6 @@ public final class CacheNames {
 
 	public static final String LATEST_ENTRIES = "latestEntries";
 
+	public static final String ENTRY_PAGES = "entryPages";
+
 }
@@ -0,0 +1,385 @@
+package am.ik.blog.entry;
+
+import am.ik.csv.Csv;
+import am.ik.pagination.CursorPage;
+import am.ik.pagination.CursorPageRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * {@link EntryRepository} decorator that caches {@link #findOrderByUpdated} results per
+ * tenant and single entries by {@link EntryKey}. Cached pages are stamped with the
+ * tenant's {@link ContentVersions content version}, which every write bumps after it has
+ * been committed, so a write invalidates all cached pages of the tenant in O(1).
+ * <p>
+ * Misses are loaded at most once per key and version on this node; concurrent callers
+ * wait for the same load. With a {@link PageLoadLock}, other nodes wait for the page to
+ * appear in the shared cache instead of querying the database themselves. With
+ * stale-while-revalidate, an outdated page is returned immediately while it is reloaded
+ * in the background, so a read following a write may not see it yet. Without it, reads
+ * always see the writes whose version bump they observe.
+ */
+public class CachingEntryRepository implements EntryRepository {
+
+	private static final Csv csv = Csv.builder().delimiter("|").build();
+
+	private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(50);
+
+	private final EntryRepository delegate;
+
+	private final Cache cache;
+
+	private final Cache entryCache;
+
+	private final ContentVersions contentVersions;
+
+	@Nullable private final PageLoadLock pageLoadLock;
+
+	private final Duration lockWaitTimeout;
+
+	private final boolean staleWhileRevalidate;
+
+	private final Executor refreshExecutor;
+
+	private final ConcurrentMap<String, CompletableFuture<CachedPage>> inFlightLoads = new ConcurrentHashMap<>();
+
+	private final Logger logger = LoggerFactory.getLogger(CachingEntryRepository.class);
+
+	public CachingEntryRepository(EntryRepository delegate, Cache cache, Cache entryCache,
+			ContentVersions contentVersions, @Nullable PageLoadLock pageLoadLock, Duration lockWaitTimeout,
+			boolean staleWhileRevalidate, Executor refreshExecutor) {
+		this.delegate = delegate;
+		this.cache = cache;
+		this.entryCache = entryCache;
+		this.contentVersions = contentVersions;
+		this.pageLoadLock = pageLoadLock;
+		this.lockWaitTimeout = lockWaitTimeout;
+		this.staleWhileRevalidate = staleWhileRevalidate;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	@Override
+	public Optional<Entry> findById(EntryKey entryKey) {
+		long version;
+		try {
+			Entry cached = this.entryCache.get(entryKey, Entry.class);
+			if (cached != null) {
+				return Optional.of(cached);
+			}
+			version = this.contentVersions.current(entryKey.tenantId());
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=get_entry entryKey={} message=\"{}\"", entryKey, e.getMessage());
+			return this.delegate.findById(entryKey);
+		}
+		Optional<Entry> entry = this.delegate.findById(entryKey);
+		entry.ifPresent(loaded -> {
+			try {
+				// skip caching if a write completed while loading; its eviction may
+				// already have happened
+				if (this.contentVersions.current(entryKey.tenantId()) == version) {
+					this.entryCache.put(entryKey, loaded);
+				}
+			}
+			catch (RuntimeException e) {
+				logger.warn("action=put_entry entryKey={} message=\"{}\"", entryKey, e.getMessage());
+			}
+		});
+		return entry;
+	}
+
+	@Override
+	public List<Entry> findAll(List<EntryKey> entryKeys) {
+		return this.delegate.findAll(entryKeys);
+	}
+
+	@Override
+	public CursorPage<Entry, Instant> findOrderByUpdated(@Nullable String tenantId, SearchCriteria criteria,
+			CursorPageRequest<Instant> pageRequest) {
+		// the page is loaded with the same criteria it is cached under
+		SearchCriteria searchCriteria = normalize(criteria);
+		String key;
+		long version;
+		CachedPage cached;
+		try {
+			version = this.contentVersions.current(EntryKey.requireNonNullTenantId(tenantId));
+			key = pageKey(tenantId, searchCriteria, pageRequest);
+			cached = this.cache.get(key, CachedPage.class);
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=get_entry_page tenantId={} message=\"{}\"", tenantId, e.getMessage());
+			return this.delegate.findOrderByUpdated(tenantId, searchCriteria, pageRequest);
+		}
+		Supplier<CursorPage<Entry, Instant>> loader = () -> this.delegate.findOrderByUpdated(tenantId, searchCriteria,
+				pageRequest);
+		if (cached != null) {
+			if (cached.version() >= version) {
+				return cached.toCursorPage();
+			}
+			if (this.staleWhileRevalidate) {
+				this.refreshInBackground(key, version, loader);
+				return cached.toCursorPage();
+			}
+		}
+		return this.load(key, version, loader).toCursorPage();
+	}
+
+	@Override
+	public List<List<Category>> findAllCategories(@Nullable String tenantId) {
+		return this.delegate.findAllCategories(tenantId);
+	}
+
+	@Override
+	public List<TagAndCount> findAllTags(@Nullable String tenantId) {
+		return this.delegate.findAllTags(tenantId);
+	}
+
+	@Override
+	public Entry save(Entry entry) {
+		Entry saved = this.delegate.save(entry);
+		this.incrementVersion(entry.entryKey().tenantId());
+		this.evictEntry(entry.entryKey());
+		return saved;
+	}
+
+	@Override
+	public Long nextId(@Nullable String tenantId) {
+		return this.delegate.nextId(tenantId);
+	}
+
+	@Override
+	public void saveAll(Entry... entries) {
+		this.saveAll(List.of(entries));
+	}
+
+	@Override
+	public void saveAll(List<Entry> entries) {
+		this.delegate.saveAll(entries);
+		Set<String> tenantIds = new LinkedHashSet<>();
+		entries.forEach(entry -> tenantIds.add(entry.entryKey().tenantId()));
+		tenantIds.forEach(this::incrementVersion);
+		entries.forEach(entry -> this.evictEntry(entry.entryKey()));
+	}
+
+	@Override
+	public void deleteById(EntryKey entryKey) {
+		this.delegate.deleteById(entryKey);
+		this.incrementVersion(entryKey.tenantId());
+		this.evictEntry(entryKey);
+	}
+
+	@Override
+	public void updateSummary(EntryKey entryKey, String summary) {
+		this.delegate.updateSummary(entryKey, summary);
+		this.incrementVersion(entryKey.tenantId());
+		this.evictEntry(entryKey);
+	}
+
+	@Override
+	public void updateSummaries(Map<EntryKey, String> summaries) {
+		this.delegate.updateSummaries(summaries);
+		Set<String> tenantIds = new LinkedHashSet<>();
+		summaries.keySet().forEach(entryKey -> tenantIds.add(entryKey.tenantId()));
+		tenantIds.forEach(this::incrementVersion);
+		summaries.keySet().forEach(this::evictEntry);
+	}
+
+	@Override
+	public List<Entry> findWithoutSummary(String tenantId, long afterEntryId, int limit) {
+		return this.delegate.findWithoutSummary(tenantId, afterEntryId, limit);
+	}
+
+	private void incrementVersion(String tenantId) {
+		try {
+			long version = this.contentVersions.increment(tenantId);
+			logger.debug("action=increment_content_version tenantId={} version={}", tenantId, version);
+		}
+		catch (RuntimeException e) {
+			logger.error("action=increment_content_version tenantId={} message=\"{}\"", tenantId, e.getMessage(), e);
+		}
+	}
+
+	private void evictEntry(EntryKey entryKey) {
+		try {
+			this.entryCache.evict(entryKey);
+		}
+		catch (RuntimeException e) {
+			logger.error("action=evict_entry entryKey={} message=\"{}\"", entryKey, e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Loads the page unless a load of the same key and version is already in progress on
+	 * this node, in which case its result is shared.
+	 */
+	private CachedPage load(String key, long version, Supplier<CursorPage<Entry, Instant>> loader) {
+		String loadKey = key + "@" + version;
+		CompletableFuture<CachedPage> future = new CompletableFuture<>();
+		CompletableFuture<CachedPage> inFlight = this.inFlightLoads.putIfAbsent(loadKey, future);
+		if (inFlight != null) {
+			try {
+				return inFlight.join();
+			}
+			catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException ex) {
+					throw ex;
+				}
+				throw e;
+			}
+		}
+		try {
+			CachedPage page = this.loadExclusively(key, version, loader);
+			future.complete(page);
+			return page;
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.inFlightLoads.remove(loadKey, future);
+		}
+	}
+
+	private CachedPage loadExclusively(String key, long version, Supplier<CursorPage<Entry, Instant>> loader) {
+		PageLoadLock lock = this.pageLoadLock;
+		if (lock == null) {
+			return this.loadAndPut(key, version, loader);
+		}
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(key);
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=lock_entry_page key={} message=\"{}\"", key, e.getMessage());
+		}
+		if (locked) {
+			try {
+				return this.loadAndPut(key, version, loader);
+			}
+			finally {
+				try {
+					lock.unlock(key);
+				}
+				catch (RuntimeException e) {
+					logger.warn("action=unlock_entry_page key={} message=\"{}\"", key, e.getMessage());
+				}
+			}
+		}
+		CachedPage loadedByOthers = this.awaitPage(key, version);
+		return loadedByOthers != null ? loadedByOthers : this.loadAndPut(key, version, loader);
+	}
+
+	private @Nullable CachedPage awaitPage(String key, long version) {
+		long deadline = System.nanoTime() + this.lockWaitTimeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			try {
+				Thread.sleep(LOCK_POLL_INTERVAL);
+				CachedPage cached = this.cache.get(key, CachedPage.class);
+				if (cached != null && cached.version() >= version) {
+					return cached;
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			catch (RuntimeException e) {
+				logger.warn("action=await_entry_page key={} message=\"{}\"", key, e.getMessage());
+				return null;
+			}
+		}
+		logger.info("action=await_entry_page key={} result=timeout", key);
+		return null;
+	}
+
+	private CachedPage loadAndPut(String key, long version, Supplier<CursorPage<Entry, Instant>> loader) {
+		CachedPage page = CachedPage.of(loader.get(), version);
+		try {
+			this.cache.put(key, page);
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=put_entry_page key={} message=\"{}\"", key, e.getMessage());
+		}
+		return page;
+	}
+
+	private void refreshInBackground(String key, long version, Supplier<CursorPage<Entry, Instant>> loader) {
+		if (this.inFlightLoads.containsKey(key + "@" + version)) {
+			return;
+		}
+		this.refreshExecutor.execute(() -> {
+			try {
+				this.load(key, version, loader);
+			}
+			catch (RuntimeException e) {
+				logger.warn("action=refresh_entry_page key={} message=\"{}\"", key, e.getMessage(), e);
+			}
+		});
+	}
+
+	/**
+	 * Normalizes the criteria so that requests that only differ in surrounding or
+	 * repeated whitespace, or in blank values, share a cache entry and get the same page.
+	 */
+	static SearchCriteria normalize(SearchCriteria searchCriteria) {
+		String query = Objects.requireNonNullElse(searchCriteria.query(), "").strip().replaceAll("\\s+", " ");
+		String tag = Objects.requireNonNullElse(searchCriteria.tag(), "").strip();
+		List<String> categories = Objects.requireNonNullElse(searchCriteria.categories(), List.<String>of())
+			.stream()
+			.map(String::strip)
+			.filter(category -> !category.isEmpty())
+			.toList();
+		return new SearchCriteria(query.isEmpty() ? null : query, categories, tag.isEmpty() ? null : tag);
+	}
+
+	/**
+	 * Builds the cache key of {@link #normalize(SearchCriteria) normalized} criteria.
+	 */
+	static String pageKey(@Nullable String tenantId, SearchCriteria searchCriteria,
+			CursorPageRequest<Instant> pageRequest) {
+		List<String> categories = searchCriteria.categories();
+		String joinedCategories = CollectionUtils.isEmpty(categories) ? ""
+				: csv.joinLine(categories.toArray(String[]::new));
+		return csv.joinLine(EntryKey.requireNonNullTenantId(tenantId),
+				Objects.requireNonNullElse(searchCriteria.query(), ""), joinedCategories,
+				Objects.requireNonNullElse(searchCriteria.tag(), ""),
+				pageRequest.cursorOptional().map(Instant::toString).orElse(""),
+				Integer.toString(pageRequest.pageSize()), pageRequest.navigation().name());
+	}
+
+	/**
+	 * Serializable form of a {@link CursorPage}, whose cursor function cannot be cached,
+	 * together with the content version it was loaded at.
+	 */
+	public record CachedPage(List<Entry> content, int size, boolean hasPrevious, boolean hasNext, long version) {
+
+		static CachedPage of(CursorPage<Entry, Instant> page, long version) {
+			return new CachedPage(page.content(), page.size(), page.hasPrevious(), page.hasNext(), version);
+		}
+
+		CursorPage<Entry, Instant> toCursorPage() {
+			return new CursorPage<>(this.content, this.size, entry -> Objects.requireNonNull(entry.toCursor()),
+					this.hasPrevious, this.hasNext);
+		}
+
+	}
+
+}
@@ -0,0 +1,14 @@
+package am.ik.blog.entry;
+
+/**
+ * Per-tenant content version that increases monotonically on every write. Cached query
+ * results are stamped with the version they were computed at, so bumping the version
+ * invalidates all of them at once without enumerating cache keys.
+ */
+public interface ContentVersions {
+
+	long current(String tenantId);
+
+	long increment(String tenantId);
+
+}
@@ -0,0 +1,9 @@
+package am.ik.blog.entry;
+
+import java.util.List;
+
+/**
+ * Published after a batch of entries of a tenant has been written, e.g. by a webhook.
+ */
+public record EntriesUpdatedEvent(String tenantId, List<EntryKey> entryKeys) {
+}
@@ -3,7 +3,16 @@ package am.ik.blog.entry;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import org.jspecify.annotations.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -12,20 +21,81 @@ public record Entry(@JsonUnwrapped EntryKey entryKey, FrontMatter frontMatter,
 		@Nullable @JsonInclude(JsonInclude.Include.NON_NULL) String content, Author created, Author updated) {
 
 	public String toMarkdown() {
-		return """
-				---
-				title: %s%s
-				tags: %s
-				categories: %s%s%s
-				---
-
-				%s
-				""".formatted(frontMatter.title(),
-				StringUtils.hasLength(frontMatter.summary()) ? "%nsummary: %s".formatted(frontMatter.summary()) : "",
-				frontMatter.tags().stream().map(t -> "\"%s\"".formatted(t.name())).toList(),
-				frontMatter.categories().stream().map(c -> "\"%s\"".formatted(c.name())).toList(),
-				created.date() == null ? "" : "%n%s: %s".formatted(FrontMatter.DATE_FIELD, created.date()),
-				updated.date() == null ? "" : "%n%s: %s".formatted(FrontMatter.UPDATE_FIELD, updated.date()), content);
+		StringBuilder markdown = new StringBuilder(this.estimateMarkdownLength());
+		try {
+			this.writeMarkdown(markdown);
+		}
+		catch (IOException e) {
+			// StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
+		return markdown.toString();
+	}
+
+	/**
+	 * Writes the same markdown as {@link #toMarkdown()} without building it as a string
+	 * first.
+	 * @param out the destination
+	 * @throws IOException if the destination fails
+	 */
+	public void writeMarkdown(Appendable out) throws IOException {
+		String lineSeparator = System.lineSeparator();
+		out.append("---\ntitle: ").append(frontMatter.title());
+		if (StringUtils.hasLength(frontMatter.summary())) {
+			out.append(lineSeparator).append("summary: ").append(frontMatter.summary());
+		}
+		out.append("\ntags: [");
+		List<Tag> tags = frontMatter.tags();
+		for (int i = 0; i < tags.size(); i++) {
+			out.append(i == 0 ? "\"" : ", \"").append(tags.get(i).name()).append('"');
+		}
+		out.append("]\ncategories: [");
+		List<Category> categories = frontMatter.categories();
+		for (int i = 0; i < categories.size(); i++) {
+			out.append(i == 0 ? "\"" : ", \"").append(categories.get(i).name()).append('"');
+		}
+		out.append(']');
+		Instant createdDate = created.date();
+		if (createdDate != null) {
+			out.append(lineSeparator).append(FrontMatter.DATE_FIELD).append(": ").append(createdDate.toString());
+		}
+		Instant updatedDate = updated.date();
+		if (updatedDate != null) {
+			out.append(lineSeparator).append(FrontMatter.UPDATE_FIELD).append(": ").append(updatedDate.toString());
+		}
+		out.append("\n---\n\n").append(content).append('\n');
+	}
+
+	/**
+	 * Returns the markdown encoded in UTF-8 and then in Base64, as expected by the GitHub
+	 * contents API, without materializing the markdown string or its UTF-8 bytes.
+	 * @return Base64 encoded markdown
+	 */
+	public String toBase64Markdown() {
+		int length = this.estimateMarkdownLength();
+		ByteArrayOutputStream base64 = new ByteArrayOutputStream((length + 2) / 3 * 4 + 4);
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(Base64.getEncoder().wrap(base64), StandardCharsets.UTF_8),
+				Math.min(length, 8192))) {
+			this.writeMarkdown(writer);
+		}
+		catch (IOException e) {
+			// ByteArrayOutputStream does not throw IOException
+			throw new UncheckedIOException(e);
+		}
+		return base64.toString(StandardCharsets.ISO_8859_1);
+	}
+
+	private int estimateMarkdownLength() {
+		int length = 128 + frontMatter.title().length() + frontMatter.summary().length()
+				+ (content == null ? 4 : content.length());
+		for (Tag tag : frontMatter.tags()) {
+			length += tag.name().length() + 4;
+		}
+		for (Category category : frontMatter.categories()) {
+			length += category.name().length() + 4;
+		}
+		return length;
 	}
 
 	public static Long parseId(String fileName) {
@@ -0,0 +1,93 @@
+package am.ik.blog.entry;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.github.GitHubTenants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preloads the caches with the latest entries and the most requested entries of every
+ * tenant. Tag and category aggregates are not cached, so they are not warmed either.
+ * Warming on startup runs while the application is still refusing traffic, i.e. after all
+ * {@code CommandLineRunner}s such as the index building waiter and the entry initializer,
+ * and before the readiness state changes to {@code ACCEPTING_TRAFFIC}. After a webhook
+ * batch, the updated tenant is warmed in the background.
+ */
+@Component
+@Profile("redis")
+public class EntryCacheWarmer {
+
+	private final EntryRepository entryRepository;
+
+	private final GitHubTenants gitHubTenants;
+
+	private final EntryHitCounter entryHitCounter;
+
+	private final BlogProps.Cache props;
+
+	private final Logger logger = LoggerFactory.getLogger(EntryCacheWarmer.class);
+
+	public EntryCacheWarmer(EntryRepository entryRepository, GitHubTenants gitHubTenants,
+			EntryHitCounter entryHitCounter, BlogProps blogProps) {
+		this.entryRepository = entryRepository;
+		this.gitHubTenants = gitHubTenants;
+		this.entryHitCounter = entryHitCounter;
+		this.props = blogProps.getCache();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUpOnStartup() {
+		// includes the tenants provisioned at runtime, which are loaded before the
+		// application is ready
+		this.warmUp(List.copyOf(this.gitHubTenants.tenantIds()));
+	}
+
+	@EventListener
+	public void onEntriesUpdated(EntriesUpdatedEvent event) {
+		Thread.ofVirtual().name("entry-cache-warmer").start(() -> this.warmUp(List.of(event.tenantId())));
+	}
+
+	void warmUp(List<String> tenantIds) {
+		long start = System.nanoTime();
+		List<Future<?>> futures = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (String tenantId : tenantIds) {
+				futures.add(executor.submit(() -> this.entryRepository.findOrderByUpdated(tenantId,
+						SearchCriteria.NULL_CRITERIA, EntryService.DEFAULT_CURSOR_REQUEST)));
+				for (EntryKey entryKey : this.entryHitCounter.top(tenantId, this.props.getWarmUpTopEntries())) {
+					futures.add(executor.submit(() -> this.entryRepository.findById(entryKey)));
+				}
+			}
+			long deadline = start + this.props.getWarmUpTimeout().toNanos();
+			int failures = 0;
+			for (Future<?> future : futures) {
+				try {
+					future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				}
+				catch (TimeoutException e) {
+					logger.warn("action=warm_up_cache result=timeout tenantIds={}", tenantIds);
+					executor.shutdownNow();
+					return;
+				}
+				catch (Exception e) {
+					failures++;
+					logger.warn("action=warm_up_cache message=\"{}\"", e.getMessage());
+				}
+			}
+			logger.info("action=warm_up_cache tenantIds={} tasks={} failures={} elapsed={}ms", tenantIds,
+					futures.size(), failures, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package am.ik.blog.entry;
 
+import java.util.List;
 import java.util.Optional;
 import org.jspecify.annotations.Nullable;
 
@@ -7,4 +8,16 @@ public interface EntryFetcher {
 
 	Optional<Entry> fetch(@Nullable String tenantId, String owner, String repo, String path);
 
+	/**
+	 * Fetches the entries at the given paths, skipping paths that do not exist.
+	 * Implementations may fetch them in fewer round trips than one {@link #fetch} per
+	 * path.
+	 * @param ref SHA of the commit to read the paths at, or {@code null} for the head of
+	 * the default branch
+	 */
+	default List<Entry> fetchAll(@Nullable String tenantId, String owner, String repo, @Nullable String ref,
+			List<String> paths) {
+		return paths.stream().flatMap(path -> this.fetch(tenantId, owner, repo, path).stream()).toList();
+	}
+
 }
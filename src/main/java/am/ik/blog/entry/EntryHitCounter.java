@@ -0,0 +1,44 @@
+package am.ik.blog.entry;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts requests per entry on this node so that the most requested entries can be
+ * preloaded into the cache. Only a bounded number of entries is tracked; requests for new
+ * entries are ignored once the limit is reached.
+ */
+@Component
+public class EntryHitCounter {
+
+	static final int MAX_TRACKED_ENTRIES = 10_000;
+
+	private final ConcurrentMap<EntryKey, LongAdder> hits = new ConcurrentHashMap<>();
+
+	public void increment(EntryKey entryKey) {
+		LongAdder counter = this.hits.get(entryKey);
+		if (counter == null) {
+			if (this.hits.size() >= MAX_TRACKED_ENTRIES) {
+				return;
+			}
+			counter = this.hits.computeIfAbsent(entryKey, k -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	public List<EntryKey> top(String tenantId, int limit) {
+		return this.hits.entrySet()
+			.stream()
+			.filter(e -> e.getKey().tenantId().equals(tenantId))
+			.sorted(Comparator.comparingLong((Map.Entry<EntryKey, LongAdder> e) -> e.getValue().sum()).reversed())
+			.limit(limit)
+			.map(Map.Entry::getKey)
+			.toList();
+	}
+
+}
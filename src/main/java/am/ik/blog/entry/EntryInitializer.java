@@ -1,10 +1,9 @@
 package am.ik.blog.entry;
 
 import am.ik.blog.BlogProps;
-import am.ik.blog.GitHubProps;
-import am.ik.blog.util.Tuple2;
-import am.ik.blog.util.Tuples;
-import java.util.Objects;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.IntStream;
 import org.jspecify.annotations.Nullable;
@@ -12,15 +11,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
 
 @Component
 public class EntryInitializer implements CommandLineRunner {
 
+	// entries fetched and saved together, so that their authors are resolved in one go
+	private static final int FETCH_BATCH_SIZE = 50;
+
 	private final BlogProps blogProps;
 
-	private final GitHubProps gitHubProps;
+	private final GitHubTenants gitHubTenants;
 
 	private final EntryFetcher entryFetcher;
 
@@ -28,10 +32,10 @@ public class EntryInitializer implements CommandLineRunner {
 
 	private final Logger logger = LoggerFactory.getLogger(EntryInitializer.class);
 
-	public EntryInitializer(BlogProps blogProps, GitHubProps gitHubProps, EntryFetcher entryFetcher,
+	public EntryInitializer(BlogProps blogProps, GitHubTenants gitHubTenants, EntryFetcher entryFetcher,
 			EntryRepository entryRepository) {
 		this.blogProps = blogProps;
-		this.gitHubProps = gitHubProps;
+		this.gitHubTenants = gitHubTenants;
 		this.entryFetcher = entryFetcher;
 		this.entryRepository = entryRepository;
 	}
@@ -44,44 +48,61 @@ public class EntryInitializer implements CommandLineRunner {
 		}
 		logger.info("Initializing entries ({})", init);
 		String tenantId = init.getTenantId();
-		Tuple2<String, String> ownerAndRepo = this.getOwnerAndRepo(tenantId);
+		GitHubTenant tenant = this.gitHubTenants.find(tenantId).orElseGet(this.gitHubTenants::defaultTenant);
 		BlogProps.Init.Fetch fetch = init.getFetch();
-		logger.info("Importing entries from https://github.com/{}/{} ({}-{})", ownerAndRepo.getT1(),
-				ownerAndRepo.getT2(), fetch.getFrom(), fetch.getTo());
-		IntStream.rangeClosed(fetch.getFrom(), fetch.getTo()).boxed().map(entryId -> {
+		logger.info("Importing entries from https://github.com/{}/{} ({}-{})", tenant.owner(), tenant.repo(),
+				fetch.getFrom(), fetch.getTo());
+		List<String> paths = IntStream.rangeClosed(fetch.getFrom(), fetch.getTo())
+			.mapToObj(entryId -> String.format("content/%05d.md", entryId))
+			.toList();
+		for (int i = 0; i < paths.size(); i += FETCH_BATCH_SIZE) {
+			List<String> batch = paths.subList(i, Math.min(i + FETCH_BATCH_SIZE, paths.size()));
+			List<Entry> entries;
 			try {
-				return this.entryFetcher.fetch(tenantId, ownerAndRepo.getT1(), ownerAndRepo.getT2(),
-						String.format("content/%05d.md", entryId));
+				entries = this.entryFetcher.fetchAll(tenantId, tenant.owner(), tenant.repo(), null, batch);
+			}
+			catch (HttpClientErrorException | ResponseStatusException e) {
+				// fetch the entries of a failed batch one by one, so that only the
+				// failing
+				// ones are skipped
+				logger.info("Failed to fetch entries {}-{}, fetching them one by one: {}", batch.getFirst(),
+						batch.getLast(), e.getMessage());
+				entries = batch.stream()
+					.map(path -> this.fetch(tenantId, tenant, path))
+					.flatMap(Optional::stream)
+					.toList();
 			}
-			catch (HttpClientErrorException e) {
-				if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-					logger.info("Entry not found: {}", entryId);
-				}
-				else {
-					logger.warn(e.getMessage(), e);
-				}
-				return Optional.<Entry>empty();
+			for (Entry e : entries) {
+				this.entryRepository.save(e);
+				logger.info("Import key:{} title:{}", e.entryKey(), e.frontMatter().title());
 			}
-		})
-			.filter(Optional::isPresent)
-			.map(Optional::get)
-			.peek(this.entryRepository::save)
-			.forEach(e -> logger.info("Import key:{} title:{}", e.entryKey(), e.frontMatter().title()));
+		}
 		logger.info("Finished importing entries");
 	}
 
-	private Tuple2<String, String> getOwnerAndRepo(@Nullable String tenantId) {
-		if (tenantId == null) {
-			return Tuples.of(this.gitHubProps.getContentOwner(), this.gitHubProps.getContentRepo());
+	private Optional<Entry> fetch(@Nullable String tenantId, GitHubTenant tenant, String path) {
+		try {
+			return this.entryFetcher.fetch(tenantId, tenant.owner(), tenant.repo(), path);
 		}
-		else {
-			final GitHubProps props = this.gitHubProps.getTenants().get(tenantId);
-			if (props == null) {
-				return this.getOwnerAndRepo(null);
+		catch (HttpClientErrorException e) {
+			return this.skip(path, e.getStatusCode(), e);
+		}
+		catch (ResponseStatusException e) {
+			if (!e.getStatusCode().is4xxClientError()) {
+				throw e;
 			}
-			return Tuples.of(Objects.requireNonNullElse(props.getContentOwner(), this.gitHubProps.getContentOwner()),
-					Objects.requireNonNullElse(props.getContentRepo(), this.gitHubProps.getContentRepo()));
+			return this.skip(path, e.getStatusCode(), e);
+		}
+	}
+
+	private Optional<Entry> skip(String path, HttpStatusCode statusCode, Exception e) {
+		if (statusCode.isSameCodeAs(HttpStatus.NOT_FOUND)) {
+			logger.info("Entry not found: {}", path);
+		}
+		else {
+			logger.warn(e.getMessage(), e);
 		}
+		return Optional.empty();
 	}
 
 }
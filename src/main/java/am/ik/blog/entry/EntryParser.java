@@ -1,32 +1,107 @@
 package am.ik.blog.entry;
 
-import am.ik.blog.markdown.MarkdownToJson;
+import am.ik.blog.markdown.YamlFrontMatterParser;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.Function;
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
-import tools.jackson.databind.json.JsonMapper;
 
+/**
+ * Builds entries from markdown with YAML front matter. The front matter is bound to
+ * {@link FrontMatter} directly, following the coercions that Jackson applied when it was
+ * converted from a map: scalars are bound to strings, and tags and categories are bound
+ * from strings or from mappings of their properties.
+ */
 @Component
 public class EntryParser {
 
-	private final JsonMapper jsonMapper;
-
-	public EntryParser(JsonMapper jsonMapper) {
-		this.jsonMapper = jsonMapper;
-	}
-
 	public Entry.Builder fromMarkdown(EntryKey entryKey, String markdown, Author created, Author updated) {
-		Map<String, Object> json = MarkdownToJson.convert(markdown);
-		Map<String, Object> frontMatter = (Map<String, Object>) json.get("frontMatter");
-		Assert.notNull(frontMatter, "FrontMatter must not be null");
-		return this.jsonMapper.convertValue(json, Entry.class)
-			.toBuilder()
+		YamlFrontMatterParser.ParseResult parseResult = YamlFrontMatterParser.parse(markdown);
+		Map<String, Object> frontMatter = parseResult.getFrontMatter();
+		Assert.isTrue(!frontMatter.isEmpty(), "FrontMatter must not be null");
+		return Entry.builder()
 			.entryKey(entryKey)
+			.frontMatter(bindFrontMatter(frontMatter))
+			.content(parseResult.getContent())
 			.created(frontMatter.containsKey(FrontMatter.DATE_FIELD)
 					? created.withDate(((Date) frontMatter.get(FrontMatter.DATE_FIELD)).toInstant()) : created)
 			.updated(frontMatter.containsKey(FrontMatter.UPDATE_FIELD)
 					? updated.withDate(((Date) frontMatter.get(FrontMatter.UPDATE_FIELD)).toInstant()) : updated);
 	}
 
+	@SuppressWarnings("NullAway")
+	static FrontMatter bindFrontMatter(Map<String, Object> frontMatter) {
+		return new FrontMatter(bindString(frontMatter.get("title"), "title"),
+				bindString(frontMatter.get("summary"), "summary"),
+				bindList(frontMatter.get("categories"), "categories", EntryParser::bindCategory),
+				bindList(frontMatter.get("tags"), "tags", EntryParser::bindTag));
+	}
+
+	@SuppressWarnings("NullAway")
+	private static @Nullable Category bindCategory(@Nullable Object value) {
+		return switch (value) {
+			case null -> null;
+			case String name -> new Category(name);
+			case Map<?, ?> map -> new Category(bindString(map.get("name"), "categories.name"));
+			default -> throw cannotBind("categories", value);
+		};
+	}
+
+	@SuppressWarnings("NullAway")
+	private static @Nullable Tag bindTag(@Nullable Object value) {
+		return switch (value) {
+			case null -> null;
+			case String name -> new Tag(name);
+			case Map<?, ?> map ->
+				new Tag(bindString(map.get("name"), "tags.name"), bindString(map.get("version"), "tags.version"));
+			default -> throw cannotBind("tags", value);
+		};
+	}
+
+	private static @Nullable String bindString(@Nullable Object value, String field) {
+		return switch (value) {
+			case null -> null;
+			case String s -> s;
+			case Number n -> n.toString();
+			case Boolean b -> b.toString();
+			case Date date -> formatDate(date);
+			default -> throw cannotBind(field, value);
+		};
+	}
+
+	private static <T> @Nullable List<T> bindList(@Nullable Object value, String field,
+			Function<@Nullable Object, @Nullable T> binder) {
+		if (value == null) {
+			return null;
+		}
+		if (!(value instanceof List<?> list)) {
+			throw cannotBind(field, value);
+		}
+		List<T> bound = new ArrayList<>(list.size());
+		for (Object element : list) {
+			bound.add(binder.apply(element));
+		}
+		return bound;
+	}
+
+	/**
+	 * Formats the date like Jackson's default date format.
+	 */
+	private static String formatDate(Date date) {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX");
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format.format(date);
+	}
+
+	private static IllegalArgumentException cannotBind(String field, Object value) {
+		return new IllegalArgumentException(
+				"Cannot bind '%s' from %s value: %s".formatted(field, value.getClass().getSimpleName(), value));
+	}
+
 }
@@ -4,6 +4,7 @@ import am.ik.pagination.CursorPage;
 import am.ik.pagination.CursorPageRequest;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.jspecify.annotations.Nullable;
 
@@ -32,4 +33,22 @@ public interface EntryRepository {
 
 	void updateSummary(EntryKey entryKey, String summary);
 
+	/**
+	 * Fills in the summaries of several entries in one write. Entries whose summary is no
+	 * longer empty, e.g. because it was saved while the summaries were being generated,
+	 * are left as they are.
+	 * @param summaries summaries by entry
+	 */
+	void updateSummaries(Map<EntryKey, String> summaries);
+
+	/**
+	 * Returns entries of the tenant whose summary is empty, in ascending order of their
+	 * id.
+	 * @param tenantId the tenant
+	 * @param afterEntryId only entries with a greater id are returned
+	 * @param limit the maximum number of entries
+	 * @return entries including their content
+	 */
+	List<Entry> findWithoutSummary(String tenantId, long afterEntryId, int limit);
+
 }
@@ -5,16 +5,21 @@ import am.ik.blog.github.CreateFileRequest;
 import am.ik.blog.github.DeleteFileRequest;
 import am.ik.blog.github.File;
 import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
 import am.ik.blog.github.UpdateFileRequest;
 import am.ik.blog.security.Authorized;
 import am.ik.blog.security.Privilege;
 import am.ik.pagination.CursorPage;
 import am.ik.pagination.CursorPageRequest;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +28,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.parameters.P;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.service.registry.HttpServiceProxyRegistry;
 
 @Service
 public class EntryService {
@@ -32,26 +36,26 @@ public class EntryService {
 
 	public static final int DEFAULT_PAGE_SIZE = 30;
 
-	private static final CursorPageRequest<Instant> DEFAULT_CURSOR_REQUEST = new CursorPageRequest<>(null,
-			DEFAULT_PAGE_SIZE, CursorPageRequest.Navigation.NEXT);
+	static final CursorPageRequest<Instant> DEFAULT_CURSOR_REQUEST = new CursorPageRequest<>(null, DEFAULT_PAGE_SIZE,
+			CursorPageRequest.Navigation.NEXT);
 
 	private final EntryRepository entryRepository;
 
 	private final GitHubProps gitHubProps;
 
-	private final GitHubClient gitHubClient;
-
-	private final HttpServiceProxyRegistry registry;
+	private final GitHubTenants gitHubTenants;
 
 	private final EntryParser entryParser;
 
-	public EntryService(EntryRepository entryRepository, GitHubProps gitHubProps, HttpServiceProxyRegistry registry,
+	private final GitHubTreeWriter gitHubTreeWriter;
+
+	public EntryService(EntryRepository entryRepository, GitHubProps gitHubProps, GitHubTenants gitHubTenants,
 			EntryParser entryParser) {
 		this.entryRepository = entryRepository;
 		this.gitHubProps = gitHubProps;
-		this.registry = registry;
-		this.gitHubClient = registry.getClient("github", GitHubClient.class);
+		this.gitHubTenants = gitHubTenants;
 		this.entryParser = entryParser;
+		this.gitHubTreeWriter = new GitHubTreeWriter(gitHubProps.getBackOff());
 	}
 
 	@Authorized(resource = "entry", requiredPrivileges = Privilege.GET)
@@ -100,12 +104,35 @@ public class EntryService {
 
 	@Authorized(resource = "entry", requiredPrivileges = Privilege.EDIT)
 	public void saveAll(@Nullable @P("tenantId") String tenantId, Entry... entries) {
-		entryRepository.saveAll(entries);
+		this.saveAll(tenantId, List.of(entries));
 	}
 
+	/**
+	 * Saves the entries. With direct update, they are written to GitHub as a single
+	 * commit before being saved to the repository.
+	 */
 	@Authorized(resource = "entry", requiredPrivileges = Privilege.EDIT)
 	public void saveAll(@Nullable @P("tenantId") String tenantId, List<Entry> entries) {
-		entryRepository.saveAll(entries);
+		this.writeAll(tenantId, entries, List.of());
+	}
+
+	/**
+	 * Deletes the entries. With direct update, they are removed from GitHub as a single
+	 * commit before being deleted from the repository.
+	 */
+	@Authorized(resource = "entry", requiredPrivileges = Privilege.DELETE)
+	public void deleteAll(@Nullable @P("tenantId") String tenantId, List<EntryKey> entryKeys) {
+		this.writeAll(tenantId, List.of(), entryKeys);
+	}
+
+	/**
+	 * Saves some entries and deletes others. With direct update, both are written to
+	 * GitHub as a single commit before the repository is updated.
+	 */
+	@Authorized(resource = "entry", requiredPrivileges = { Privilege.EDIT, Privilege.DELETE })
+	public void saveAndDeleteAll(@Nullable @P("tenantId") String tenantId, List<Entry> entries,
+			List<EntryKey> deletedEntryKeys) {
+		this.writeAll(tenantId, entries, deletedEntryKeys);
 	}
 
 	@Authorized(resource = "entry", requiredPrivileges = Privilege.DELETE)
@@ -130,11 +157,12 @@ public class EntryService {
 	}
 
 	private Entry saveToGitHub(@Nullable String tenantId, Entry entry) {
-		String owner = getOwner(tenantId);
-		String repo = getRepo(tenantId);
+		GitHubTenant tenant = this.gitHubTenants.get(tenantId);
+		String owner = tenant.owner();
+		String repo = tenant.repo();
 		String path = getFilePath(entry.entryKey());
-		GitHubClient client = getGitHubClient(tenantId);
-		String content = Base64.getEncoder().encodeToString(entry.toMarkdown().getBytes(StandardCharsets.UTF_8));
+		GitHubClient client = tenant.client();
+		String content = entry.toBase64Markdown();
 		String formattedId = Entry.formatId(entry.entryKey().entryId());
 		ResponseEntity<File> getResponse = client.getFile(owner, repo, path);
 		if (getResponse.getStatusCode() == HttpStatus.NOT_FOUND) {
@@ -165,11 +193,52 @@ public class EntryService {
 		return entry;
 	}
 
+	private void writeAll(@Nullable String tenantId, List<Entry> entries, List<EntryKey> deletedEntryKeys) {
+		if (this.gitHubProps.isDirectUpdate() && !(entries.isEmpty() && deletedEntryKeys.isEmpty())) {
+			writeAllToGitHub(tenantId, entries, deletedEntryKeys);
+		}
+		// Also update the repository
+		if (!entries.isEmpty()) {
+			this.entryRepository.saveAll(entries);
+		}
+		deletedEntryKeys.forEach(this.entryRepository::deleteById);
+	}
+
+	private void writeAllToGitHub(@Nullable String tenantId, List<Entry> entries, List<EntryKey> deletedEntryKeys) {
+		GitHubTenant tenant = this.gitHubTenants.get(tenantId);
+		String owner = tenant.owner();
+		String repo = tenant.repo();
+		Map<String, String> files = new LinkedHashMap<>();
+		for (Entry entry : entries) {
+			files.put(getFilePath(entry.entryKey()), entry.toMarkdown());
+		}
+		Set<String> deletions = new LinkedHashSet<>();
+		for (EntryKey entryKey : deletedEntryKeys) {
+			deletions.add(getFilePath(entryKey));
+		}
+		List<String> messages = new ArrayList<>();
+		if (!entries.isEmpty()) {
+			messages.add(entries.size() == 1
+					? "Update entry %s".formatted(Entry.formatId(entries.getFirst().entryKey().entryId()))
+					: "Update %d entries".formatted(entries.size()));
+		}
+		if (!deletedEntryKeys.isEmpty()) {
+			String verb = messages.isEmpty() ? "Delete" : "delete";
+			messages.add(deletedEntryKeys.size() == 1
+					? "%s entry %s".formatted(verb, Entry.formatId(deletedEntryKeys.getFirst().entryId()))
+					: "%s %d entries".formatted(verb, deletedEntryKeys.size()));
+		}
+		logger.info("action=commit_files tenantId={} owner={} repo={} files={} deletions={}", tenantId, owner, repo,
+				files.size(), deletions.size());
+		this.gitHubTreeWriter.commit(tenant.client(), owner, repo, String.join(" and ", messages), files, deletions);
+	}
+
 	private void deleteFromGitHub(@Nullable String tenantId, EntryKey entryKey) {
-		String owner = getOwner(tenantId);
-		String repo = getRepo(tenantId);
+		GitHubTenant tenant = this.gitHubTenants.get(tenantId);
+		String owner = tenant.owner();
+		String repo = tenant.repo();
 		String path = getFilePath(entryKey);
-		GitHubClient client = getGitHubClient(tenantId);
+		GitHubClient client = tenant.client();
 		String formattedId = Entry.formatId(entryKey.entryId());
 		ResponseEntity<File> getResponse = client.getFile(owner, repo, path);
 		if (getResponse.getStatusCode() != HttpStatus.NOT_FOUND) {
@@ -194,10 +263,11 @@ public class EntryService {
 	}
 
 	private Entry fetchFromGitHub(@Nullable String tenantId, EntryKey entryKey) {
-		String owner = getOwner(tenantId);
-		String repo = getRepo(tenantId);
+		GitHubTenant tenant = this.gitHubTenants.get(tenantId);
+		String owner = tenant.owner();
+		String repo = tenant.repo();
 		String path = getFilePath(entryKey);
-		GitHubClient client = getGitHubClient(tenantId);
+		GitHubClient client = tenant.client();
 		logger.info("action=fetch_file tenantId={} owner={} repo={} path={}", tenantId, owner, repo, path);
 		ResponseEntity<File> response = client.getFile(owner, repo, path);
 		if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
@@ -219,33 +289,4 @@ public class EntryService {
 		return "content/%s.md".formatted(Entry.formatId(entryKey.entryId()));
 	}
 
-	private String getOwner(@Nullable String tenantId) {
-		if (EntryKey.isDefaultTenant(tenantId)) {
-			return this.gitHubProps.getContentOwner();
-		}
-		GitHubProps tenantProps = this.gitHubProps.getTenants().get(tenantId);
-		if (tenantProps == null) {
-			throw new IllegalArgumentException("Unknown tenant: " + tenantId);
-		}
-		return tenantProps.getContentOwner();
-	}
-
-	private String getRepo(@Nullable String tenantId) {
-		if (EntryKey.isDefaultTenant(tenantId)) {
-			return this.gitHubProps.getContentRepo();
-		}
-		GitHubProps tenantProps = this.gitHubProps.getTenants().get(tenantId);
-		if (tenantProps == null) {
-			throw new IllegalArgumentException("Unknown tenant: " + tenantId);
-		}
-		return tenantProps.getContentRepo();
-	}
-
-	private GitHubClient getGitHubClient(@Nullable String tenantId) {
-		if (EntryKey.isDefaultTenant(tenantId)) {
-			return this.gitHubClient;
-		}
-		return this.registry.getClient("github.%s".formatted(tenantId), GitHubClient.class);
-	}
-
 }
@@ -0,0 +1,163 @@
+package am.ik.blog.entry;
+
+import am.ik.blog.github.CreateCommitRequest;
+import am.ik.blog.github.CreateTreeRequest;
+import am.ik.blog.github.GitCommit;
+import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.Reference;
+import am.ik.blog.github.Tree;
+import am.ik.blog.github.UpdateReferenceRequest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Writes and deletes many files on the default branch of a repository as a single commit
+ * with the Git Data API. The number of requests does not depend on the number of files:
+ * the branch, its head commit, a tree carrying the contents inline, the new commit and
+ * the branch update. Deletions additionally list the directories holding the deleted
+ * files, since GitHub rejects a tree that deletes a path the base tree does not have.
+ * <p>
+ * The branch is only moved if it still points at the commit the tree was built on. When
+ * another commit got there first, the tree and commit are rebuilt on the new head and the
+ * update is retried according to the back-off.
+ */
+class GitHubTreeWriter {
+
+	private final BackOff backOff;
+
+	private final Logger logger = LoggerFactory.getLogger(GitHubTreeWriter.class);
+
+	GitHubTreeWriter(BackOff backOff) {
+		this.backOff = backOff;
+	}
+
+	/**
+	 * Commits the files and deletions. Deleted paths that do not exist on the branch are
+	 * ignored, and nothing is committed if that leaves nothing to change.
+	 * @param client client authenticated for the repository
+	 * @param owner owner of the repository
+	 * @param repo name of the repository
+	 * @param message commit message
+	 * @param files contents by path
+	 * @param deletions paths to delete
+	 * @return SHA of the new commit, or of the unchanged head
+	 */
+	String commit(GitHubClient client, String owner, String repo, String message, Map<String, String> files,
+			Set<String> deletions) {
+		String branch = body(client.getRepository(owner, repo), "get repository").defaultBranch();
+		BackOffExecution backOffExecution = this.backOff.start();
+		while (true) {
+			String head = body(client.getBranch(owner, repo, branch), "get branch").object().sha();
+			GitCommit headCommit = body(client.getGitCommit(owner, repo, head), "get commit");
+			String baseTree = headCommit.tree().sha();
+			List<CreateTreeRequest.Entry> entries = new ArrayList<>();
+			files.forEach((path, content) -> entries.add(CreateTreeRequest.Entry.file(path, content)));
+			existingPaths(client, owner, repo, baseTree, deletions)
+				.forEach(path -> entries.add(CreateTreeRequest.Entry.deletion(path)));
+			if (entries.isEmpty()) {
+				logger.info("action=skip_commit_tree reason=no_changes owner={} repo={} branch={}", owner, repo,
+						branch);
+				return head;
+			}
+			Tree tree = body(client.createTree(owner, repo, new CreateTreeRequest(baseTree, entries)), "create tree");
+			GitCommit commit = body(
+					client.createGitCommit(owner, repo, new CreateCommitRequest(message, tree.sha(), List.of(head))),
+					"create commit");
+			ResponseEntity<Reference> updated = client.updateBranch(owner, repo, branch,
+					new UpdateReferenceRequest(commit.sha(), false));
+			HttpStatusCode statusCode = updated.getStatusCode();
+			if (statusCode.is2xxSuccessful()) {
+				logger.info("action=commit_tree owner={} repo={} branch={} files={} deletions={} sha={}", owner, repo,
+						branch, files.size(), entries.size() - files.size(), commit.sha());
+				return commit.sha();
+			}
+			// GitHub answers 422 when the update is not a fast-forward
+			if (statusCode.value() != 422 && statusCode.value() != 409) {
+				throw new ResponseStatusException(statusCode, "Failed to update branch on GitHub: " + statusCode);
+			}
+			long wait = backOffExecution.nextBackOff();
+			if (wait == BackOffExecution.STOP) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT,
+						"Branch %s kept moving while committing %d files".formatted(branch, entries.size()));
+			}
+			logger.info("action=retry_commit_tree owner={} repo={} branch={} head={} wait={}ms", owner, repo, branch,
+					head, wait);
+			try {
+				Thread.sleep(wait);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while committing to GitHub", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the given paths that are files in the tree, listing each directory on the
+	 * way at most once.
+	 */
+	private static Set<String> existingPaths(GitHubClient client, String owner, String repo, String rootTree,
+			Set<String> paths) {
+		Map<String, Map<String, Tree.Item>> directories = new HashMap<>();
+		Set<String> existing = new LinkedHashSet<>();
+		for (String path : paths) {
+			int slash = path.lastIndexOf('/');
+			Map<String, Tree.Item> children = children(client, owner, repo, rootTree,
+					slash < 0 ? "" : path.substring(0, slash), directories);
+			Tree.Item item = children.get(path.substring(slash + 1));
+			if (item != null && "blob".equals(item.type())) {
+				existing.add(path);
+			}
+		}
+		return existing;
+	}
+
+	private static Map<String, Tree.Item> children(GitHubClient client, String owner, String repo, String rootTree,
+			String directory, Map<String, Map<String, Tree.Item>> directories) {
+		Map<String, Tree.Item> cached = directories.get(directory);
+		if (cached != null) {
+			return cached;
+		}
+		@Nullable String sha = rootTree;
+		if (!directory.isEmpty()) {
+			int slash = directory.lastIndexOf('/');
+			Map<String, Tree.Item> parent = children(client, owner, repo, rootTree,
+					slash < 0 ? "" : directory.substring(0, slash), directories);
+			Tree.Item item = parent.get(directory.substring(slash + 1));
+			sha = (item != null && "tree".equals(item.type())) ? item.sha() : null;
+		}
+		Map<String, Tree.Item> children = new HashMap<>();
+		if (sha != null) {
+			List<Tree.Item> items = body(client.getTree(owner, repo, sha), "get tree").tree();
+			if (items != null) {
+				items.forEach(item -> children.put(item.path(), item));
+			}
+		}
+		directories.put(directory, children);
+		return children;
+	}
+
+	private static <T> T body(ResponseEntity<T> response, String action) {
+		HttpStatusCode statusCode = response.getStatusCode();
+		T body = response.getBody();
+		if (statusCode.isError() || body == null) {
+			throw new ResponseStatusException(statusCode.isError() ? statusCode : HttpStatus.BAD_GATEWAY,
+					"Failed to %s on GitHub: %s".formatted(action, statusCode));
+		}
+		return body;
+	}
+
+}
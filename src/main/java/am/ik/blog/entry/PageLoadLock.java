@@ -0,0 +1,13 @@
+package am.ik.blog.entry;
+
+/**
+ * Lock shared between nodes so that only one of them loads a missing cache entry. Locks
+ * expire on their own so that a crashed holder does not block loading forever.
+ */
+public interface PageLoadLock {
+
+	boolean tryLock(String key);
+
+	void unlock(String key);
+
+}
@@ -0,0 +1,74 @@
+package am.ik.blog.entry.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Reads values written by {@link BinaryWriter}.
+ */
+public final class BinaryReader {
+
+	private final byte[] buffer;
+
+	private int position;
+
+	public BinaryReader(byte[] buffer, int offset) {
+		this.buffer = buffer;
+		this.position = offset;
+	}
+
+	public int readByte() {
+		if (this.position >= this.buffer.length) {
+			throw new IllegalStateException("Unexpected end of data at " + this.position);
+		}
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	public long readVarLong() {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IllegalStateException("Malformed varint at " + this.position);
+	}
+
+	public int readVarInt() {
+		return Math.toIntExact(readVarLong());
+	}
+
+	public @Nullable String readString() {
+		int length = readVarInt();
+		if (length == 0) {
+			return null;
+		}
+		int byteLength = length - 1;
+		if (byteLength > this.buffer.length - this.position) {
+			throw new IllegalStateException("String length " + byteLength + " exceeds remaining data");
+		}
+		String value = new String(this.buffer, this.position, byteLength, StandardCharsets.UTF_8);
+		this.position += byteLength;
+		return value;
+	}
+
+	public int position() {
+		return this.position;
+	}
+
+	public @Nullable Instant readInstant() {
+		if (!readBoolean()) {
+			return null;
+		}
+		long epochSecond = readVarLong();
+		return Instant.ofEpochSecond(epochSecond, readVarLong());
+	}
+
+}
@@ -0,0 +1,84 @@
+package am.ik.blog.entry.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Appends primitive values to a growable byte array. Integers are written as zigzag
+ * varints and strings as length-prefixed UTF-8, where a length of zero denotes
+ * {@code null} and every other length is shifted by one.
+ */
+public final class BinaryWriter {
+
+	private byte[] buffer;
+
+	private int position;
+
+	public BinaryWriter(int initialCapacity) {
+		this.buffer = new byte[Math.max(16, initialCapacity)];
+	}
+
+	public BinaryWriter writeByte(int value) {
+		ensureCapacity(1);
+		this.buffer[this.position++] = (byte) value;
+		return this;
+	}
+
+	public BinaryWriter writeBoolean(boolean value) {
+		return writeByte(value ? 1 : 0);
+	}
+
+	public BinaryWriter writeVarLong(long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		ensureCapacity(10);
+		while ((zigzag & ~0x7FL) != 0) {
+			this.buffer[this.position++] = (byte) ((zigzag & 0x7F) | 0x80);
+			zigzag >>>= 7;
+		}
+		this.buffer[this.position++] = (byte) zigzag;
+		return this;
+	}
+
+	public BinaryWriter writeString(@Nullable String value) {
+		if (value == null) {
+			return writeVarLong(0);
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length + 1L);
+		return writeBytes(bytes);
+	}
+
+	public BinaryWriter writeInstant(@Nullable Instant value) {
+		writeBoolean(value != null);
+		if (value != null) {
+			writeVarLong(value.getEpochSecond());
+			writeVarLong(value.getNano());
+		}
+		return this;
+	}
+
+	public BinaryWriter writeBytes(byte[] bytes) {
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+		this.position += bytes.length;
+		return this;
+	}
+
+	public int size() {
+		return this.position;
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(this.buffer, this.position);
+	}
+
+	private void ensureCapacity(int additional) {
+		int required = this.position + additional;
+		if (required > this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(required, this.buffer.length * 2));
+		}
+	}
+
+}
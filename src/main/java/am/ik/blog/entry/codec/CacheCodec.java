@@ -0,0 +1,16 @@
+package am.ik.blog.entry.codec;
+
+/**
+ * Binary format of a cached value. The format version is stored in front of every encoded
+ * value; it must be incremented whenever the layout changes so that nodes running an
+ * older layout treat newer values as cache misses instead of misreading them.
+ */
+public interface CacheCodec<T> {
+
+	int formatVersion();
+
+	void encode(T value, BinaryWriter writer);
+
+	T decode(BinaryReader reader);
+
+}
@@ -0,0 +1,47 @@
+package am.ik.blog.entry.codec;
+
+import am.ik.blog.entry.CachingEntryRepository.CachedPage;
+import am.ik.blog.entry.Entry;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CacheCodec} for {@link CachedPage} that embeds entries in the {@link EntryCodec}
+ * layout.
+ */
+public class CachedPageCodec implements CacheCodec<CachedPage> {
+
+	private final EntryCodec entryCodec = new EntryCodec();
+
+	@Override
+	public int formatVersion() {
+		return 1;
+	}
+
+	@Override
+	public void encode(CachedPage page, BinaryWriter writer) {
+		writer.writeVarLong(page.version());
+		writer.writeVarLong(page.size());
+		writer.writeBoolean(page.hasPrevious());
+		writer.writeBoolean(page.hasNext());
+		writer.writeVarLong(page.content().size());
+		for (Entry entry : page.content()) {
+			this.entryCodec.encode(entry, writer);
+		}
+	}
+
+	@Override
+	public CachedPage decode(BinaryReader reader) {
+		long version = reader.readVarLong();
+		int size = reader.readVarInt();
+		boolean hasPrevious = reader.readBoolean();
+		boolean hasNext = reader.readBoolean();
+		int contentSize = reader.readVarInt();
+		List<Entry> content = new ArrayList<>(contentSize);
+		for (int i = 0; i < contentSize; i++) {
+			content.add(this.entryCodec.decode(reader));
+		}
+		return new CachedPage(content, size, hasPrevious, hasNext, version);
+	}
+
+}
@@ -0,0 +1,154 @@
+package am.ik.blog.entry.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * {@link RedisSerializer} that writes values with a {@link CacheCodec} behind a three
+ * byte header: a magic byte, the codec's format version and flags. Payloads larger than
+ * the compression threshold are deflated when that makes them smaller.
+ * <p>
+ * Values without the magic byte were written by the {@code fallback} serializer (e.g.
+ * JSON before this serializer was rolled out) and are read with it. Values with an
+ * unknown format version are treated as cache misses.
+ */
+public class CodecRedisSerializer<T> implements RedisSerializer<T> {
+
+	static final byte MAGIC = (byte) 0xB7;
+
+	static final int FLAG_DEFLATED = 1;
+
+	private static final int HEADER_SIZE = 3;
+
+	private final CacheCodec<T> codec;
+
+	private final Class<T> type;
+
+	private final RedisSerializer<?> fallback;
+
+	private final int compressionThreshold;
+
+	private final Logger logger = LoggerFactory.getLogger(CodecRedisSerializer.class);
+
+	/**
+	 * @param codec the codec
+	 * @param type the type of the values
+	 * @param fallback serializer for values without a header
+	 * @param compressionThreshold minimum encoded size in bytes to attempt compression,
+	 * or a negative value to disable compression
+	 */
+	public CodecRedisSerializer(CacheCodec<T> codec, Class<T> type, RedisSerializer<?> fallback,
+			int compressionThreshold) {
+		this.codec = codec;
+		this.type = type;
+		this.fallback = fallback;
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	@Override
+	public byte[] serialize(@Nullable T value) throws SerializationException {
+		if (value == null) {
+			return new byte[0];
+		}
+		BinaryWriter writer = new BinaryWriter(1024);
+		writer.writeByte(MAGIC).writeByte(this.codec.formatVersion()).writeByte(0);
+		this.codec.encode(value, writer);
+		byte[] encoded = writer.toByteArray();
+		int payloadSize = encoded.length - HEADER_SIZE;
+		if (this.compressionThreshold >= 0 && payloadSize >= this.compressionThreshold) {
+			byte[] deflated = deflate(encoded, HEADER_SIZE, payloadSize);
+			BinaryWriter compressed = new BinaryWriter(HEADER_SIZE + 5 + deflated.length);
+			compressed.writeByte(MAGIC).writeByte(this.codec.formatVersion()).writeByte(FLAG_DEFLATED);
+			compressed.writeVarLong(payloadSize).writeBytes(deflated);
+			if (compressed.size() < encoded.length) {
+				return compressed.toByteArray();
+			}
+		}
+		return encoded;
+	}
+
+	@Override
+	public @Nullable T deserialize(byte @Nullable [] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] != MAGIC) {
+			Object value = this.fallback.deserialize(bytes);
+			return this.type.isInstance(value) ? this.type.cast(value) : null;
+		}
+		if (bytes.length < HEADER_SIZE) {
+			throw new SerializationException("Truncated cache value");
+		}
+		int formatVersion = bytes[1] & 0xFF;
+		if (formatVersion != this.codec.formatVersion()) {
+			logger.debug("action=skip_cache_value type={} formatVersion={}", this.type.getSimpleName(), formatVersion);
+			return null;
+		}
+		try {
+			if ((bytes[2] & FLAG_DEFLATED) != 0) {
+				BinaryReader header = new BinaryReader(bytes, HEADER_SIZE);
+				int payloadSize = header.readVarInt();
+				byte[] inflated = inflate(bytes, header.position(), payloadSize);
+				return this.codec.decode(new BinaryReader(inflated, 0));
+			}
+			return this.codec.decode(new BinaryReader(bytes, HEADER_SIZE));
+		}
+		catch (RuntimeException | DataFormatException e) {
+			throw new SerializationException("Failed to decode " + this.type.getSimpleName(), e);
+		}
+	}
+
+	@Override
+	public Class<?> getTargetType() {
+		return this.type;
+	}
+
+	private static byte[] deflate(byte[] input, int offset, int length) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(input, offset, length);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2);
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(chunk);
+				out.write(chunk, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] input, int offset, int payloadSize) throws DataFormatException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(input, offset, input.length - offset);
+			byte[] output = new byte[payloadSize];
+			int total = 0;
+			while (total < payloadSize && !inflater.finished()) {
+				int n = inflater.inflate(output, total, payloadSize - total);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new DataFormatException("Truncated compressed cache value");
+				}
+				total += n;
+			}
+			if (total != payloadSize) {
+				throw new DataFormatException("Expected " + payloadSize + " bytes but got " + total);
+			}
+			return output;
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package am.ik.blog.entry.codec;
+
+import am.ik.blog.entry.Author;
+import am.ik.blog.entry.Category;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.EntryKey;
+import am.ik.blog.entry.FrontMatter;
+import am.ik.blog.entry.Tag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link CacheCodec} for {@link Entry}. Fields are written in declaration order without
+ * names.
+ */
+public class EntryCodec implements CacheCodec<Entry> {
+
+	@Override
+	public int formatVersion() {
+		return 1;
+	}
+
+	@Override
+	public void encode(Entry entry, BinaryWriter writer) {
+		writer.writeVarLong(entry.entryKey().entryId());
+		writer.writeString(entry.entryKey().tenantId());
+		FrontMatter frontMatter = entry.frontMatter();
+		writer.writeString(frontMatter.title());
+		writer.writeString(frontMatter.summary());
+		writer.writeVarLong(frontMatter.categories().size());
+		for (Category category : frontMatter.categories()) {
+			writer.writeString(category.name());
+		}
+		writer.writeVarLong(frontMatter.tags().size());
+		for (Tag tag : frontMatter.tags()) {
+			writer.writeString(tag.name());
+			writer.writeString(tag.version());
+		}
+		writer.writeString(entry.content());
+		writeAuthor(entry.created(), writer);
+		writeAuthor(entry.updated(), writer);
+	}
+
+	@Override
+	public Entry decode(BinaryReader reader) {
+		EntryKey entryKey = new EntryKey(reader.readVarLong(), reader.readString());
+		String title = requireString(reader);
+		String summary = reader.readString();
+		int categoriesSize = reader.readVarInt();
+		List<Category> categories = new ArrayList<>(categoriesSize);
+		for (int i = 0; i < categoriesSize; i++) {
+			categories.add(new Category(requireString(reader)));
+		}
+		int tagsSize = reader.readVarInt();
+		List<Tag> tags = new ArrayList<>(tagsSize);
+		for (int i = 0; i < tagsSize; i++) {
+			tags.add(new Tag(requireString(reader), reader.readString()));
+		}
+		String content = reader.readString();
+		Author created = readAuthor(reader);
+		Author updated = readAuthor(reader);
+		return new Entry(entryKey, new FrontMatter(title, summary, categories, tags), content, created, updated);
+	}
+
+	private static void writeAuthor(Author author, BinaryWriter writer) {
+		writer.writeString(author.name());
+		writer.writeInstant(author.date());
+	}
+
+	private static Author readAuthor(BinaryReader reader) {
+		return new Author(requireString(reader), reader.readInstant());
+	}
+
+	private static String requireString(BinaryReader reader) {
+		return Objects.requireNonNull(reader.readString());
+	}
+
+}
@@ -0,0 +1,184 @@
+package am.ik.blog.entry.dsql;
+
+import am.ik.blog.BlogProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.retry.RetryException;
+import org.springframework.core.retry.RetryListener;
+import org.springframework.core.retry.RetryPolicy;
+import org.springframework.core.retry.RetryState;
+import org.springframework.core.retry.RetryTemplate;
+import org.springframework.core.retry.Retryable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-executes write transactions that were aborted by an optimistic concurrency conflict.
+ * DSQL reports such conflicts at commit time with SQLSTATE 40001, which
+ * {@code DsqlSQLExceptionTranslator} maps to {@link OptimisticLockingFailureException}.
+ * Retries back off exponentially with jitter and are bounded by a shared
+ * {@link RetryBudget} so that sustained contention does not turn into a retry storm.
+ */
+@Component
+class ConflictRetryOperations {
+
+	static final String METRIC_NAME = "entry.repository.retries";
+
+	private final RetryTemplate retryTemplate;
+
+	private final RetryBudget retryBudget;
+
+	private final MeterRegistry meterRegistry;
+
+	private final boolean enabled;
+
+	private final Logger logger = LoggerFactory.getLogger(ConflictRetryOperations.class);
+
+	ConflictRetryOperations(BlogProps blogProps, MeterRegistry meterRegistry) {
+		BlogProps.Retry retry = blogProps.getRetry();
+		this.enabled = retry.isEnabled();
+		this.meterRegistry = meterRegistry;
+		this.retryBudget = new RetryBudget(retry.getBudgetCapacity(), retry.getBudgetRatio());
+		RetryPolicy retryPolicy = RetryPolicy.builder()
+			.includes(OptimisticLockingFailureException.class)
+			.maxRetries(retry.getMaxRetries())
+			.delay(retry.getDelay())
+			.multiplier(retry.getMultiplier())
+			.maxDelay(retry.getMaxDelay())
+			.jitter(retry.getJitter())
+			.predicate(this::acquireRetryToken)
+			.build();
+		this.retryTemplate = new RetryTemplate(retryPolicy);
+		this.retryTemplate.setRetryListener(new MetricsRetryListener());
+		Gauge.builder(METRIC_NAME + ".budget", this.retryBudget, RetryBudget::available)
+			.description("Number of retry tokens currently available")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Executes the given action, retrying it on optimistic concurrency conflicts. The
+	 * action must start and complete its own transaction so that each attempt runs
+	 * against a fresh snapshot.
+	 * @param operation operation name used for logging and the {@code operation} tag
+	 * @param action the transactional action
+	 * @return the result of the action
+	 */
+	<T> @Nullable T execute(String operation, Supplier<T> action) {
+		this.retryBudget.deposit();
+		if (!this.enabled) {
+			return action.get();
+		}
+		try {
+			return this.retryTemplate.execute(new Retryable<>() {
+				@Override
+				public T execute() {
+					return action.get();
+				}
+
+				@Override
+				public String getName() {
+					return operation;
+				}
+			});
+		}
+		catch (RetryException e) {
+			if (e.getLastException() instanceof RuntimeException ex) {
+				throw ex;
+			}
+			throw new IllegalStateException(e.getLastException());
+		}
+	}
+
+	private boolean acquireRetryToken(Throwable ex) {
+		if (this.retryBudget.tryAcquire()) {
+			return true;
+		}
+		logger.warn("action=retry_budget_exhausted message=\"{}\"", ex.getMessage());
+		return false;
+	}
+
+	RetryBudget retryBudget() {
+		return this.retryBudget;
+	}
+
+	private Counter counter(String operation, String outcome) {
+		return Counter.builder(METRIC_NAME)
+			.description("Number of retries of write transactions aborted by concurrency conflicts")
+			.tag("operation", operation)
+			.tag("outcome", outcome)
+			.register(this.meterRegistry);
+	}
+
+	private class MetricsRetryListener implements RetryListener {
+
+		@Override
+		public void beforeRetry(RetryPolicy retryPolicy, Retryable<?> retryable, RetryState retryState) {
+			logger.info("action=retry operation={} attempt={} cause=\"{}\"", retryable.getName(),
+					retryState.getRetryCount() + 1, retryState.getLastException().getMessage());
+			counter(retryable.getName(), "retry").increment();
+		}
+
+		@Override
+		public void onRetrySuccess(RetryPolicy retryPolicy, Retryable<?> retryable, @Nullable Object result) {
+			counter(retryable.getName(), "recovered").increment();
+		}
+
+		@Override
+		public void onRetryPolicyExhaustion(RetryPolicy retryPolicy, Retryable<?> retryable, RetryException exception) {
+			logger.warn("action=retry_exhausted operation={} retries={}", retryable.getName(),
+					exception.getRetryCount());
+			counter(retryable.getName(), "exhausted").increment();
+		}
+
+	}
+
+	/**
+	 * Token bucket that caps retries to a fraction of the write traffic. Every operation
+	 * deposits {@code ratio} tokens up to {@code capacity}, and every retry withdraws one
+	 * token. Tokens are kept in thousandths to stay lock-free.
+	 */
+	static class RetryBudget {
+
+		private static final long SCALE = 1000;
+
+		private final long capacity;
+
+		private final long deposit;
+
+		private final AtomicLong balance;
+
+		RetryBudget(int capacity, double ratio) {
+			this.capacity = capacity * SCALE;
+			this.deposit = Math.round(ratio * SCALE);
+			this.balance = new AtomicLong(this.capacity);
+		}
+
+		void deposit() {
+			this.balance.accumulateAndGet(this.deposit, (current, delta) -> Math.min(this.capacity, current + delta));
+		}
+
+		boolean tryAcquire() {
+			long current;
+			do {
+				current = this.balance.get();
+				if (current < SCALE) {
+					return false;
+				}
+			}
+			while (!this.balance.compareAndSet(current, current - SCALE));
+			return true;
+		}
+
+		double available() {
+			return (double) this.balance.get() / SCALE;
+		}
+
+	}
+
+}
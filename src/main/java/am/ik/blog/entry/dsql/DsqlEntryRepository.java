@@ -41,6 +41,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
@@ -71,11 +72,15 @@ public class DsqlEntryRepository implements EntryRepository {
 
 	private final TransactionTemplate transactionTemplate;
 
+	private final TransactionTemplate writeTransactionTemplate;
+
+	private final ConflictRetryOperations retryOperations;
+
 	private final Logger logger = LoggerFactory.getLogger(DsqlEntryRepository.class);
 
 	public DsqlEntryRepository(JdbcClient jdbcClient, NamedParameterJdbcTemplate jdbcTemplate, JsonMapper jsonMapper,
 			Tokenizer tokenizer, DsqlQueryConverter queryConverter, InstantSource instantSource,
-			PlatformTransactionManager platformTransactionManager) {
+			PlatformTransactionManager platformTransactionManager, ConflictRetryOperations retryOperations) {
 		this.jdbcClient = jdbcClient;
 		this.jdbcTemplate = jdbcTemplate;
 		this.tokenizer = tokenizer;
@@ -85,6 +90,8 @@ public class DsqlEntryRepository implements EntryRepository {
 		DefaultTransactionDefinition transactionDefinition = new DefaultTransactionDefinition();
 		transactionDefinition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
 		this.transactionTemplate = new TransactionTemplate(platformTransactionManager, transactionDefinition);
+		this.writeTransactionTemplate = new TransactionTemplate(platformTransactionManager);
+		this.retryOperations = retryOperations;
 		TypeReference<List<Tag>> tagsRef = new TypeReference<>() {
 		};
 		TypeReference<List<Category>> categoriesRef = new TypeReference<>() {
@@ -113,6 +120,7 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Optional<Entry> findById(EntryKey entryKey) {
 		return this.jdbcClient.sql("""
 				SELECT
@@ -137,6 +145,7 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Entry> findAll(List<EntryKey> entryKeys) {
 		if (entryKeys.isEmpty()) {
 			return List.of();
@@ -170,6 +179,7 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public CursorPage<Entry, Instant> findOrderByUpdated(@Nullable String tenantId, SearchCriteria searchCriteria,
 			CursorPageRequest<Instant> pageRequest) {
 		Optional<Instant> cursor = pageRequest.cursorOptional();
@@ -251,6 +261,7 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<List<Category>> findAllCategories(@Nullable String tenantId) {
 		return this.jdbcClient.sql("""
 				SELECT DISTINCT categories
@@ -266,6 +277,7 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<TagAndCount> findAllTags(@Nullable String tenantId) {
 		return this.jdbcClient.sql("""
 				SELECT
@@ -288,16 +300,33 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
-	@Transactional
 	public Entry save(Entry entry) {
-		UUID entryId = upsertEntry(entry);
-		logger.info("Upsert entry (id={}, entryKey={})", entryId, entry.entryKey());
-		this.deleteAndInsertCategories(entryId, entry);
-		this.deleteAndInsertTags(entryId, entry);
-		this.deleteAndInsertTokens(entryId, entry);
+		this.executeWrite("save", () -> {
+			UUID entryId = upsertEntry(entry);
+			logger.info("Upsert entry (id={}, entryKey={})", entryId, entry.entryKey());
+			this.deleteAndInsertCategories(entryId, entry);
+			this.deleteAndInsertTags(entryId, entry);
+			this.deleteAndInsertTokens(entryId, entry);
+		});
 		return entry;
 	}
 
+	/**
+	 * Runs the action in a transaction that is re-executed on optimistic concurrency
+	 * conflicts. When called within an outer transaction, the action simply participates
+	 * in it because only the outermost transaction can be safely re-executed.
+	 */
+	private void executeWrite(String operation, Runnable action) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			action.run();
+			return;
+		}
+		this.retryOperations.execute(operation, () -> this.writeTransactionTemplate.execute(status -> {
+			action.run();
+			return null;
+		}));
+	}
+
 	private UUID upsertEntry(Entry entry) {
 		String sql = """
 				INSERT INTO entry (
@@ -397,8 +426,10 @@ public class DsqlEntryRepository implements EntryRepository {
 				for (int i = 0; i < batchParams.length; i += TOKENS_MAX_CHUK_SIZE) {
 					int end = Math.min(i + TOKENS_MAX_CHUK_SIZE, batchParams.length);
 					MapSqlParameterSource[] subBatchParams = Arrays.copyOfRange(batchParams, i, end);
-					int[] inserted = this.transactionTemplate.execute(status -> this.jdbcTemplate.batchUpdate(
-							"INSERT INTO entry_tokens (entry_id, token) VALUES (:entryId, :token)", subBatchParams));
+					int[] inserted = this.retryOperations.execute("insert_tokens",
+							() -> this.transactionTemplate.execute(status -> this.jdbcTemplate.batchUpdate(
+									"INSERT INTO entry_tokens (entry_id, token) VALUES (:entryId, :token)",
+									subBatchParams)));
 					logger.info("Inserted {} tokens in iteration {}/{} for id: {}",
 							Arrays.stream(Objects.requireNonNull(inserted)).sum(), i / TOKENS_MAX_CHUK_SIZE + 1,
 							batchParams.length / TOKENS_MAX_CHUK_SIZE + 1, entryId);
@@ -421,20 +452,21 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
-	@Transactional
 	public void saveAll(Entry... entries) {
 		this.saveAll(Arrays.asList(entries));
 	}
 
 	@Override
-	@Transactional
 	public void saveAll(List<Entry> entries) {
-		entries.forEach(this::save);
+		this.executeWrite("save_all", () -> entries.forEach(this::save));
 	}
 
 	@Override
-	@Transactional
 	public void deleteById(EntryKey entryKey) {
+		this.executeWrite("delete", () -> this.doDeleteById(entryKey));
+	}
+
+	private void doDeleteById(EntryKey entryKey) {
 		Optional<UUID> entryIdOptional = this.jdbcClient
 			.sql("SELECT id FROM entry WHERE public_entry_id = :publicEntryId AND tenant_id = :tenantId")
 			.param("publicEntryId", entryKey.entryId())
@@ -455,14 +487,57 @@ public class DsqlEntryRepository implements EntryRepository {
 	}
 
 	@Override
-	@Transactional
 	public void updateSummary(EntryKey entryKey, String summary) {
-		this.jdbcClient
+		this.executeWrite("update_summary", () -> this.jdbcClient
 			.sql("UPDATE entry SET summary = :summary WHERE public_entry_id = :publicEntryId AND tenant_id = :tenantId")
 			.param("summary", summary)
 			.param("publicEntryId", entryKey.entryId())
 			.param("tenantId", entryKey.tenantId())
-			.update();
+			.update());
+	}
+
+	@Override
+	public void updateSummaries(Map<EntryKey, String> summaries) {
+		if (summaries.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource[] params = summaries.entrySet()
+			.stream()
+			.map(e -> new MapSqlParameterSource().addValue("summary", e.getValue())
+				.addValue("publicEntryId", e.getKey().entryId())
+				.addValue("tenantId", e.getKey().tenantId()))
+			.toArray(MapSqlParameterSource[]::new);
+		this.executeWrite("update_summaries", () -> this.jdbcTemplate.batchUpdate(
+				"UPDATE entry SET summary = :summary WHERE public_entry_id = :publicEntryId AND tenant_id = :tenantId AND summary = ''",
+				params));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Entry> findWithoutSummary(String tenantId, long afterEntryId, int limit) {
+		return this.jdbcClient.sql("""
+				SELECT
+				    public_entry_id,
+				    title,
+				    summary,
+				    content,
+				    created_by,
+				    created_date,
+				    last_modified_by,
+				    last_modified_date,
+				    tenant_id,
+				    categories,
+				    tags
+				FROM entry
+				WHERE tenant_id = :tenantId AND summary = '' AND public_entry_id > :afterEntryId
+				ORDER BY public_entry_id
+				LIMIT :limit
+				""".trim())
+			.param("tenantId", tenantId)
+			.param("afterEntryId", afterEntryId)
+			.param("limit", limit)
+			.query(this.entryRowMapper)
+			.list();
 	}
 
 	public void deleteTokens(UUID entryId) {
@@ -476,11 +551,12 @@ public class DsqlEntryRepository implements EntryRepository {
 					entryId, TOKENS_MAX_CHUK_SIZE, numOfTokens);
 			int deleteIterations = (numOfTokens / TOKENS_MAX_CHUK_SIZE) + 1;
 			for (int i = 0; i < deleteIterations; i++) {
-				Integer deleted = this.transactionTemplate.execute(status -> this.jdbcClient.sql(
-						"DELETE FROM entry_tokens WHERE entry_id = :entryId AND token IN (SELECT token FROM entry_tokens WHERE entry_id = :entryId LIMIT :limit)")
-					.param("entryId", entryId)
-					.param("limit", TOKENS_MAX_CHUK_SIZE)
-					.update());
+				Integer deleted = this.retryOperations
+					.execute("delete_tokens", () -> this.transactionTemplate.execute(status -> this.jdbcClient.sql(
+							"DELETE FROM entry_tokens WHERE entry_id = :entryId AND token IN (SELECT token FROM entry_tokens WHERE entry_id = :entryId LIMIT :limit)")
+						.param("entryId", entryId)
+						.param("limit", TOKENS_MAX_CHUK_SIZE)
+						.update()));
 				logger.info("Deleted {} tokens in iteration {}/{} for id: {}", deleted, i + 1, deleteIterations,
 						entryId);
 			}
@@ -0,0 +1,194 @@
+package am.ik.blog.entry.github;
+
+import am.ik.blog.entry.Author;
+import am.ik.blog.github.GitHubGraphQLClient;
+import am.ik.blog.github.GraphQLRequest;
+import am.ik.blog.github.GraphQLResponse;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.JsonNode;
+
+/**
+ * Resolves who created and who last updated files from the history of the default branch
+ * with GitHub's GraphQL API, instead of listing a page of commits per file.
+ * <p>
+ * Up to {@link #BATCH_SIZE} paths are resolved together. The first query returns the
+ * newest commit and the length of the history of every path. The second one fetches the
+ * oldest commit of the paths that have more than one, using a cursor that points at the
+ * end of their history, so the cost does not grow with the number of commits.
+ * <p>
+ * A failed lookup is an error rather than an unknown author, so that it does not
+ * overwrite the authors already stored for an entry. Only paths without any history are
+ * resolved to {@link #UNKNOWN}.
+ */
+final class CommitAuthorResolver {
+
+	static final int BATCH_SIZE = 50;
+
+	static final Author UNKNOWN = Author.builder().name("unknown").build();
+
+	private static final String AUTHOR_FIELDS = "nodes { author { name date } }";
+
+	/**
+	 * Resolves the authors of the given paths.
+	 * @param client client authenticated for the repository
+	 * @param owner owner of the repository
+	 * @param repo name of the repository
+	 * @param paths paths to resolve
+	 * @return authors of every path, {@link Authors#unknown()} for paths without history
+	 * @throws ResponseStatusException if the history could not be queried
+	 */
+	Map<String, Authors> resolve(GitHubGraphQLClient client, String owner, String repo, List<String> paths) {
+		Map<String, Authors> authors = new HashMap<>();
+		for (int i = 0; i < paths.size(); i += BATCH_SIZE) {
+			List<String> batch = paths.subList(i, Math.min(i + BATCH_SIZE, paths.size()));
+			authors.putAll(this.resolveBatch(client, owner, repo, batch));
+		}
+		return authors;
+	}
+
+	private Map<String, Authors> resolveBatch(GitHubGraphQLClient client, String owner, String repo,
+			List<String> paths) {
+		Map<String, Object> variables = new LinkedHashMap<>();
+		variables.put("owner", owner);
+		variables.put("repo", repo);
+		StringBuilder parameters = new StringBuilder("$owner: String!, $repo: String!");
+		StringBuilder histories = new StringBuilder();
+		for (int i = 0; i < paths.size(); i++) {
+			variables.put("p" + i, paths.get(i));
+			parameters.append(", $p").append(i).append(": String!");
+			histories.append("h%d: history(first: 1, path: $p%d) { totalCount %s }\n".formatted(i, i, AUTHOR_FIELDS));
+		}
+		String query = """
+				query(%s) {
+				  repository(owner: $owner, name: $repo) {
+				    defaultBranchRef { target { ... on Commit { oid
+				%s} } }
+				  }
+				}
+				""".formatted(parameters, histories);
+		JsonNode head = this.query(client, new GraphQLRequest(query, variables), owner, repo)
+			.path("repository")
+			.path("defaultBranchRef")
+			.path("target");
+		if (head.isMissingNode()) {
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+					"Default branch of %s/%s not found on GitHub".formatted(owner, repo));
+		}
+		Map<String, Authors> authors = new HashMap<>();
+		Map<String, Author> latestByPath = new LinkedHashMap<>();
+		Map<String, Integer> totalCountByPath = new HashMap<>();
+		for (int i = 0; i < paths.size(); i++) {
+			JsonNode history = head.path("h" + i);
+			int totalCount = history.path("totalCount").asInt(0);
+			if (totalCount == 0) {
+				authors.put(paths.get(i), Authors.unknown());
+				continue;
+			}
+			Author latest = toAuthor(history.path("nodes").path(0).path("author"));
+			if (totalCount == 1) {
+				authors.put(paths.get(i), new Authors(latest, latest));
+			}
+			else {
+				latestByPath.put(paths.get(i), latest);
+				totalCountByPath.put(paths.get(i), totalCount);
+			}
+		}
+		if (latestByPath.isEmpty()) {
+			return authors;
+		}
+		String oid = head.path("oid").asString();
+		Map<String, Object> oldestVariables = new LinkedHashMap<>();
+		oldestVariables.put("owner", owner);
+		oldestVariables.put("repo", repo);
+		oldestVariables.put("oid", oid);
+		StringBuilder oldestParameters = new StringBuilder("$owner: String!, $repo: String!, $oid: GitObjectID!");
+		StringBuilder oldestHistories = new StringBuilder();
+		List<String> oldestPaths = new ArrayList<>(latestByPath.keySet());
+		for (int i = 0; i < oldestPaths.size(); i++) {
+			String path = oldestPaths.get(i);
+			// a history cursor is "<oid> <offset>" and "after" skips past the offset
+			oldestVariables.put("p" + i, path);
+			oldestVariables.put("c" + i, "%s %d".formatted(oid, totalCountByPath.get(path) - 2));
+			oldestParameters.append(", $p").append(i).append(": String!, $c").append(i).append(": String!");
+			oldestHistories
+				.append("h%d: history(first: 1, path: $p%d, after: $c%d) { %s }\n".formatted(i, i, i, AUTHOR_FIELDS));
+		}
+		String oldestQuery = """
+				query(%s) {
+				  repository(owner: $owner, name: $repo) {
+				    object(oid: $oid) { ... on Commit {
+				%s} }
+				  }
+				}
+				""".formatted(oldestParameters, oldestHistories);
+		JsonNode snapshot = this.query(client, new GraphQLRequest(oldestQuery, oldestVariables), owner, repo)
+			.path("repository")
+			.path("object");
+		for (int i = 0; i < oldestPaths.size(); i++) {
+			String path = oldestPaths.get(i);
+			JsonNode oldest = snapshot.path("h" + i).path("nodes").path(0);
+			if (oldest.isMissingNode()) {
+				throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+						"Oldest commit of %s in %s/%s not found on GitHub".formatted(path, owner, repo));
+			}
+			Author created = toAuthor(oldest.path("author"));
+			authors.put(path, new Authors(created, latestByPath.get(path)));
+		}
+		return authors;
+	}
+
+	private JsonNode query(GitHubGraphQLClient client, GraphQLRequest request, String owner, String repo) {
+		ResponseEntity<GraphQLResponse> response = client.query(request);
+		HttpStatusCode statusCode = response.getStatusCode();
+		GraphQLResponse body = response.getBody();
+		if (!statusCode.is2xxSuccessful() || body == null) {
+			throw new ResponseStatusException(statusCode.isError() ? statusCode : HttpStatus.BAD_GATEWAY,
+					"Failed to query commit history of %s/%s on GitHub: %s".formatted(owner, repo, statusCode));
+		}
+		List<GraphQLResponse.Error> errors = body.errors();
+		if (errors != null && !errors.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+					"Failed to query commit history of %s/%s on GitHub: %s".formatted(owner, repo,
+							errors.stream().map(GraphQLResponse.Error::message).toList()));
+		}
+		JsonNode data = body.data();
+		if (data == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+					"No commit history of %s/%s returned from GitHub".formatted(owner, repo));
+		}
+		return data;
+	}
+
+	private static Author toAuthor(JsonNode author) {
+		String name = author.path("name").asString(null);
+		if (name == null) {
+			return UNKNOWN;
+		}
+		String date = author.path("date").asString(null);
+		return Author.builder().name(name).date(date == null ? null : OffsetDateTime.parse(date).toInstant()).build();
+	}
+
+	/**
+	 * Authors of a file.
+	 *
+	 * @param created author of the oldest commit
+	 * @param updated author of the newest commit
+	 */
+	record Authors(Author created, Author updated) {
+
+		static Authors unknown() {
+			return new Authors(UNKNOWN, UNKNOWN);
+		}
+
+	}
+
+}
@@ -1,17 +1,20 @@
 package am.ik.blog.entry.github;
 
-import am.ik.blog.entry.Author;
 import am.ik.blog.entry.Entry;
 import am.ik.blog.entry.EntryFetcher;
 import am.ik.blog.entry.EntryKey;
 import am.ik.blog.entry.EntryParser;
-import am.ik.blog.github.Commit;
-import am.ik.blog.github.CommitParameter;
 import am.ik.blog.github.File;
-import am.ik.blog.github.GitCommitter;
 import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
+import am.ik.blog.github.GitHubUserContentClient;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -22,62 +25,88 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.web.service.registry.HttpServiceProxyRegistry;
 
 @Component
 public class GithubEntryFetcher implements EntryFetcher {
 
 	private final EntryParser entryParser;
 
-	private final GitHubClient gitHubClient;
+	private final CommitAuthorResolver commitAuthorResolver = new CommitAuthorResolver();
 
-	private final HttpServiceProxyRegistry registry;
+	private final GitHubTenants gitHubTenants;
 
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
-	public GithubEntryFetcher(EntryParser entryParser, HttpServiceProxyRegistry registry) {
+	public GithubEntryFetcher(EntryParser entryParser, GitHubTenants gitHubTenants) {
 		this.entryParser = entryParser;
-		this.gitHubClient = registry.getClient("github", GitHubClient.class);
-		this.registry = registry;
+		this.gitHubTenants = gitHubTenants;
 	}
 
 	@Override
 	public Optional<Entry> fetch(@Nullable String tenantId, String owner, String repo, String path) {
-		GitHubClient gitHubClient;
-		if (EntryKey.isDefaultTenant(tenantId)) {
-			gitHubClient = this.gitHubClient;
-		}
-		else {
-			gitHubClient = this.registry.getClient("github.%s".formatted(tenantId), GitHubClient.class);
-		}
-		Long entryId = Entry.parseId(Paths.get(path).getFileName().toString());
-		EntryKey entryKey = new EntryKey(entryId, tenantId);
-		ResponseEntity<File> response = gitHubClient.getFile(owner, repo, path);
-		HttpStatusCode statusCode = response.getStatusCode();
-		if (statusCode == HttpStatus.OK) {
-			File file = response.getBody();
-			Assert.notNull(file, "File must not be null");
-			logger.info("Retrieved file: {}", file.url());
-			List<Commit> commits = gitHubClient.getCommits(owner, repo, new CommitParameter().path(path).queryParams());
-			Author created = commits.isEmpty() ? Author.builder().name("unknown").build() : toAuthor(commits.getLast());
-			Author updated = commits.isEmpty() ? Author.builder().name("unknown").build()
-					: toAuthor(commits.getFirst());
-			return Optional.of(this.entryParser.fromMarkdown(entryKey, file.decode(), created, updated).build());
-		}
-		else if (statusCode.is4xxClientError()) {
-			logger.info("Failed to retrieve file statusCode: {}, tenantId: {}, owner: {}, repo: {}, path: {}",
-					statusCode.value(), tenantId, owner, repo, path);
-			return Optional.empty();
+		return this.fetchAll(tenantId, owner, repo, null, List.of(path)).stream().findFirst();
+	}
+
+	@Override
+	public List<Entry> fetchAll(@Nullable String tenantId, String owner, String repo, @Nullable String ref,
+			List<String> paths) {
+		GitHubTenant tenant = this.gitHubTenants.get(tenantId);
+		GitHubClient gitHubClient = tenant.client();
+		GitHubUserContentClient userContentClient = tenant.userContentClient();
+		Map<String, String> markdowns = new LinkedHashMap<>();
+		for (String path : paths) {
+			// raw content at a commit does not count against the API rate limit
+			String markdown = ref == null ? null : this.fetchRawContent(userContentClient, owner, repo, ref, path);
+			if (markdown != null) {
+				markdowns.put(path, markdown);
+				continue;
+			}
+			ResponseEntity<File> response = gitHubClient.getFile(owner, repo, path);
+			HttpStatusCode statusCode = response.getStatusCode();
+			if (statusCode == HttpStatus.OK) {
+				File file = response.getBody();
+				Assert.notNull(file, "File must not be null");
+				logger.info("Retrieved file: {}", file.url());
+				markdowns.put(path, file.decode());
+			}
+			else if (statusCode.is4xxClientError()) {
+				logger.info("Failed to retrieve file statusCode: {}, tenantId: {}, owner: {}, repo: {}, path: {}",
+						statusCode.value(), tenantId, owner, repo, path);
+			}
+			else {
+				throw new ResponseStatusException(statusCode,
+						"Unexpected response returned from Github File API :" + statusCode);
+			}
 		}
-		else {
-			throw new ResponseStatusException(statusCode,
-					"Unexpected response returned from Github File API :" + statusCode);
+		if (markdowns.isEmpty()) {
+			return List.of();
 		}
+		// one round trip per batch of files instead of a page of commits per file
+		Map<String, CommitAuthorResolver.Authors> authors = this.commitAuthorResolver.resolve(tenant.graphQLClient(),
+				owner, repo, List.copyOf(markdowns.keySet()));
+		List<Entry> entries = new ArrayList<>(markdowns.size());
+		markdowns.forEach((path, markdown) -> {
+			Long entryId = Entry.parseId(Paths.get(path).getFileName().toString());
+			EntryKey entryKey = new EntryKey(entryId, tenantId);
+			CommitAuthorResolver.Authors resolved = authors.get(path);
+			Assert.notNull(resolved, "Authors must not be null");
+			entries
+				.add(this.entryParser.fromMarkdown(entryKey, markdown, resolved.created(), resolved.updated()).build());
+		});
+		return entries;
 	}
 
-	private Author toAuthor(Commit commit) {
-		GitCommitter committer = commit.commit().author();
-		return new Author(committer.name(), committer.date());
+	private @Nullable String fetchRawContent(GitHubUserContentClient userContentClient, String owner, String repo,
+			String ref, String path) {
+		ResponseEntity<byte[]> response = userContentClient.getContent(owner, repo, ref, path);
+		byte[] content = response.getBody();
+		if (response.getStatusCode() == HttpStatus.OK && content != null) {
+			logger.info("Retrieved raw content: {}/{}/{}/{}", owner, repo, ref, path);
+			return new String(content, StandardCharsets.UTF_8);
+		}
+		logger.info("Failed to retrieve raw content statusCode: {}, owner: {}, repo: {}, ref: {}, path: {}",
+				response.getStatusCode().value(), owner, repo, ref, path);
+		return null;
 	}
 
 }
@@ -0,0 +1,79 @@
+package am.ik.blog.entry.web;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Input stream that rejects request bodies larger than the given size with
+ * {@code 413 Content Too Large} as soon as the limit is crossed, so that an oversized
+ * body is never read into memory as a whole.
+ */
+class BoundedInputStream extends FilterInputStream {
+
+	private final long maxSize;
+
+	private long count;
+
+	BoundedInputStream(InputStream in, long maxSize) {
+		super(in);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Rejects a request up front if its declared {@code Content-Length} exceeds the
+	 * limit.
+	 * @param contentLength the declared length, or a negative value if unknown
+	 * @param maxSize the limit in bytes
+	 */
+	static void checkContentLength(long contentLength, long maxSize) {
+		if (contentLength > maxSize) {
+			throw tooLarge(maxSize);
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b >= 0) {
+			this.count(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = super.read(b, off, len);
+		if (n > 0) {
+			this.count(n);
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		this.count(skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private void count(long n) {
+		this.count += n;
+		if (this.count > this.maxSize) {
+			throw tooLarge(this.maxSize);
+		}
+	}
+
+	private static ResponseStatusException tooLarge(long maxSize) {
+		return new ResponseStatusException(HttpStatus.CONTENT_TOO_LARGE,
+				"Request body exceeds the limit of " + maxSize + " bytes");
+	}
+
+}
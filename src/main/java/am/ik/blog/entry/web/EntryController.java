@@ -1,8 +1,10 @@
 package am.ik.blog.entry.web;
 
+import am.ik.blog.BlogProps;
 import am.ik.blog.entry.Author;
 import am.ik.blog.entry.Category;
 import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.EntryHitCounter;
 import am.ik.blog.entry.EntryKey;
 import am.ik.blog.entry.EntryParser;
 import am.ik.blog.entry.EntryService;
@@ -12,6 +14,10 @@ import am.ik.blog.entry.Tag;
 import am.ik.blog.entry.TagAndCount;
 import am.ik.pagination.CursorPage;
 import am.ik.pagination.CursorPageRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.InstantSource;
@@ -21,7 +27,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -35,11 +43,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
+import tools.jackson.databind.json.JsonMapper;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @RestController
@@ -51,10 +64,26 @@ public class EntryController {
 
 	private final InstantSource instantSource;
 
-	public EntryController(EntryService entryService, EntryParser entryParser, InstantSource instantSource) {
+	private final EntryHitCounter entryHitCounter;
+
+	private final JsonMapper jsonMapper;
+
+	@Nullable private final EntryResponseCache responseCache;
+
+	private static final MediaType TEXT_MARKDOWN_UTF8 = new MediaType(MediaType.TEXT_MARKDOWN, StandardCharsets.UTF_8);
+
+	private final long maxMarkdownSize;
+
+	public EntryController(EntryService entryService, EntryParser entryParser, InstantSource instantSource,
+			EntryHitCounter entryHitCounter, JsonMapper jsonMapper, ObjectProvider<EntryResponseCache> responseCache,
+			BlogProps blogProps) {
 		this.entryService = entryService;
 		this.entryParser = entryParser;
 		this.instantSource = instantSource;
+		this.entryHitCounter = entryHitCounter;
+		this.jsonMapper = jsonMapper;
+		this.responseCache = responseCache.getIfAvailable();
+		this.maxMarkdownSize = blogProps.getIngest().getMaxMarkdownSize().toBytes();
 	}
 
 	@GetMapping(path = { "/entries", "/tenants/{tenantId}/entries" })
@@ -79,8 +108,13 @@ public class EntryController {
 	@Nullable public ResponseEntity<?> getEntry(@PathVariable Long entryId, @PathVariable(required = false) String tenantId,
 			WebRequest webRequest) {
 		EntryKey entryKey = new EntryKey(entryId, tenantId);
+		if (this.responseCache != null) {
+			return cachedResponse(this.responseCache, tenantId, entryKey, webRequest, EntryResponseCache.Format.JSON,
+					this.jsonMapper::writeValueAsBytes, MediaType.APPLICATION_JSON);
+		}
 		Optional<Entry> entry = this.entryService.findById(tenantId, entryKey);
 		if (entry.isPresent()) {
+			this.entryHitCounter.increment(entryKey);
 			return checkNotModified(entry.get(), webRequest, Function.identity(), MediaType.APPLICATION_JSON);
 		}
 		else {
@@ -92,8 +126,14 @@ public class EntryController {
 	@Nullable public ResponseEntity<?> getEntryAsMarkdown(@PathVariable Long entryId,
 			@PathVariable(required = false) String tenantId, WebRequest webRequest) {
 		EntryKey entryKey = new EntryKey(entryId, tenantId);
+		if (this.responseCache != null) {
+			return cachedResponse(this.responseCache, tenantId, entryKey, webRequest,
+					EntryResponseCache.Format.MARKDOWN, e -> e.toMarkdown().getBytes(StandardCharsets.UTF_8),
+					TEXT_MARKDOWN_UTF8);
+		}
 		Optional<Entry> entry = this.entryService.findById(tenantId, entryKey);
 		if (entry.isPresent()) {
+			this.entryHitCounter.increment(entryKey);
 			return checkNotModified(entry.get(), webRequest, Entry::toMarkdown, MediaType.TEXT_MARKDOWN);
 		}
 		else {
@@ -103,14 +143,16 @@ public class EntryController {
 
 	@PostMapping(path = { "/entries", "/tenants/{tenantId}/entries" }, consumes = MediaType.TEXT_MARKDOWN_VALUE)
 	public ResponseEntity<Entry> postEntryFromMarkdown(@PathVariable(required = false) String tenantId,
-			@RequestBody String markdown, @AuthenticationPrincipal UserDetails userDetails,
-			UriComponentsBuilder builder) {
+			InputStream body, @RequestHeader HttpHeaders headers, @AuthenticationPrincipal UserDetails userDetails,
+			UriComponentsBuilder builder) throws IOException {
+		String markdown = this.readMarkdown(body, headers);
 		Instant now = this.instantSource.instant();
 		Author created = Author.builder().name(userDetails.getUsername()).date(now).build();
 		Long entryId = this.entryService.nextId(tenantId);
 		EntryKey entryKey = new EntryKey(entryId, tenantId);
 		Entry entry = this.entryParser.fromMarkdown(entryKey, markdown, created, created).build();
 		Entry saved = this.entryService.save(tenantId, entry);
+		this.evictResponse(entryKey);
 		String path = tenantId == null ? "/entries/{entryId:\\d+}" : "/tenants/{tenantId}/entries/{entryId:\\d+}";
 		return ResponseEntity
 			.created(builder.path(path)
@@ -121,17 +163,67 @@ public class EntryController {
 	@PutMapping(path = { "/entries/{entryId:\\d+}", "/tenants/{tenantId}/entries/{entryId:\\d+}" },
 			consumes = MediaType.TEXT_MARKDOWN_VALUE)
 	public ResponseEntity<Entry> putEntryFromMarkdown(@PathVariable Long entryId,
-			@PathVariable(required = false) String tenantId, @RequestBody String markdown,
-			@AuthenticationPrincipal UserDetails userDetails) {
+			@PathVariable(required = false) String tenantId, InputStream body, @RequestHeader HttpHeaders headers,
+			@AuthenticationPrincipal UserDetails userDetails) throws IOException {
+		String markdown = this.readMarkdown(body, headers);
 		EntryKey entryKey = new EntryKey(entryId, tenantId);
 		Instant now = this.instantSource.instant();
 		Author updated = Author.builder().name(userDetails.getUsername()).date(now).build();
 		Author created = this.entryService.findById(tenantId, entryKey).map(Entry::created).orElse(updated);
 		Entry entry = this.entryParser.fromMarkdown(entryKey, markdown, created, updated).build();
 		Entry saved = this.entryService.save(tenantId, entry);
+		this.evictResponse(entryKey);
 		return ResponseEntity.ok(saved);
 	}
 
+	/**
+	 * Creates, updates and deletes many entries at once. With direct update, all of them
+	 * end up in a single commit. Deleting requires the delete privilege in addition to
+	 * the edit privilege.
+	 */
+	@PostMapping(path = { "/entries/batch", "/tenants/{tenantId}/entries/batch" },
+			consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<Entry>> postEntriesBatch(@PathVariable(required = false) String tenantId,
+			@RequestBody EntryBatchRequest request, @AuthenticationPrincipal UserDetails userDetails) {
+		List<EntryKey> entryKeys = request.entries()
+			.stream()
+			.map(e -> new EntryKey(e.entryId(), tenantId))
+			.distinct()
+			.toList();
+		List<EntryKey> deletedEntryKeys = request.deletedEntryIds()
+			.stream()
+			.map(entryId -> new EntryKey(entryId, tenantId))
+			.distinct()
+			.toList();
+		if (entryKeys.size() != request.entries().size()) {
+			throw new ResponseStatusException(BAD_REQUEST, "Duplicate entry IDs in the batch");
+		}
+		if (entryKeys.stream().anyMatch(deletedEntryKeys::contains)) {
+			throw new ResponseStatusException(BAD_REQUEST, "Entries cannot be both saved and deleted in the batch");
+		}
+		Instant now = this.instantSource.instant();
+		Author updated = Author.builder().name(userDetails.getUsername()).date(now).build();
+		List<Entry> entries = request.entries().stream().map(e -> {
+			BoundedInputStream.checkContentLength(e.markdown().getBytes(StandardCharsets.UTF_8).length,
+					this.maxMarkdownSize);
+			EntryKey entryKey = new EntryKey(e.entryId(), tenantId);
+			Author created = this.entryService.findById(tenantId, entryKey).map(Entry::created).orElse(updated);
+			return this.entryParser.fromMarkdown(entryKey, e.markdown(), created, updated).build();
+		}).toList();
+		if (deletedEntryKeys.isEmpty()) {
+			this.entryService.saveAll(tenantId, entries);
+		}
+		else if (entries.isEmpty()) {
+			this.entryService.deleteAll(tenantId, deletedEntryKeys);
+		}
+		else {
+			this.entryService.saveAndDeleteAll(tenantId, entries, deletedEntryKeys);
+		}
+		entryKeys.forEach(this::evictResponse);
+		deletedEntryKeys.forEach(this::evictResponse);
+		return ResponseEntity.ok(entries);
+	}
+
 	@PatchMapping(path = { "/entries/{entryId:\\d+}/summary", "/tenants/{tenantId}/entries/{entryId:\\d+}/summary" },
 			consumes = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<?> patchEntrySummary(@PathVariable Long entryId,
@@ -141,6 +233,7 @@ public class EntryController {
 		Optional<Entry> entry = this.entryService.findById(tenantId, entryKey);
 		if (entry.isPresent()) {
 			this.entryService.updateSummary(tenantId, entryKey, request.summary());
+			this.evictResponse(entryKey);
 			return ResponseEntity.ok(entry.map(e -> e.toBuilder()
 				.frontMatter(e.frontMatter().toBuilder().summary(request.summary()).build())
 				.build()));
@@ -155,6 +248,7 @@ public class EntryController {
 			@PathVariable(required = false) String tenantId) {
 		EntryKey entryKey = new EntryKey(entryId, tenantId);
 		this.entryService.deleteById(tenantId, entryKey);
+		this.evictResponse(entryKey);
 		return ResponseEntity.noContent().build();
 	}
 
@@ -246,6 +340,71 @@ public class EntryController {
 			.body(mapper.apply(entry));
 	}
 
+	/**
+	 * Responds with the cached bytes of the entry. They are served without loading the
+	 * entry when its tenant has not been written to since they were cached; access to the
+	 * entry is then only checked by the request authorization of the path.
+	 */
+	@Nullable private ResponseEntity<?> cachedResponse(EntryResponseCache responseCache, @Nullable String tenantId,
+			EntryKey entryKey, WebRequest webRequest, EntryResponseCache.Format format, Function<Entry, byte[]> encoder,
+			MediaType mediaType) {
+		long version = responseCache.version(entryKey);
+		EntryResponseCache.EncodedResponse response = responseCache.getIfUnchanged(entryKey, format, version);
+		if (response == null) {
+			Optional<Entry> entry = this.entryService.findById(tenantId, entryKey);
+			if (entry.isEmpty()) {
+				return entryNotFound(entryKey);
+			}
+			response = responseCache.get(entry.get(), format, encoder, version);
+		}
+		this.entryHitCounter.increment(entryKey);
+		if (response.lastModified() >= 0 && webRequest.checkNotModified(response.lastModified())) {
+			return null;
+		}
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+			.cacheControl(CacheControl.maxAge(Duration.ofHours(1)))
+			.contentType(mediaType)
+			.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		byte[] gzipped = response.gzipped();
+		if (gzipped != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+			// the servlet container does not compress responses that already have a
+			// Content-Encoding
+			return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzipped);
+		}
+		return builder.body(response.identity());
+	}
+
+	static boolean acceptsGzip(@Nullable String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].strip();
+			if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+				return parts.length < 2 || !parts[1].strip().replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the markdown body, rejecting it as soon as it exceeds the configured limit.
+	 */
+	private String readMarkdown(InputStream body, HttpHeaders headers) throws IOException {
+		BoundedInputStream.checkContentLength(headers.getContentLength(), this.maxMarkdownSize);
+		MediaType contentType = headers.getContentType();
+		Charset charset = contentType != null && contentType.getCharset() != null ? contentType.getCharset()
+				: StandardCharsets.UTF_8;
+		return StreamUtils.copyToString(new BoundedInputStream(body, this.maxMarkdownSize), charset);
+	}
+
+	private void evictResponse(EntryKey entryKey) {
+		if (this.responseCache != null) {
+			this.responseCache.evict(entryKey);
+		}
+	}
+
 	private ResponseEntity<?> entryNotFound(EntryKey entryKey) {
 		return ResponseEntity.status(NOT_FOUND)
 			.body(ProblemDetail.forStatusAndDetail(NOT_FOUND, "Entry not found: " + entryKey));
@@ -255,4 +414,17 @@ public class EntryController {
 
 	}
 
+	public record EntryBatchRequest(List<EntryMarkdown> entries, List<Long> deletedEntryIds) {
+
+		public EntryBatchRequest(@Nullable List<EntryMarkdown> entries, @Nullable List<Long> deletedEntryIds) {
+			this.entries = Objects.requireNonNullElse(entries, List.of());
+			this.deletedEntryIds = Objects.requireNonNullElse(deletedEntryIds, List.of());
+		}
+
+	}
+
+	public record EntryMarkdown(Long entryId, String markdown) {
+
+	}
+
 }
@@ -0,0 +1,203 @@
+package am.ik.blog.entry.web;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.entry.ContentVersions;
+import am.ik.blog.entry.EntriesUpdatedEvent;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.EntryKey;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the encoded bytes of entry responses, both as is and gzipped, so that a request
+ * for a hot entry is answered without serializing or compressing it again.
+ * <p>
+ * A cached response is only served for an entry with the same {@code last_modified_date}
+ * and content hash as the one it was encoded from, so writes that do not change the
+ * modification date, such as summary updates through another node, are picked up too.
+ * With the {@code redis} profile, responses are also stamped with the tenant's
+ * {@link ContentVersions content version}. As every write bumps it, a response stamped
+ * with the current version is served without loading the entry at all. Writes through
+ * this node evict the entry just like the {@code entry} cache.
+ */
+@Component
+@ConditionalOnBooleanProperty("blog.response-cache.enabled")
+public class EntryResponseCache {
+
+	private final Map<Key, EncodedResponse> responses;
+
+	private final long maxEntrySize;
+
+	@Nullable private final ContentVersions contentVersions;
+
+	private final Logger logger = LoggerFactory.getLogger(EntryResponseCache.class);
+
+	public EntryResponseCache(BlogProps blogProps, ObjectProvider<ContentVersions> contentVersions) {
+		BlogProps.ResponseCache props = blogProps.getResponseCache();
+		int maxEntries = props.getMaxEntries();
+		this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, EncodedResponse> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		this.maxEntrySize = props.getMaxEntrySize().toBytes();
+		this.contentVersions = contentVersions.getIfAvailable();
+	}
+
+	/**
+	 * Returns the current content version of the entry's tenant, to be read before the
+	 * entry is loaded.
+	 * @param entryKey the key of the entry
+	 * @return the version, or {@code -1} if it is not known
+	 */
+	long version(EntryKey entryKey) {
+		if (this.contentVersions == null) {
+			return -1;
+		}
+		try {
+			return this.contentVersions.current(entryKey.tenantId());
+		}
+		catch (RuntimeException e) {
+			logger.warn("action=get_content_version entryKey={} message=\"{}\"", entryKey, e.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the encoded response of the entry if nothing in its tenant was written
+	 * since it was encoded.
+	 * @param entryKey the key of the entry
+	 * @param format the response format
+	 * @param version the current content version from {@link #version(EntryKey)}
+	 * @return the encoded response, or {@code null} if the entry has to be loaded
+	 */
+	@Nullable EncodedResponse getIfUnchanged(EntryKey entryKey, Format format, long version) {
+		if (version < 0) {
+			return null;
+		}
+		EncodedResponse cached;
+		synchronized (this.responses) {
+			cached = this.responses.get(new Key(entryKey, format));
+		}
+		return cached != null && cached.version() == version ? cached : null;
+	}
+
+	/**
+	 * Returns the encoded response of the entry, encoding and caching it on a miss.
+	 * @param entry the entry to respond with
+	 * @param format the response format
+	 * @param encoder encodes the entry in the given format
+	 * @param version the content version read before the entry was loaded
+	 * @return the encoded response
+	 */
+	EncodedResponse get(Entry entry, Format format, Function<Entry, byte[]> encoder, long version) {
+		Key key = new Key(entry.entryKey(), format);
+		Instant updated = entry.updated().date();
+		long lastModified = updated == null ? -1 : updated.toEpochMilli();
+		int contentHash = entry.hashCode();
+		EncodedResponse cached;
+		synchronized (this.responses) {
+			cached = this.responses.get(key);
+		}
+		if (cached != null && cached.lastModified() == lastModified && cached.contentHash() == contentHash) {
+			if (cached.version() != version) {
+				// still the same entry, so it can be served at this version without
+				// loading
+				cached = cached.withVersion(version);
+				this.put(key, cached);
+			}
+			return cached;
+		}
+		EncodedResponse encoded = EncodedResponse.encode(encoder.apply(entry), lastModified, contentHash, version);
+		if (encoded.identity().length <= this.maxEntrySize) {
+			this.put(key, encoded);
+		}
+		return encoded;
+	}
+
+	public void evict(EntryKey entryKey) {
+		synchronized (this.responses) {
+			for (Format format : Format.values()) {
+				this.responses.remove(new Key(entryKey, format));
+			}
+		}
+	}
+
+	@EventListener
+	public void onEntriesUpdated(EntriesUpdatedEvent event) {
+		event.entryKeys().forEach(this::evict);
+	}
+
+	int size() {
+		synchronized (this.responses) {
+			return this.responses.size();
+		}
+	}
+
+	private void put(Key key, EncodedResponse response) {
+		synchronized (this.responses) {
+			this.responses.put(key, response);
+		}
+	}
+
+	enum Format {
+
+		JSON, MARKDOWN
+
+	}
+
+	private record Key(EntryKey entryKey, Format format) {
+	}
+
+	/**
+	 * Encoded response body.
+	 *
+	 * @param identity the body as is
+	 * @param gzipped the gzipped body, or {@code null} if compression does not make it
+	 * smaller
+	 * @param lastModified modification date of the entry in epoch millis
+	 * @param contentHash hash code of the entry
+	 * @param version content version of the tenant the entry was loaded at, or {@code -1}
+	 * if not known
+	 */
+	record EncodedResponse(byte[] identity, byte @Nullable [] gzipped, long lastModified, int contentHash,
+			long version) {
+
+		static EncodedResponse encode(byte[] identity, long lastModified, int contentHash, long version) {
+			byte[] gzipped = gzip(identity);
+			return new EncodedResponse(identity, gzipped.length < identity.length ? gzipped : null, lastModified,
+					contentHash, version);
+		}
+
+		EncodedResponse withVersion(long version) {
+			return new EncodedResponse(this.identity, this.gzipped, this.lastModified, this.contentHash, version);
+		}
+
+		private static byte[] gzip(byte[] bytes) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3 + 64);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+				gzip.write(bytes);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return out.toByteArray();
+		}
+
+	}
+
+}
@@ -1,38 +1,43 @@
 package am.ik.blog.entry.web;
 
-import am.ik.blog.GitHubProps;
+import am.ik.blog.BlogProps;
 import am.ik.blog.entry.CacheNames;
+import am.ik.blog.entry.EntriesUpdatedEvent;
 import am.ik.blog.entry.Entry;
 import am.ik.blog.entry.EntryFetcher;
 import am.ik.blog.entry.EntryKey;
 import am.ik.blog.entry.EntryRepository;
+import am.ik.blog.github.GitHubTenants;
+import am.ik.blog.github.WebhookSignature;
 import am.ik.webhook.WebhookAuthenticationException;
-import am.ik.webhook.WebhookVerifier;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
-import tools.jackson.databind.JsonNode;
+import org.springframework.util.StreamUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.json.JsonMapper;
 
 import static am.ik.webhook.WebhookHttpHeaders.X_HUB_SIGNATURE_256;
-import static java.util.stream.Collectors.toUnmodifiableMap;
 
 @RestController
 public class WebhookController {
@@ -41,71 +46,96 @@ public class WebhookController {
 
 	private final EntryRepository entryRepository;
 
-	private final WebhookVerifier webhookVerifier;
+	private final GitHubTenants gitHubTenants;
 
-	private final Map<String, WebhookVerifier> tenantsWebhookVerifier;
+	private final long maxPayloadSize;
 
 	private final JsonMapper jsonMapper;
 
 	@Nullable private final CacheManager cacheManager;
 
+	private final ApplicationEventPublisher eventPublisher;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
-	public WebhookController(GitHubProps props, EntryFetcher entryFetcher, EntryRepository entryRepository,
-			JsonMapper jsonMapper, ObjectProvider<CacheManager> cacheManager) {
+	public WebhookController(GitHubTenants gitHubTenants, BlogProps blogProps, EntryFetcher entryFetcher,
+			EntryRepository entryRepository, JsonMapper jsonMapper, ObjectProvider<CacheManager> cacheManager,
+			ApplicationEventPublisher eventPublisher) {
 		this.entryFetcher = entryFetcher;
 		this.entryRepository = entryRepository;
-		this.webhookVerifier = WebhookVerifier.gitHubSha256(props.getWebhookSecret());
-		this.tenantsWebhookVerifier = props.getTenants()
-			.entrySet()
-			.stream()
-			.collect(toUnmodifiableMap(Map.Entry::getKey,
-					e -> WebhookVerifier.gitHubSha256(e.getValue().getWebhookSecret())));
+		this.gitHubTenants = gitHubTenants;
+		this.maxPayloadSize = blogProps.getIngest().getMaxWebhookPayloadSize().toBytes();
 		this.jsonMapper = jsonMapper;
 		this.cacheManager = cacheManager.getIfAvailable();
+		this.eventPublisher = eventPublisher;
 	}
 
+	/**
+	 * Verifies and parses the payload in a single pass over the request body. The body is
+	 * neither buffered nor turned into a tree; only the repository name and the changed
+	 * paths are kept. Entries are synced only after the whole body has been read and its
+	 * signature has been verified.
+	 */
 	@PostMapping(path = { "/webhook", "/tenants/{tenantId}/webhook" })
 	public ResponseEntity<?> webhook(@RequestHeader(name = X_HUB_SIGNATURE_256) String signature,
-			@RequestBody String payload, @PathVariable(required = false) String tenantId) {
-		WebhookVerifier verifier = tenantId == null ? this.webhookVerifier
-				: this.tenantsWebhookVerifier.getOrDefault(tenantId, this.webhookVerifier);
+			@RequestHeader HttpHeaders headers, InputStream body, @PathVariable(required = false) String tenantId)
+			throws IOException {
+		BoundedInputStream.checkContentLength(headers.getContentLength(), this.maxPayloadSize);
+		WebhookSignature webhookSignature = this.gitHubTenants.find(tenantId)
+			.orElseGet(this.gitHubTenants::defaultTenant)
+			.webhookSignature();
+		WebhookSignature.SigningInputStream signedBody = webhookSignature
+			.sign(new BoundedInputStream(body, this.maxPayloadSize));
+		WebhookPayload payload = null;
+		try (JsonParser parser = this.jsonMapper.createParser(StreamUtils.nonClosing(signedBody))) {
+			payload = WebhookPayload.parse(parser);
+		}
+		catch (JacksonException e) {
+			logger.info("action=parse_webhook_payload tenantId={} message=\"{}\"", tenantId, e.getOriginalMessage());
+		}
+		// the signature covers the whole body including anything after the parsed value
+		StreamUtils.drain(signedBody);
 		try {
-			verifier.verify(payload, signature);
+			webhookSignature.verify(signedBody, signature);
 		}
 		catch (WebhookAuthenticationException e) {
 			return ResponseEntity.badRequest()
 				.body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid signature: " + signature));
 		}
-		return this.processWebhook(payload, tenantId)
+		return Optional.ofNullable(payload)
+			.flatMap(p -> this.processWebhook(p, tenantId))
 			.<ResponseEntity<?>>map(ResponseEntity::ok)
 			.orElseGet(() -> ResponseEntity.badRequest()
-				.body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid payload: " + payload)));
+				.body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Invalid payload")));
 	}
 
-	Optional<List<Map<String, EntryKey>>> processWebhook(String payload, @Nullable String tenantId) {
-		final JsonNode node = this.jsonMapper.readValue(payload, JsonNode.class);
-		final String[] repository = node.get("repository").get("full_name").asText().split("/", 2);
-		final String owner = repository[0];
-		final String repo = repository[1];
-		if (!node.has("commits")) {
+	Optional<List<Map<String, EntryKey>>> processWebhook(WebhookPayload payload, @Nullable String tenantId) {
+		final String owner = payload.owner();
+		final String repo = payload.repo();
+		final List<WebhookPayload.Commit> commits = payload.commits();
+		if (commits == null) {
 			return Optional.empty();
 		}
-		final Stream<JsonNode> commits = StreamSupport.stream(node.get("commits").spliterator(), false);
+		if (payload.isOtherRef()) {
+			logger.info("action=skip_webhook tenantId={} reason=not_default_branch owner={} repo={} ref={}", tenantId,
+					owner, repo, payload.ref());
+			return Optional.of(List.of());
+		}
+		// commits can only be read at their SHA once they are known to be on the default
+		// branch, otherwise the head of the default branch is read
+		final boolean defaultBranch = payload.isDefaultBranch();
 		final List<Map<String, EntryKey>> result = new ArrayList<>();
 		final List<EntryKey> updatedEntries = new ArrayList<>();
 		commits.forEach(commit -> {
 			Stream.of("added", "modified").forEach(key -> {
-				this.paths(commit.get(key)).forEach(path -> {
-					Optional<Entry> fetch = this.entryFetcher.fetch(tenantId, owner, repo, path);
-					fetch.ifPresent(entry -> {
+				this.entryFetcher.fetchAll(tenantId, owner, repo, defaultBranch ? commit.id() : null, commit.paths(key))
+					.forEach(entry -> {
 						result.add(Map.of(key, entry.entryKey()));
 						this.entryRepository.save(entry);
 						updatedEntries.add(entry.entryKey());
 					});
-				});
 			});
-			this.paths(commit.get("removed")).forEach(path -> {
+			commit.paths("removed").forEach(path -> {
 				Optional<EntryKey> fetch = this.entryFetcher.fetch(tenantId, owner, repo, path).map(Entry::entryKey);
 				fetch.ifPresent(entryKey -> {
 					result.add(Map.of("removed", entryKey));
@@ -129,11 +159,11 @@ public class WebhookController {
 				latestEntriesCache.evict(key);
 			}
 		}
+		if (!updatedEntries.isEmpty()) {
+			this.eventPublisher
+				.publishEvent(new EntriesUpdatedEvent(EntryKey.requireNonNullTenantId(tenantId), updatedEntries));
+		}
 		return Optional.of(result);
 	}
 
-	Stream<String> paths(JsonNode paths) {
-		return StreamSupport.stream(paths.spliterator(), false).map(JsonNode::asText);
-	}
-
 }
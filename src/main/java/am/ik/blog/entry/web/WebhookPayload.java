@@ -0,0 +1,174 @@
+package am.ik.blog.entry.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+/**
+ * The parts of a GitHub push event that are needed to sync entries. They are read from
+ * the token stream, skipping everything else, so that the size of the payload does not
+ * translate into a tree of the same size.
+ *
+ * @param owner owner of the repository
+ * @param repo name of the repository
+ * @param ref the pushed ref, e.g. {@code refs/heads/main}, or {@code null} if the event
+ * does not carry it
+ * @param defaultBranch default branch of the repository, or {@code null} if the event
+ * does not carry it
+ * @param commits pushed commits, or {@code null} if the event has none (e.g. a ping)
+ */
+record WebhookPayload(String owner, String repo, @Nullable String ref, @Nullable String defaultBranch,
+		@Nullable List<Commit> commits) {
+
+	/**
+	 * Whether the push is known to update the default branch, so that the pushed commits
+	 * are what is published.
+	 */
+	boolean isDefaultBranch() {
+		return this.ref != null && this.defaultBranch != null && this.ref.equals("refs/heads/" + this.defaultBranch);
+	}
+
+	/**
+	 * Whether the push is known to update another ref, such as a draft branch or a tag,
+	 * whose content is not published.
+	 */
+	boolean isOtherRef() {
+		return this.ref != null && this.defaultBranch != null && !this.isDefaultBranch();
+	}
+
+	/**
+	 * Reads the payload from the parser.
+	 * @param parser parser positioned before the root object
+	 * @return the payload, or {@code null} if the event has no repository full name
+	 */
+	static @Nullable WebhookPayload parse(JsonParser parser) {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			return null;
+		}
+		Repository repository = null;
+		String ref = null;
+		List<Commit> commits = null;
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if ("repository".equals(name) && token == JsonToken.START_OBJECT) {
+				repository = readRepository(parser);
+			}
+			else if ("ref".equals(name) && token == JsonToken.VALUE_STRING) {
+				ref = parser.getString();
+			}
+			else if ("commits".equals(name) && token == JsonToken.START_ARRAY) {
+				commits = readCommits(parser);
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		String fullName = repository == null ? null : repository.fullName();
+		if (fullName == null || !fullName.contains("/")) {
+			return null;
+		}
+		String[] ownerAndRepo = fullName.split("/", 2);
+		return new WebhookPayload(ownerAndRepo[0], ownerAndRepo[1], ref, repository.defaultBranch(), commits);
+	}
+
+	private static Repository readRepository(JsonParser parser) {
+		String fullName = null;
+		String defaultBranch = null;
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if ("full_name".equals(name) && token == JsonToken.VALUE_STRING) {
+				fullName = parser.getString();
+			}
+			else if ("default_branch".equals(name) && token == JsonToken.VALUE_STRING) {
+				defaultBranch = parser.getString();
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		return new Repository(fullName, defaultBranch);
+	}
+
+	private static List<Commit> readCommits(JsonParser parser) {
+		List<Commit> commits = new ArrayList<>();
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+			if (token == JsonToken.START_OBJECT) {
+				commits.add(readCommit(parser));
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		return commits;
+	}
+
+	private static Commit readCommit(JsonParser parser) {
+		String id = null;
+		List<String> added = List.of();
+		List<String> modified = List.of();
+		List<String> removed = List.of();
+		while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+			String name = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if ("id".equals(name) && token == JsonToken.VALUE_STRING) {
+				id = parser.getString();
+				continue;
+			}
+			if (token != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+			switch (name) {
+				case "added" -> added = readPaths(parser);
+				case "modified" -> modified = readPaths(parser);
+				case "removed" -> removed = readPaths(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		return new Commit(id, added, modified, removed);
+	}
+
+	private static List<String> readPaths(JsonParser parser) {
+		List<String> paths = new ArrayList<>();
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+			if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+				paths.add(parser.getString());
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+		return paths;
+	}
+
+	private record Repository(@Nullable String fullName, @Nullable String defaultBranch) {
+	}
+
+	/**
+	 * Paths changed by a commit.
+	 *
+	 * @param id SHA of the commit, or {@code null} if the event does not carry it
+	 * @param added added paths
+	 * @param modified modified paths
+	 * @param removed removed paths
+	 */
+	record Commit(@Nullable String id, List<String> added, List<String> modified, List<String> removed) {
+
+		List<String> paths(String key) {
+			return switch (key) {
+				case "added" -> this.added;
+				case "modified" -> this.modified;
+				case "removed" -> this.removed;
+				default -> throw new IllegalArgumentException("Unknown key: " + key);
+			};
+		}
+
+	}
+
+}
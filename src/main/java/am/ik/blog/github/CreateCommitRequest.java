@@ -0,0 +1,13 @@
+package am.ik.blog.github;
+
+import java.util.List;
+
+/**
+ * Request DTO for creating a commit via GitHub Git Data API.
+ *
+ * @param message commit message
+ * @param tree SHA of the tree of the commit
+ * @param parents SHAs of the parent commits
+ */
+public record CreateCommitRequest(String message, String tree, List<String> parents) {
+}
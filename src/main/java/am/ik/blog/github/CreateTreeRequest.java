@@ -0,0 +1,58 @@
+package am.ik.blog.github;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Request DTO for creating a tree via GitHub Git Data API. Paths not listed in
+ * {@code tree} are taken from {@code baseTree}.
+ *
+ * @param baseTree SHA of the tree to apply the entries on
+ * @param tree entries to add, replace or delete
+ */
+public record CreateTreeRequest(@JsonProperty("base_tree") String baseTree, List<Entry> tree) {
+
+	public sealed interface Entry permits Content, Deletion {
+
+		String path();
+
+		static Entry file(String path, String content) {
+			return new Content(path, "100644", "blob", content);
+		}
+
+		static Entry deletion(String path) {
+			return new Deletion(path, "100644", "blob", null);
+		}
+
+	}
+
+	/**
+	 * A file whose blob is created from the given content, so that no separate blob
+	 * request is needed.
+	 *
+	 * @param path path of the file relative to the root of the tree
+	 * @param mode file mode
+	 * @param type object type
+	 * @param content UTF-8 content of the file
+	 */
+	public record Content(String path, String mode, String type, String content) implements Entry {
+
+	}
+
+	/**
+	 * A file removed from the base tree. GitHub deletes a path whose {@code sha} is
+	 * explicitly {@code null}, so it is serialized even though it is always null.
+	 *
+	 * @param path path of the file relative to the root of the tree
+	 * @param mode file mode
+	 * @param type object type
+	 * @param sha always {@code null}
+	 */
+	public record Deletion(String path, String mode, String type,
+			@JsonInclude(JsonInclude.Include.ALWAYS) @Nullable String sha) implements Entry {
+
+	}
+
+}
@@ -10,11 +10,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.DeleteExchange;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PatchExchange;
+import org.springframework.web.service.annotation.PostExchange;
 import org.springframework.web.service.annotation.PutExchange;
 
 @HttpExchange(url = "/repos/{owner}/{repo}")
 public interface GitHubClient {
 
+	@GetExchange
+	ResponseEntity<Repository> getRepository(@PathVariable("owner") String owner, @PathVariable("repo") String repo);
+
 	@GetExchange(url = "/contents/{path}")
 	ResponseEntity<@NonNull File> getFile(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
 			@PathVariable("path") String path);
@@ -38,4 +43,28 @@ public interface GitHubClient {
 			@PathVariable("repo") String repo, @PathVariable("path") String path,
 			@RequestBody DeleteFileRequest request);
 
+	@GetExchange(url = "/git/ref/heads/{branch}")
+	ResponseEntity<Reference> getBranch(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@PathVariable("branch") String branch);
+
+	@GetExchange(url = "/git/commits/{sha}")
+	ResponseEntity<GitCommit> getGitCommit(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@PathVariable("sha") String sha);
+
+	@GetExchange(url = "/git/trees/{sha}")
+	ResponseEntity<Tree> getTree(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@PathVariable("sha") String sha);
+
+	@PostExchange(url = "/git/trees")
+	ResponseEntity<Tree> createTree(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@RequestBody CreateTreeRequest request);
+
+	@PostExchange(url = "/git/commits")
+	ResponseEntity<GitCommit> createGitCommit(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@RequestBody CreateCommitRequest request);
+
+	@PatchExchange(url = "/git/refs/heads/{branch}")
+	ResponseEntity<Reference> updateBranch(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@PathVariable("branch") String branch, @RequestBody UpdateReferenceRequest request);
+
 }
@@ -0,0 +1,12 @@
+package am.ik.blog.github;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.PostExchange;
+
+public interface GitHubGraphQLClient {
+
+	@PostExchange(url = "/graphql")
+	ResponseEntity<GraphQLResponse> query(@RequestBody GraphQLRequest request);
+
+}
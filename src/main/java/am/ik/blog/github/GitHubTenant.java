@@ -0,0 +1,18 @@
+package am.ik.blog.github;
+
+/**
+ * Everything needed to talk to GitHub on behalf of a tenant, resolved once so that
+ * callers do not have to look up clients or properties per request.
+ *
+ * @param tenantId id of the tenant, {@code "_"} for the default one
+ * @param owner owner of the content repository
+ * @param repo name of the content repository
+ * @param client REST API client authenticated for the tenant
+ * @param graphQLClient GraphQL API client authenticated for the tenant
+ * @param userContentClient raw content client authenticated for the tenant
+ * @param webhookSignature verifier of the webhooks sent for the tenant
+ */
+public record GitHubTenant(String tenantId, String owner, String repo, GitHubClient client,
+		GitHubGraphQLClient graphQLClient, GitHubUserContentClient userContentClient,
+		WebhookSignature webhookSignature) {
+}
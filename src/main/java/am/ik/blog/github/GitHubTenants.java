@@ -0,0 +1,163 @@
+package am.ik.blog.github;
+
+import am.ik.blog.GitHubProps;
+import am.ik.blog.entry.EntryKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+/**
+ * Holds the {@link GitHubTenant} of the default tenant, of every configured tenant and of
+ * every tenant provisioned at runtime. The map is immutable and replaced as a whole by
+ * {@link #refresh()}, so lookups do not need any locking.
+ * <p>
+ * Configured tenants use the clients of their HTTP service groups. Tenants provisioned at
+ * runtime have no groups, so their clients are created by the {@link ClientFactory}
+ * instead, and kept as long as their settings do not change so that connections and
+ * cached responses survive a refresh.
+ */
+@Component
+public class GitHubTenants {
+
+	private final GitHubProps props;
+
+	private final HttpServiceProxyRegistry registry;
+
+	private final ClientFactory clientFactory;
+
+	private volatile Map<String, GitHubTenant> tenants = Map.of();
+
+	// guarded by this
+	private Map<String, GitHubProps> registeredTenants = Map.of();
+
+	// guarded by this
+	private Map<String, CreatedTenant> createdTenants = Map.of();
+
+	private final Logger logger = LoggerFactory.getLogger(GitHubTenants.class);
+
+	public GitHubTenants(GitHubProps props, HttpServiceProxyRegistry registry, ClientFactory clientFactory) {
+		this.props = props;
+		this.registry = registry;
+		this.clientFactory = clientFactory;
+		this.tenants = this.resolve();
+	}
+
+	/**
+	 * Returns the tenant.
+	 * @param tenantId id of the tenant, {@code null} or {@code "_"} for the default one
+	 * @throws IllegalArgumentException if the tenant is not configured
+	 */
+	public GitHubTenant get(@Nullable String tenantId) {
+		return this.find(tenantId).orElseThrow(() -> new IllegalArgumentException("Unknown tenant: " + tenantId));
+	}
+
+	public Optional<GitHubTenant> find(@Nullable String tenantId) {
+		return Optional
+			.ofNullable(this.tenants.get(EntryKey.isDefaultTenant(tenantId) ? EntryKey.DEFAULT_TENANT_ID : tenantId));
+	}
+
+	public GitHubTenant defaultTenant() {
+		return this.get(null);
+	}
+
+	/**
+	 * Returns the ids of the default, configured and registered tenants.
+	 */
+	public Set<String> tenantIds() {
+		return this.tenants.keySet();
+	}
+
+	/**
+	 * Resolves the tenants again from the current properties. Tenants whose HTTP service
+	 * groups are not registered are skipped.
+	 */
+	public synchronized void refresh() {
+		this.tenants = this.resolve();
+		logger.info("action=refresh_github_tenants tenants={}", this.tenants.keySet());
+	}
+
+	/**
+	 * Replaces the tenants provisioned at runtime and resolves the tenants again. They
+	 * take precedence over the configured tenants with the same id.
+	 * @param registeredTenants properties of the tenants by id
+	 */
+	public synchronized void refresh(Map<String, GitHubProps> registeredTenants) {
+		this.registeredTenants = Map.copyOf(registeredTenants);
+		this.refresh();
+	}
+
+	private Map<String, GitHubTenant> resolve() {
+		Map<String, GitHubTenant> tenants = new LinkedHashMap<>();
+		tenants.put(EntryKey.DEFAULT_TENANT_ID, this.resolve(EntryKey.DEFAULT_TENANT_ID, "", this.props));
+		this.props.getTenants().forEach((tenantId, tenantProps) -> {
+			try {
+				tenants.put(tenantId, this.resolve(tenantId, ".%s".formatted(tenantId), tenantProps));
+			}
+			catch (IllegalArgumentException e) {
+				logger.warn("action=resolve_github_tenant tenantId={} message=\"{}\"", tenantId, e.getMessage());
+			}
+		});
+		Map<String, CreatedTenant> createdTenants = new LinkedHashMap<>();
+		this.registeredTenants.forEach((tenantId, tenantProps) -> {
+			if (EntryKey.isDefaultTenant(tenantId)) {
+				logger.warn(
+						"action=resolve_github_tenant tenantId={} message=\"The default tenant cannot be replaced\"",
+						tenantId);
+				return;
+			}
+			Settings settings = Settings.of(tenantProps);
+			CreatedTenant created = this.createdTenants.get(tenantId);
+			if (created == null || !created.settings().equals(settings)) {
+				try {
+					created = new CreatedTenant(settings, this.clientFactory.create(tenantId, tenantProps));
+				}
+				catch (RuntimeException e) {
+					logger.warn("action=create_github_tenant tenantId={} message=\"{}\"", tenantId, e.getMessage());
+					return;
+				}
+			}
+			createdTenants.put(tenantId, created);
+			tenants.put(tenantId, created.tenant());
+		});
+		this.createdTenants = createdTenants;
+		return Map.copyOf(tenants);
+	}
+
+	private GitHubTenant resolve(String tenantId, String groupSuffix, GitHubProps tenantProps) {
+		return new GitHubTenant(tenantId, tenantProps.getContentOwner(), tenantProps.getContentRepo(),
+				this.registry.getClient("github" + groupSuffix, GitHubClient.class),
+				this.registry.getClient("github" + groupSuffix, GitHubGraphQLClient.class),
+				this.registry.getClient("githubusercontent" + groupSuffix, GitHubUserContentClient.class),
+				new WebhookSignature(tenantProps.getWebhookSecret()));
+	}
+
+	/**
+	 * Creates the {@link GitHubTenant} of a tenant that has no HTTP service groups.
+	 */
+	@FunctionalInterface
+	public interface ClientFactory {
+
+		GitHubTenant create(String tenantId, GitHubProps props);
+
+	}
+
+	private record Settings(String contentOwner, String contentRepo, String accessToken, String webhookSecret) {
+
+		static Settings of(GitHubProps props) {
+			return new Settings(props.getContentOwner(), props.getContentRepo(), props.getAccessToken(),
+					props.getWebhookSecret());
+		}
+
+	}
+
+	private record CreatedTenant(Settings settings, GitHubTenant tenant) {
+
+	}
+
+}
@@ -5,11 +5,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.HttpExchange;
 
-@HttpExchange(url = "/repos/{owner}/{repo}/{branch}")
+@HttpExchange(url = "/{owner}/{repo}/{ref}")
 public interface GitHubUserContentClient {
 
 	@GetExchange(url = "/{path}")
-	ResponseEntity<String> getContent(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
-			@PathVariable("branch") String branch, @PathVariable("path") String path);
+	ResponseEntity<byte[]> getContent(@PathVariable("owner") String owner, @PathVariable("repo") String repo,
+			@PathVariable("ref") String ref, @PathVariable("path") String path);
 
 }
@@ -0,0 +1,6 @@
+package am.ik.blog.github;
+
+import java.util.Map;
+
+public record GraphQLRequest(String query, Map<String, Object> variables) {
+}
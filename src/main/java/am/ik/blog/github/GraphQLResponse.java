@@ -0,0 +1,12 @@
+package am.ik.blog.github;
+
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+import tools.jackson.databind.JsonNode;
+
+public record GraphQLResponse(@Nullable JsonNode data, @Nullable List<Error> errors) {
+
+	public record Error(String message) {
+	}
+
+}
@@ -0,0 +1,14 @@
+package am.ik.blog.github;
+
+/**
+ * A Git reference such as {@code refs/heads/main}.
+ *
+ * @param ref fully qualified name of the reference
+ * @param object the object the reference points to
+ */
+public record Reference(String ref, Reference.Target object) {
+
+	public record Target(String sha, String type) {
+	}
+
+}
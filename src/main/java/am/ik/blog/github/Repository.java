@@ -0,0 +1,7 @@
+package am.ik.blog.github;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record Repository(String name, @JsonProperty("full_name") String fullName,
+		@JsonProperty("default_branch") String defaultBranch) {
+}
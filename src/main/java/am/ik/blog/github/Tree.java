@@ -1,4 +1,24 @@
 package am.ik.blog.github;
 
-public record Tree(String sha, String url) {
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Git tree. {@code tree} lists the direct children when the tree was fetched, and is
+ * absent in the response to creating a tree.
+ */
+public record Tree(String sha, String url, @Nullable List<Item> tree) {
+
+	/**
+	 * A child of a tree.
+	 *
+	 * @param path name of the child relative to the tree
+	 * @param mode file mode
+	 * @param type {@code blob} for a file, {@code tree} for a directory
+	 * @param sha SHA of the object
+	 */
+	public record Item(String path, String mode, String type, String sha) {
+
+	}
+
 }
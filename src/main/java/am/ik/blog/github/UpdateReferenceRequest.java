@@ -0,0 +1,10 @@
+package am.ik.blog.github;
+
+/**
+ * Request DTO for moving a reference via GitHub Git Data API.
+ *
+ * @param sha SHA of the commit to point to
+ * @param force whether to allow an update that is not a fast-forward
+ */
+public record UpdateReferenceRequest(String sha, boolean force) {
+}
@@ -0,0 +1,101 @@
+package am.ik.blog.github;
+
+import am.ik.webhook.WebhookAuthenticationException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Verifies GitHub's {@code X-Hub-Signature-256} header against a request body while the
+ * body is being read, so that the body does not have to be buffered before it is parsed.
+ */
+public class WebhookSignature {
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final String PREFIX = "sha256=";
+
+	private final SecretKeySpec key;
+
+	public WebhookSignature(String secret) {
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+	}
+
+	/**
+	 * Wraps the body so that every byte read from it is signed.
+	 * @param body the request body
+	 * @return the signing stream
+	 */
+	public SigningInputStream sign(InputStream body) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(this.key);
+			return new SigningInputStream(body, mac);
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Compares the signature of everything read from the stream with the given one.
+	 * @param body the signing stream, read to the end
+	 * @param signature the value of the signature header
+	 * @throws WebhookAuthenticationException if the signatures do not match
+	 */
+	public void verify(SigningInputStream body, String signature) {
+		byte[] expected = (PREFIX + HexFormat.of().formatHex(body.mac.doFinal())).getBytes(StandardCharsets.US_ASCII);
+		if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+			throw new WebhookAuthenticationException("Could not verify signature: '" + signature + "'");
+		}
+	}
+
+	public static class SigningInputStream extends FilterInputStream {
+
+		private final Mac mac;
+
+		SigningInputStream(InputStream in, Mac mac) {
+			super(in);
+			this.mac = mac;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				this.mac.update((byte) b);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				this.mac.update(b, off, n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			// skipped bytes must be signed as well
+			byte[] buffer = new byte[(int) Math.min(n, 8192)];
+			int read = this.read(buffer, 0, buffer.length);
+			return Math.max(read, 0);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+	}
+
+}
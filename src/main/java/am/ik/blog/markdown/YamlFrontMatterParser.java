@@ -2,17 +2,29 @@ package am.ik.blog.markdown;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 
 /**
  * Parses markdown content with YAML front matter.
+ * <p>
+ * The front matter is delimited by {@code ---} lines at the beginning of the document,
+ * which are found by scanning for line breaks instead of matching the whole document
+ * against a regular expression. {@link Yaml} instances are not thread-safe but expensive
+ * to create, so they are pooled; a thread-local would not help since requests run on
+ * virtual threads.
  */
-class YamlFrontMatterParser {
+public class YamlFrontMatterParser {
 
-	private static final Pattern FRONTMATTER_PATTERN = Pattern.compile("^---\\r?\\n(.*?)\\r?\\n---\\r?\\n(.*?)$",
-			Pattern.DOTALL);
+	private static final String DELIMITER = "---";
+
+	private static final LoaderOptions loaderOptions = new LoaderOptions();
+
+	private static final BlockingQueue<Yaml> yamlPool = new ArrayBlockingQueue<>(
+			Math.max(4, Runtime.getRuntime().availableProcessors()));
 
 	/**
 	 * Result of parsing markdown with YAML front matter.
@@ -44,25 +56,72 @@ class YamlFrontMatterParser {
 	 * @return parse result containing front matter and content
 	 */
 	public static ParseResult parse(String markdown) {
-		Matcher matcher = FRONTMATTER_PATTERN.matcher(markdown);
-
-		if (matcher.matches()) {
-			String yamlContent = matcher.group(1);
-			String markdownContent = matcher.group(2);
+		int yamlStart = lineBreakEnd(markdown, DELIMITER.length());
+		if (!markdown.startsWith(DELIMITER) || yamlStart < 0) {
+			return new ParseResult(new HashMap<>(), markdown.trim());
+		}
+		int from = yamlStart;
+		int newline;
+		while ((newline = markdown.indexOf("\n" + DELIMITER, from)) >= 0) {
+			int contentStart = lineBreakEnd(markdown, newline + 1 + DELIMITER.length());
+			if (contentStart >= 0) {
+				int yamlEnd = (newline > yamlStart && markdown.charAt(newline - 1) == '\r') ? newline - 1 : newline;
+				Map<String, Object> frontMatter = parseYaml(markdown.substring(yamlStart, yamlEnd));
+				return new ParseResult(frontMatter, normalizeContent(markdown, contentStart));
+			}
+			from = newline + 1;
+		}
+		return new ParseResult(new HashMap<>(), markdown.trim());
+	}
 
-			// Normalize line endings and trim
-			markdownContent = markdownContent.replaceAll("\\r\\n", "\\n").trim();
+	/**
+	 * Returns the index after the line break at the given index, or {@code -1} if there
+	 * is none.
+	 */
+	private static int lineBreakEnd(String s, int index) {
+		if (index < s.length() && s.charAt(index) == '\n') {
+			return index + 1;
+		}
+		if (index + 1 < s.length() && s.charAt(index) == '\r' && s.charAt(index + 1) == '\n') {
+			return index + 2;
+		}
+		return -1;
+	}
 
-			Map<String, Object> frontMatter = parseYaml(yamlContent);
-			return new ParseResult(frontMatter, markdownContent);
+	/**
+	 * Trims the content and normalizes its line endings to {@code \n}, copying it once.
+	 */
+	private static String normalizeContent(String markdown, int start) {
+		int end = markdown.length();
+		while (start < end && markdown.charAt(start) <= ' ') {
+			start++;
 		}
-		else {
-			return new ParseResult(new HashMap<>(), markdown.trim());
+		while (end > start && markdown.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int cr = markdown.indexOf("\r\n", start);
+		if (cr < 0 || cr >= end) {
+			return markdown.substring(start, end);
 		}
+		StringBuilder content = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			char c = markdown.charAt(i);
+			if (c != '\r' || i + 1 >= end || markdown.charAt(i + 1) != '\n') {
+				content.append(c);
+			}
+		}
+		return content.toString();
 	}
 
 	private static Map<String, Object> parseYaml(String yaml) {
-		return new Yaml().load(yaml);
+		Yaml loader = yamlPool.poll();
+		if (loader == null) {
+			loader = new Yaml(loaderOptions);
+		}
+		Map<String, Object> frontMatter = loader.load(yaml);
+		// only reuse instances that completed loading
+		yamlPool.offer(loader);
+		return Objects.requireNonNullElseGet(frontMatter, HashMap::new);
 	}
 
-}
\ No newline at end of file
+}
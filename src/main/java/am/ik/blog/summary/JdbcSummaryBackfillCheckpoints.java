@@ -0,0 +1,58 @@
+package am.ik.blog.summary;
+
+import java.time.InstantSource;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+@Component
+class JdbcSummaryBackfillCheckpoints implements SummaryBackfillCheckpoints {
+
+	static final String JOB_NAME = "summary_backfill";
+
+	private final JdbcClient jdbcClient;
+
+	private final InstantSource instantSource;
+
+	JdbcSummaryBackfillCheckpoints(JdbcClient jdbcClient, InstantSource instantSource) {
+		this.jdbcClient = jdbcClient;
+		this.instantSource = instantSource;
+	}
+
+	@Override
+	public Optional<Long> load(String tenantId) {
+		return this.jdbcClient
+			.sql("SELECT last_entry_id FROM batch_checkpoint WHERE job_name = :jobName AND tenant_id = :tenantId")
+			.param("jobName", JOB_NAME)
+			.param("tenantId", tenantId)
+			.query(Long.class)
+			.optional();
+	}
+
+	@Override
+	public void save(String tenantId, long lastEntryId) {
+		this.jdbcClient.sql("""
+				INSERT INTO batch_checkpoint (job_name, tenant_id, last_entry_id, last_modified_date)
+				VALUES (:jobName, :tenantId, :lastEntryId, :lastModifiedDate)
+				ON CONFLICT (job_name, tenant_id)
+				DO UPDATE SET
+				    last_entry_id = EXCLUDED.last_entry_id,
+				    last_modified_date = EXCLUDED.last_modified_date
+				""".trim())
+			.param("jobName", JOB_NAME)
+			.param("tenantId", tenantId)
+			.param("lastEntryId", lastEntryId)
+			.param("lastModifiedDate", this.instantSource.instant().atOffset(ZoneOffset.UTC))
+			.update();
+	}
+
+	@Override
+	public void delete(String tenantId) {
+		this.jdbcClient.sql("DELETE FROM batch_checkpoint WHERE job_name = :jobName AND tenant_id = :tenantId")
+			.param("jobName", JOB_NAME)
+			.param("tenantId", tenantId)
+			.update();
+	}
+
+}
@@ -0,0 +1,158 @@
+package am.ik.blog.summary;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Splits markdown into chunks that fit a token budget, preferring heading boundaries. A
+ * section that exceeds the budget on its own is split at blank lines, then at line
+ * breaks, and only as a last resort within a line. Headings inside fenced code blocks are
+ * not treated as boundaries.
+ * <p>
+ * Tokens are estimated rather than counted: one token per four ASCII characters and one
+ * per other character, which errs on the safe side for Japanese text.
+ */
+final class MarkdownChunker {
+
+	private MarkdownChunker() {
+	}
+
+	static int estimateTokens(CharSequence text) {
+		int ascii = 0;
+		int other = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) < 0x80) {
+				ascii++;
+			}
+			else {
+				other++;
+			}
+		}
+		return (ascii + 3) / 4 + other;
+	}
+
+	/**
+	 * Splits the markdown into chunks of at most {@code maxTokens} estimated tokens.
+	 * Consecutive sections are packed into one chunk as long as they fit.
+	 * @param markdown the markdown to split
+	 * @param maxTokens the budget of a chunk
+	 * @return the chunks in document order
+	 */
+	static List<String> split(String markdown, int maxTokens) {
+		List<String> chunks = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		for (String section : sections(markdown)) {
+			for (String piece : fit(section, maxTokens, Level.PARAGRAPH)) {
+				if (!current.isEmpty() && estimateTokens(current) + estimateTokens(piece) > maxTokens) {
+					addChunk(chunks, current);
+					current.setLength(0);
+				}
+				current.append(piece);
+			}
+		}
+		addChunk(chunks, current);
+		return chunks;
+	}
+
+	private static void addChunk(List<String> chunks, CharSequence chunk) {
+		String stripped = chunk.toString().strip();
+		if (!stripped.isEmpty()) {
+			chunks.add(stripped);
+		}
+	}
+
+	/**
+	 * Splits the markdown in front of every heading outside fenced code blocks. Line
+	 * breaks are kept so that the sections concatenate to the original markdown.
+	 */
+	static List<String> sections(String markdown) {
+		List<String> sections = new ArrayList<>();
+		StringBuilder section = new StringBuilder();
+		@Nullable String fence = null;
+		for (String line : markdown.split("(?<=\n)")) {
+			String trimmed = line.stripLeading();
+			if (fence != null) {
+				if (trimmed.startsWith(fence)) {
+					fence = null;
+				}
+			}
+			else if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+				fence = trimmed.substring(0, 3);
+			}
+			else if (isHeading(line) && !section.isEmpty()) {
+				sections.add(section.toString());
+				section.setLength(0);
+			}
+			section.append(line);
+		}
+		if (!section.isEmpty()) {
+			sections.add(section.toString());
+		}
+		return sections;
+	}
+
+	private static boolean isHeading(String line) {
+		int level = 0;
+		while (level < line.length() && line.charAt(level) == '#') {
+			level++;
+		}
+		return level >= 1 && level <= 6 && (level == line.length() || Character.isWhitespace(line.charAt(level)));
+	}
+
+	/**
+	 * Returns the text as is if it fits the budget, otherwise split into pieces at the
+	 * given level, each of which is fitted at the next level.
+	 */
+	private static List<String> fit(String text, int maxTokens, Level level) {
+		if (estimateTokens(text) <= maxTokens) {
+			return List.of(text);
+		}
+		List<String> pieces = new ArrayList<>();
+		if (level == Level.CHARACTER) {
+			int start = 0;
+			int ascii = 0;
+			int other = 0;
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c < 0x80) {
+					ascii++;
+				}
+				else {
+					other++;
+				}
+				if ((ascii + 3) / 4 + other >= maxTokens && !Character.isHighSurrogate(c)) {
+					pieces.add(text.substring(start, i + 1));
+					start = i + 1;
+					ascii = 0;
+					other = 0;
+				}
+			}
+			if (start < text.length()) {
+				pieces.add(text.substring(start));
+			}
+			return pieces;
+		}
+		for (String part : text.split(level.delimiter)) {
+			pieces.addAll(fit(part, maxTokens, level.next()));
+		}
+		return pieces;
+	}
+
+	private enum Level {
+
+		PARAGRAPH("(?<=\n\n)"), LINE("(?<=\n)"), CHARACTER("");
+
+		private final String delimiter;
+
+		Level(String delimiter) {
+			this.delimiter = delimiter;
+		}
+
+		Level next() {
+			return values()[this.ordinal() + 1];
+		}
+
+	}
+
+}
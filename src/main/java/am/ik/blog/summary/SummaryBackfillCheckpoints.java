@@ -0,0 +1,17 @@
+package am.ik.blog.summary;
+
+import java.util.Optional;
+
+/**
+ * Remembers how far the summary backfill of a tenant has got, so that a stopped or
+ * interrupted backfill resumes after the last entry it wrote back.
+ */
+public interface SummaryBackfillCheckpoints {
+
+	Optional<Long> load(String tenantId);
+
+	void save(String tenantId, long lastEntryId);
+
+	void delete(String tenantId);
+
+}
@@ -0,0 +1,308 @@
+package am.ik.blog.summary;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.GitHubProps;
+import am.ik.blog.ai.ChatCallLimiter;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.EntryKey;
+import am.ik.blog.entry.EntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Fills in empty summaries of a tenant's entries in the background. Entries are read in
+ * batches in ascending order of their id, summarized with bounded concurrency and written
+ * back per batch, after which the id of the last entry of the batch is saved as the
+ * checkpoint. A backfill that is stopped or interrupted by a restart resumes from there.
+ * <p>
+ * Summarization goes through the {@link ChatCallLimiter} of the tenant like interactive
+ * requests. An entry rejected because of rate limiting is retried with exponential
+ * backoff; an entry that still cannot be summarized is skipped and stays empty until the
+ * backfill is restarted from the beginning.
+ */
+@Component
+public class SummaryBackfillJob {
+
+	static final String METRIC_PREFIX = "summary.backfill";
+
+	private final EntryRepository entryRepository;
+
+	private final SummaryService summaryService;
+
+	private final SummaryBackfillCheckpoints checkpoints;
+
+	private final GitHubProps gitHubProps;
+
+	private final BlogProps.Ai.Backfill props;
+
+	private final InstantSource instantSource;
+
+	private final MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, Run> runs = new ConcurrentHashMap<>();
+
+	private final Logger logger = LoggerFactory.getLogger(SummaryBackfillJob.class);
+
+	public SummaryBackfillJob(EntryRepository entryRepository, SummaryService summaryService,
+			SummaryBackfillCheckpoints checkpoints, GitHubProps gitHubProps, BlogProps blogProps,
+			InstantSource instantSource, MeterRegistry meterRegistry) {
+		this.entryRepository = entryRepository;
+		this.summaryService = summaryService;
+		this.checkpoints = checkpoints;
+		this.gitHubProps = gitHubProps;
+		this.props = blogProps.getAi().getBackfill();
+		this.instantSource = instantSource;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Starts the backfill of the tenant in the background.
+	 * @param tenantId the tenant
+	 * @param restart whether to start from the first entry instead of the checkpoint
+	 * @return the progress of the started backfill
+	 */
+	public Progress start(String tenantId, boolean restart) {
+		if (this.gitHubProps.isDirectUpdate()) {
+			// summaries would have to be committed to GitHub one by one
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					"Summary backfill is not supported with direct update to GitHub");
+		}
+		Run run = new Run(tenantId, this.instantSource.instant());
+		Run existing = this.runs.compute(tenantId,
+				(key, current) -> current != null && current.isActive() ? current : run);
+		if (existing != run) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Summary backfill is already running");
+		}
+		Gauge.builder(METRIC_PREFIX + ".checkpoint", this.runs, runs -> {
+			Run current = runs.get(tenantId);
+			return current == null ? Double.NaN : current.lastEntryId.get();
+		})
+			.description("Id of the last entry the summary backfill has written back")
+			.tag("tenant", tenantId)
+			.register(this.meterRegistry);
+		Thread.ofVirtual().name("summary-backfill-" + tenantId).start(() -> this.execute(run, restart));
+		return run.progress();
+	}
+
+	/**
+	 * Asks the running backfill of the tenant to stop after the current batch.
+	 * @param tenantId the tenant
+	 * @return the progress of the backfill, if any
+	 */
+	public Optional<Progress> stop(String tenantId) {
+		Run run = this.runs.get(tenantId);
+		if (run == null) {
+			return Optional.empty();
+		}
+		// a run that finished in the meantime must keep its final state
+		if (run.state.compareAndSet(State.RUNNING, State.STOPPING)) {
+			logger.info("action=stop_summary_backfill tenantId={}", tenantId);
+		}
+		return Optional.of(run.progress());
+	}
+
+	public Optional<Progress> progress(String tenantId) {
+		return Optional.ofNullable(this.runs.get(tenantId)).map(Run::progress);
+	}
+
+	void execute(Run run, boolean restart) {
+		String tenantId = run.tenantId;
+		try {
+			long after = restart ? 0 : this.checkpoints.load(tenantId).orElse(0L);
+			run.lastEntryId.set(after);
+			logger.info("action=start_summary_backfill tenantId={} after={}", tenantId, after);
+			while (run.state.get() == State.RUNNING) {
+				List<Entry> batch = this.entryRepository.findWithoutSummary(tenantId, after, this.props.getBatchSize());
+				if (batch.isEmpty()) {
+					this.checkpoints.delete(tenantId);
+					run.finish(State.COMPLETED);
+					break;
+				}
+				Map<EntryKey, String> summaries = this.summarizeBatch(run, batch);
+				this.entryRepository.updateSummaries(summaries);
+				after = batch.getLast().entryKey().entryId();
+				this.checkpoints.save(tenantId, after);
+				run.lastEntryId.set(after);
+				logger.info("action=save_summary_backfill_checkpoint tenantId={} lastEntryId={} succeeded={} failed={}",
+						tenantId, after, run.succeeded.get(), run.failed.get());
+			}
+			run.state.compareAndSet(State.STOPPING, State.STOPPED);
+		}
+		catch (RuntimeException e) {
+			run.error = e.getMessage();
+			run.finish(State.FAILED);
+			logger.error("action=fail_summary_backfill tenantId={} message=\"{}\"", tenantId, e.getMessage(), e);
+		}
+		logger.info("action=finish_summary_backfill tenantId={} state={} succeeded={} failed={}", tenantId,
+				run.state.get(), run.succeeded.get(), run.failed.get());
+	}
+
+	/**
+	 * Summarizes the entries of a batch on virtual threads, at most {@code concurrency}
+	 * at a time.
+	 * @return summaries of the entries that could be summarized
+	 */
+	private Map<EntryKey, String> summarizeBatch(Run run, List<Entry> batch) {
+		Semaphore semaphore = new Semaphore(this.props.getConcurrency());
+		Map<EntryKey, String> summaries = new LinkedHashMap<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Map<EntryKey, Future<@Nullable String>> futures = new LinkedHashMap<>();
+			for (Entry entry : batch) {
+				futures.put(entry.entryKey(), executor.submit(() -> {
+					semaphore.acquire();
+					try {
+						return this.summarize(run, entry);
+					}
+					finally {
+						semaphore.release();
+					}
+				}));
+			}
+			for (Map.Entry<EntryKey, Future<@Nullable String>> future : futures.entrySet()) {
+				String summary = future.getValue().get();
+				if (summary != null) {
+					summaries.put(future.getKey(), summary);
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException ex ? ex : new IllegalStateException(e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		return summaries;
+	}
+
+	private @Nullable String summarize(Run run, Entry entry) throws InterruptedException {
+		String tenantId = run.tenantId;
+		Duration backoff = this.props.getBackoff();
+		for (int attempt = 1;; attempt++) {
+			try {
+				String summary = this.summaryService.summarize(tenantId, entry.content()).strip();
+				if (summary.isEmpty()) {
+					throw new IllegalStateException("Empty summary");
+				}
+				this.count(tenantId, "succeeded");
+				run.succeeded.incrementAndGet();
+				return summary;
+			}
+			catch (RuntimeException e) {
+				if (isRateLimited(e) && attempt < this.props.getMaxAttempts()) {
+					logger.info("action=retry_summary_backfill tenantId={} entryKey={} attempt={} backoff={}", tenantId,
+							entry.entryKey(), attempt, backoff);
+					Thread.sleep(backoff);
+					backoff = backoff.multipliedBy(2);
+					continue;
+				}
+				logger.warn("action=skip_summary_backfill tenantId={} entryKey={} message=\"{}\"", tenantId,
+						entry.entryKey(), e.getMessage());
+				this.count(tenantId, "failed");
+				run.failed.incrementAndGet();
+				return null;
+			}
+		}
+	}
+
+	private void count(String tenantId, String outcome) {
+		Counter.builder(METRIC_PREFIX + ".entries")
+			.description("Number of entries processed by the summary backfill")
+			.tag("tenant", tenantId)
+			.tag("outcome", outcome)
+			.register(this.meterRegistry)
+			.increment();
+	}
+
+	static boolean isRateLimited(Throwable e) {
+		return (e instanceof ResponseStatusException ex && ex.getStatusCode().value() == 429)
+				|| ChatCallLimiter.isTooManyRequests(e);
+	}
+
+	public enum State {
+
+		RUNNING, STOPPING, STOPPED, COMPLETED, FAILED
+
+	}
+
+	/**
+	 * Snapshot of a backfill.
+	 *
+	 * @param tenantId the tenant
+	 * @param state the state of the backfill
+	 * @param startedAt when the backfill was started
+	 * @param lastEntryId id of the last entry written back, i.e. the checkpoint
+	 * @param succeeded number of entries summarized
+	 * @param failed number of entries skipped
+	 * @param error message of the error the backfill failed with
+	 */
+	public record Progress(String tenantId, State state, Instant startedAt, long lastEntryId, long succeeded,
+			long failed, @Nullable String error) {
+	}
+
+	static final class Run {
+
+		final String tenantId;
+
+		final Instant startedAt;
+
+		final AtomicLong lastEntryId = new AtomicLong();
+
+		final AtomicLong succeeded = new AtomicLong();
+
+		final AtomicLong failed = new AtomicLong();
+
+		final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+
+		volatile @Nullable String error;
+
+		Run(String tenantId, Instant startedAt) {
+			this.tenantId = tenantId;
+			this.startedAt = startedAt;
+		}
+
+		boolean isActive() {
+			State state = this.state.get();
+			return state == State.RUNNING || state == State.STOPPING;
+		}
+
+		/**
+		 * Moves the run from {@code RUNNING} or {@code STOPPING} to a final state.
+		 */
+		void finish(State state) {
+			if (!this.state.compareAndSet(State.RUNNING, state)) {
+				this.state.compareAndSet(State.STOPPING, state);
+			}
+		}
+
+		Progress progress() {
+			return new Progress(this.tenantId, this.state.get(), this.startedAt, this.lastEntryId.get(),
+					this.succeeded.get(), this.failed.get(), this.error);
+		}
+
+	}
+
+}
@@ -1,46 +1,125 @@
 package am.ik.blog.summary;
 
+import am.ik.blog.BlogProps;
+import am.ik.blog.ai.ChatCallLimiter;
+import am.ik.blog.ai.GeneratedTextCache;
 import java.util.Objects;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Service
 public class SummaryService {
 
+	private static final String SYSTEM_PROMPT = """
+			You are a professional editor. Your role is to create a concise summary of the text (blog article) that the user inputs. Please summarize it within the character limit that can be posted on X/Twitter (about 140 chars). Also, assuming it will be used as the OGP description for an SNS post introducing the blog article, it is preferable that the content is clear from the first sentence.
+			Use the same language as the input text. Do not include markdown/HTML in the summary text. Also do not use markup such as `code` formatting. The summary should be in a format that introduces the blog article, such as "This is an article about..." or "In this article...".
+			Your response should contain only the summary text and nothing else.
+			""";
+
+	private static final String CHUNK_SYSTEM_PROMPT = """
+			You are a professional editor. The user inputs one section of a long blog article. Summarize what the section explains in a few sentences so that the summaries of all sections can later be combined into a summary of the whole article.
+			Use the same language as the input text. Do not include markdown/HTML in the summary text.
+			Your response should contain only the summary text and nothing else.
+			""";
+
+	private static final String REDUCE_SYSTEM_PROMPT = """
+			The text the user inputs consists of summaries of the consecutive sections of a single blog article, in order.
+			"""
+			+ SYSTEM_PROMPT;
+
 	private final ChatClient chatClient;
 
 	private final String chatModel;
 
+	private final GeneratedTextCache generatedTextCache;
+
+	private final ChatCallLimiter chatCallLimiter;
+
+	private final BlogProps.Ai.Summary props;
+
 	private final Logger logger = LoggerFactory.getLogger(SummaryService.class);
 
 	public SummaryService(ChatClient.Builder chatClientBuilder,
-			@Value("${spring.ai.openai.chat.options.model:N/A}") String chatModel) {
+			@Value("${spring.ai.openai.chat.options.model:N/A}") String chatModel,
+			GeneratedTextCache generatedTextCache, ChatCallLimiter chatCallLimiter, BlogProps blogProps) {
 		this.chatClient = chatClientBuilder.build();
 		this.chatModel = chatModel;
+		this.generatedTextCache = generatedTextCache;
+		this.chatCallLimiter = chatCallLimiter;
+		this.props = blogProps.getAi().getSummary();
+	}
+
+	public String summarize(String tenantId, String content) {
+		return Objects.requireNonNull(this.summarizeStream(tenantId, content).collect(Collectors.joining()).block());
+	}
+
+	/**
+	 * Streams the summary as the model generates it. A summary of the same content
+	 * generated before is returned as a single chunk. An article exceeding the input
+	 * token budget is split at headings and its chunks are summarized in parallel before
+	 * the final summary is streamed.
+	 * @param tenantId the tenant requesting the summary
+	 * @param content the article to summarize
+	 * @return chunks of the summary
+	 */
+	public Flux<String> summarizeStream(String tenantId, String content) {
+		boolean chunked = this.props.isChunkingEnabled()
+				&& MarkdownChunker.estimateTokens(content) > this.props.getMaxInputTokens();
+		// a chunked summary depends on both prompts and on where the article is split
+		String prompts = chunked
+				? "%s%s%d".formatted(CHUNK_SYSTEM_PROMPT, REDUCE_SYSTEM_PROMPT, this.props.getChunkTokens())
+				: SYSTEM_PROMPT;
+		GeneratedTextCache.Key key = GeneratedTextCache.Key.of(this.chatModel, chunked ? "chunked-summary" : "summary",
+				prompts, content);
+		return this.generatedTextCache.get(key, () -> {
+			if (chunked) {
+				return this.summarizeChunks(tenantId, content)
+					.flatMapMany(
+							chunkSummaries -> this.generate(tenantId, "reduce", REDUCE_SYSTEM_PROMPT, chunkSummaries));
+			}
+			return this.generate(tenantId, "single", SYSTEM_PROMPT, content);
+		});
+	}
+
+	/**
+	 * Summarizes the chunks of the article, at most {@code parallelism} at a time, and
+	 * joins the summaries in document order. The first failing chunk fails the whole
+	 * summary and cancels the others.
+	 */
+	private Mono<String> summarizeChunks(String tenantId, String content) {
+		return Mono.fromCallable(() -> MarkdownChunker.split(content, this.props.getChunkTokens()))
+			.doOnNext(chunks -> logger.info("action=split_article model={} chunks={}", chatModel, chunks.size()))
+			.flatMapMany(Flux::fromIterable)
+			.flatMapSequential(chunk -> this.generate(tenantId, "map", CHUNK_SYSTEM_PROMPT, chunk)
+				.collect(Collectors.joining())
+				.map(String::strip), this.props.getParallelism())
+			.collect(Collectors.joining("\n\n"));
 	}
 
-	public String summarize(String content) {
-		logger.info("action=start_summarization model={}", chatModel);
-		long start = System.currentTimeMillis();
-		String text = Objects.requireNonNull(this.chatClient.prompt()
-			.system("""
-					You are a professional editor. Your role is to create a concise summary of the text (blog article) that the user inputs. Please summarize it within the character limit that can be posted on X/Twitter (about 140 chars). Also, assuming it will be used as the OGP description for an SNS post introducing the blog article, it is preferable that the content is clear from the first sentence.
-					Use the same language as the input text. Do not include markdown/HTML in the summary text. Also do not use markup such as `code` formatting. The summary should be in a format that introduces the blog article, such as "This is an article about..." or "In this article...".
-					Your response should contain only the summary text and nothing else.
-					""")
-			.user(u -> u.text(content))
-			.stream()
-			.content()
-			.collectList()
-			.map(list -> String.join("", list))
-			.block());
-		long end = System.currentTimeMillis();
-		logger.info("action=finish_summarization model={} duration={}", chatModel, end - start);
-		return text;
+	private Flux<String> generate(String tenantId, String stage, String systemPrompt, String content) {
+		return this.chatCallLimiter.limit(tenantId, () -> Flux.defer(() -> {
+			logger.info("action=start_summarization model={} stage={}", chatModel, stage);
+			long start = System.currentTimeMillis();
+			AtomicLong firstChunk = new AtomicLong();
+			return this.chatClient.prompt()
+				.system(systemPrompt)
+				.user(u -> u.text(content))
+				.stream()
+				.content()
+				.doOnNext(chunk -> firstChunk.compareAndSet(0, System.currentTimeMillis()))
+				.doOnComplete(() -> {
+					long end = System.currentTimeMillis();
+					logger.info("action=finish_summarization model={} stage={} duration={} first_chunk={}", chatModel,
+							stage, end - start, firstChunk.get() == 0 ? -1 : firstChunk.get() - start);
+				});
+		}));
 	}
 
 }
@@ -0,0 +1,46 @@
+package am.ik.blog.summary.web;
+
+import am.ik.blog.summary.SummaryBackfillJob;
+import am.ik.blog.summary.SummaryBackfillJob.Progress;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SummaryBackfillController {
+
+	private final SummaryBackfillJob summaryBackfillJob;
+
+	public SummaryBackfillController(SummaryBackfillJob summaryBackfillJob) {
+		this.summaryBackfillJob = summaryBackfillJob;
+	}
+
+	/**
+	 * Starts filling in empty summaries of the tenant's entries in the background,
+	 * resuming from the last checkpoint unless {@code restart} is set.
+	 */
+	@PostMapping(path = "/tenants/{tenantId}/admin/summary-backfill")
+	public ResponseEntity<Progress> start(@PathVariable String tenantId,
+			@RequestParam(defaultValue = "false") boolean restart) {
+		return ResponseEntity.accepted().body(this.summaryBackfillJob.start(tenantId, restart));
+	}
+
+	@GetMapping(path = "/tenants/{tenantId}/admin/summary-backfill")
+	public ResponseEntity<Progress> progress(@PathVariable String tenantId) {
+		return ResponseEntity.of(this.summaryBackfillJob.progress(tenantId));
+	}
+
+	/**
+	 * Stops the backfill after the batch in progress. It can be resumed with a subsequent
+	 * start.
+	 */
+	@DeleteMapping(path = "/tenants/{tenantId}/admin/summary-backfill")
+	public ResponseEntity<Progress> stop(@PathVariable String tenantId) {
+		return ResponseEntity.of(this.summaryBackfillJob.stop(tenantId));
+	}
+
+}
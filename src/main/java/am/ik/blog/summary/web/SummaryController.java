@@ -2,11 +2,13 @@ package am.ik.blog.summary.web;
 
 import am.ik.blog.summary.SummaryService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 
 @RestController
 public class SummaryController {
@@ -22,10 +24,22 @@ public class SummaryController {
 		if (request.content() == null || request.content().isBlank()) {
 			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Content must not be empty");
 		}
-		String summary = this.summaryService.summarize(request.content());
+		String summary = this.summaryService.summarize(tenantId, request.content());
 		return new SummaryResponse(summary);
 	}
 
+	/**
+	 * Streams the summary as server-sent events. Each event carries the next chunk of the
+	 * summary as it is generated; the stream completes when the summary is complete.
+	 */
+	@PostMapping(path = "/tenants/{tenantId}/summary", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<SummaryResponse> summarizeStream(@PathVariable String tenantId, @RequestBody SummaryRequest request) {
+		if (request.content() == null || request.content().isBlank()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Content must not be empty");
+		}
+		return this.summaryService.summarizeStream(tenantId, request.content()).map(SummaryResponse::new);
+	}
+
 	public record SummaryRequest(String content) {
 
 	}
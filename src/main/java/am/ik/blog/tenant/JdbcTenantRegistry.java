@@ -0,0 +1,118 @@
+package am.ik.blog.tenant;
+
+import java.time.InstantSource;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link TenantRegistry} backed by the {@code tenant} and {@code tenant_user} tables.
+ * Access tokens and webhook secrets are stored encrypted with the
+ * {@link TenantCredentialsEncryptor}.
+ */
+@Component
+class JdbcTenantRegistry implements TenantRegistry {
+
+	private final JdbcClient jdbcClient;
+
+	private final InstantSource instantSource;
+
+	private final TenantCredentialsEncryptor credentialsEncryptor;
+
+	JdbcTenantRegistry(JdbcClient jdbcClient, InstantSource instantSource, TenantUserProps props) {
+		this.jdbcClient = jdbcClient;
+		this.instantSource = instantSource;
+		this.credentialsEncryptor = new TenantCredentialsEncryptor(props);
+	}
+
+	@Override
+	public List<RegisteredTenant> findAllTenants() {
+		return this.jdbcClient.sql("""
+				SELECT tenant_id, content_owner, content_repo, access_token, webhook_secret
+				FROM tenant
+				ORDER BY tenant_id
+				""".trim())
+			.query((rs, _) -> new RegisteredTenant(rs.getString("tenant_id"), rs.getString("content_owner"),
+					rs.getString("content_repo"), this.credentialsEncryptor.decrypt(rs.getString("access_token")),
+					this.credentialsEncryptor.decrypt(rs.getString("webhook_secret"))))
+			.list();
+	}
+
+	@Override
+	public void saveTenant(RegisteredTenant tenant) {
+		this.jdbcClient
+			.sql("""
+					INSERT INTO tenant (tenant_id, content_owner, content_repo, access_token, webhook_secret, last_modified_date)
+					VALUES (:tenantId, :contentOwner, :contentRepo, :accessToken, :webhookSecret, :lastModifiedDate)
+					ON CONFLICT (tenant_id)
+					DO UPDATE SET
+					    content_owner = EXCLUDED.content_owner,
+					    content_repo = EXCLUDED.content_repo,
+					    access_token = EXCLUDED.access_token,
+					    webhook_secret = EXCLUDED.webhook_secret,
+					    last_modified_date = EXCLUDED.last_modified_date
+					"""
+				.trim())
+			.param("tenantId", tenant.tenantId())
+			.param("contentOwner", tenant.contentOwner())
+			.param("contentRepo", tenant.contentRepo())
+			.param("accessToken", this.credentialsEncryptor.encrypt(tenant.accessToken()))
+			.param("webhookSecret", this.credentialsEncryptor.encrypt(tenant.webhookSecret()))
+			.param("lastModifiedDate", this.instantSource.instant().atOffset(ZoneOffset.UTC))
+			.update();
+	}
+
+	@Override
+	public void deleteTenant(String tenantId) {
+		this.jdbcClient.sql("DELETE FROM tenant WHERE tenant_id = :tenantId").param("tenantId", tenantId).update();
+	}
+
+	@Override
+	public List<TenantUserDetails> findAllUsers() {
+		return this.jdbcClient.sql("SELECT username, password, privileges FROM tenant_user ORDER BY username")
+			.query((rs,
+					_) -> TenantUserDetails.valueOf("%s|%s|%s".formatted(rs.getString("username"),
+							rs.getString("password"), rs.getString("privileges"))))
+			.list();
+	}
+
+	@Override
+	public void saveUser(TenantUserDetails user) {
+		this.jdbcClient.sql("""
+				INSERT INTO tenant_user (username, password, privileges, last_modified_date)
+				VALUES (:username, :password, :privileges, :lastModifiedDate)
+				ON CONFLICT (username)
+				DO UPDATE SET
+				    password = EXCLUDED.password,
+				    privileges = EXCLUDED.privileges,
+				    last_modified_date = EXCLUDED.last_modified_date
+				""".trim())
+			.param("username", user.username())
+			.param("password", user.password())
+			.param("privileges", formatPrivileges(user))
+			.param("lastModifiedDate", this.instantSource.instant().atOffset(ZoneOffset.UTC))
+			.update();
+	}
+
+	@Override
+	public void deleteUser(String username) {
+		this.jdbcClient.sql("DELETE FROM tenant_user WHERE username = :username").param("username", username).update();
+	}
+
+	/**
+	 * Formats the privileges like in {@code blog.tenant.users}, e.g.
+	 * {@code _=GET,LIST|t1=EDIT}, so that {@link TenantUserDetails#valueOf(String)} can
+	 * read them back.
+	 */
+	static String formatPrivileges(TenantUserDetails user) {
+		return user.privileges()
+			.entrySet()
+			.stream()
+			.map(e -> e.getKey() + "=" + e.getValue().stream().map(Enum::name).collect(Collectors.joining(",")))
+			.sorted()
+			.collect(Collectors.joining("|"));
+	}
+
+}
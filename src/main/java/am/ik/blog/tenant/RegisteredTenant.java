@@ -0,0 +1,43 @@
+package am.ik.blog.tenant;
+
+import am.ik.blog.GitHubProps;
+
+/**
+ * A tenant provisioned at runtime through the {@link TenantRegistry}.
+ *
+ * @param tenantId id of the tenant
+ * @param contentOwner owner of the content repository
+ * @param contentRepo name of the content repository
+ * @param accessToken token to access the content repository with
+ * @param webhookSecret secret the webhooks of the content repository are signed with
+ */
+public record RegisteredTenant(String tenantId, String contentOwner, String contentRepo, String accessToken,
+		String webhookSecret) {
+
+	/**
+	 * Creates the GitHub properties of the tenant. Everything but the repository and the
+	 * credentials is inherited from the given properties.
+	 */
+	public GitHubProps toGitHubProps(GitHubProps parent) {
+		GitHubProps props = new GitHubProps();
+		props.setApiUrl(parent.getApiUrl());
+		props.setRawContentUrl(parent.getRawContentUrl());
+		props.setRetryInterval(parent.getRetryInterval());
+		props.setRetryMaxElapsedTime(parent.getRetryMaxElapsedTime());
+		props.setConnectTimeout(parent.getConnectTimeout());
+		props.setReadTimeout(parent.getReadTimeout());
+		props.setEtagCacheSize(parent.getEtagCacheSize());
+		props.setContentOwner(this.contentOwner);
+		props.setContentRepo(this.contentRepo);
+		props.setAccessToken(this.accessToken);
+		props.setWebhookSecret(this.webhookSecret);
+		return props;
+	}
+
+	@Override
+	public String toString() {
+		return "RegisteredTenant[tenantId=%s, contentOwner=%s, contentRepo=%s]".formatted(this.tenantId,
+				this.contentOwner, this.contentRepo);
+	}
+
+}
@@ -0,0 +1,40 @@
+package am.ik.blog.tenant;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
+
+/**
+ * Encrypts the access tokens and webhook secrets of registered tenants before they are
+ * stored, with AES-256 in GCM mode and a key derived from
+ * {@link TenantUserProps#credentialsPassword()} and
+ * {@link TenantUserProps#credentialsSalt()}. Without them, tenants can be neither stored
+ * nor read.
+ */
+class TenantCredentialsEncryptor {
+
+	private final @Nullable TextEncryptor textEncryptor;
+
+	TenantCredentialsEncryptor(TenantUserProps props) {
+		String password = props.credentialsPassword();
+		String salt = props.credentialsSalt();
+		this.textEncryptor = password == null || salt == null ? null : Encryptors.delux(password, salt);
+	}
+
+	String encrypt(String credential) {
+		return this.textEncryptor().encrypt(credential);
+	}
+
+	String decrypt(String encrypted) {
+		return this.textEncryptor().decrypt(encrypted);
+	}
+
+	private TextEncryptor textEncryptor() {
+		if (this.textEncryptor == null) {
+			throw new IllegalStateException(
+					"blog.tenant.credentials-password and blog.tenant.credentials-salt must be set to store tenant credentials");
+		}
+		return this.textEncryptor;
+	}
+
+}
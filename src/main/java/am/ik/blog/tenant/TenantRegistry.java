@@ -0,0 +1,24 @@
+package am.ik.blog.tenant;
+
+import java.util.List;
+
+/**
+ * Tenants and users provisioned at runtime, shared by all nodes. They are added to the
+ * ones configured with {@code blog.github.tenants} and {@code blog.tenant.users} and take
+ * precedence over them.
+ */
+public interface TenantRegistry {
+
+	List<RegisteredTenant> findAllTenants();
+
+	void saveTenant(RegisteredTenant tenant);
+
+	void deleteTenant(String tenantId);
+
+	List<TenantUserDetails> findAllUsers();
+
+	void saveUser(TenantUserDetails user);
+
+	void deleteUser(String username);
+
+}
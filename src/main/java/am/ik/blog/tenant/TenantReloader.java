@@ -0,0 +1,138 @@
+package am.ik.blog.tenant;
+
+import am.ik.blog.GitHubProps;
+import am.ik.blog.github.GitHubTenants;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the tenants and users of the {@link TenantRegistry} to the GitHub clients,
+ * webhook verifiers and users of this node, so that tenants can be onboarded without a
+ * restart.
+ * <p>
+ * The registry is read when the application starts, before requests are accepted, after
+ * every change made through this node and then every
+ * {@link TenantUserProps#refreshInterval()}, which is how changes made through other
+ * nodes get here. Nothing is replaced unless the registry has changed since the last
+ * reload, so clients keep their connections and cached responses.
+ */
+@Component
+public class TenantReloader implements SmartLifecycle {
+
+	private final TenantRegistry tenantRegistry;
+
+	private final GitHubTenants gitHubTenants;
+
+	private final TenantUsers tenantUsers;
+
+	private final GitHubProps gitHubProps;
+
+	private final Duration refreshInterval;
+
+	@Nullable private Snapshot applied;
+
+	@Nullable private volatile Thread poller;
+
+	private volatile boolean running;
+
+	private final Logger logger = LoggerFactory.getLogger(TenantReloader.class);
+
+	public TenantReloader(TenantRegistry tenantRegistry, GitHubTenants gitHubTenants, TenantUsers tenantUsers,
+			GitHubProps gitHubProps, TenantUserProps props) {
+		this.tenantRegistry = tenantRegistry;
+		this.gitHubTenants = gitHubTenants;
+		this.tenantUsers = tenantUsers;
+		this.gitHubProps = gitHubProps;
+		this.refreshInterval = props.refreshInterval();
+	}
+
+	/**
+	 * Reads the registry and applies it if it has changed since the last reload.
+	 * @return whether anything has changed
+	 */
+	public synchronized boolean reload() {
+		Snapshot snapshot = new Snapshot(this.tenantRegistry.findAllTenants(), this.tenantRegistry.findAllUsers());
+		if (snapshot.equals(this.applied)) {
+			return false;
+		}
+		Map<String, GitHubProps> tenants = new LinkedHashMap<>();
+		snapshot.tenants().forEach(tenant -> tenants.put(tenant.tenantId(), tenant.toGitHubProps(this.gitHubProps)));
+		this.gitHubTenants.refresh(tenants);
+		this.tenantUsers.refresh(snapshot.users());
+		this.applied = snapshot;
+		logger.info("action=reload_tenants tenants={} users={}", tenants.keySet(),
+				snapshot.users().stream().map(TenantUserDetails::username).toList());
+		return true;
+	}
+
+	private void reloadQuietly() {
+		try {
+			this.reload();
+		}
+		catch (DataAccessException e) {
+			logger.warn("action=reload_tenants message=\"{}\"", e.getMessage());
+		}
+	}
+
+	private void poll() {
+		while (this.running) {
+			try {
+				Thread.sleep(this.refreshInterval);
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+			try {
+				this.reloadQuietly();
+			}
+			catch (RuntimeException e) {
+				// e.g. credentials encrypted with another key; keep the last applied
+				// tenants and try again later
+				logger.error("action=reload_tenants message=\"{}\"", e.getMessage(), e);
+			}
+		}
+	}
+
+	@Override
+	public void start() {
+		this.running = true;
+		this.reloadQuietly();
+		if (this.refreshInterval.isPositive()) {
+			this.poller = Thread.ofVirtual().name("tenant-reloader").start(this::poll);
+		}
+	}
+
+	@Override
+	public void stop() {
+		this.running = false;
+		Thread poller = this.poller;
+		if (poller != null) {
+			poller.interrupt();
+			this.poller = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	public int getPhase() {
+		// before the web server starts accepting requests
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+
+	private record Snapshot(List<RegisteredTenant> tenants, List<TenantUserDetails> users) {
+
+	}
+
+}
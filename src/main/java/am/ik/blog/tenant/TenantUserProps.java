@@ -1,9 +1,23 @@
 package am.ik.blog.tenant;
 
+import java.time.Duration;
 import java.util.List;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
+/**
+ * @param users users configured statically
+ * @param refreshInterval how often each node checks the {@link TenantRegistry} for
+ * tenants and users provisioned by other nodes. Zero disables the checks.
+ * @param credentialsPassword password the key that encrypts the credentials of registered
+ * tenants is derived from
+ * @param credentialsSalt hex-encoded salt of that key, e.g. generated with
+ * {@code openssl rand -hex 8}
+ */
 @ConfigurationProperties(prefix = "blog.tenant")
-public record TenantUserProps(@NestedConfigurationProperty List<TenantUserDetails> users) {
-}
\ No newline at end of file
+public record TenantUserProps(@NestedConfigurationProperty List<TenantUserDetails> users,
+		@DefaultValue("30s") Duration refreshInterval, @Nullable String credentialsPassword,
+		@Nullable String credentialsSalt) {
+}
@@ -0,0 +1,47 @@
+package am.ik.blog.tenant;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+
+/**
+ * Users configured with {@code blog.tenant.users} and users provisioned at runtime
+ * through the {@link TenantRegistry}, which take precedence over configured users with
+ * the same name.
+ */
+@Component
+public class TenantUsers {
+
+	private final List<TenantUserDetails> configuredUsers;
+
+	private volatile Map<String, TenantUserDetails> users;
+
+	public TenantUsers(TenantUserProps props) {
+		this.configuredUsers = Objects.<List<TenantUserDetails>>requireNonNullElseGet(props.users(), List::of);
+		this.users = merge(this.configuredUsers, List.of());
+	}
+
+	public Optional<TenantUserDetails> find(String username) {
+		return Optional.ofNullable(this.users.get(username));
+	}
+
+	/**
+	 * Replaces the users provisioned at runtime.
+	 */
+	public void refresh(Collection<TenantUserDetails> registeredUsers) {
+		this.users = merge(this.configuredUsers, registeredUsers);
+	}
+
+	private static Map<String, TenantUserDetails> merge(Collection<TenantUserDetails> configuredUsers,
+			Collection<TenantUserDetails> registeredUsers) {
+		Map<String, TenantUserDetails> users = new LinkedHashMap<>();
+		configuredUsers.forEach(user -> users.put(user.getUsername(), user));
+		registeredUsers.forEach(user -> users.put(user.getUsername(), user));
+		return Map.copyOf(users);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package am.ik.blog.tenant.web;
+
+import am.ik.blog.entry.EntryKey;
+import am.ik.blog.security.Privilege;
+import am.ik.blog.tenant.RegisteredTenant;
+import am.ik.blog.tenant.TenantRegistry;
+import am.ik.blog.tenant.TenantReloader;
+import am.ik.blog.tenant.TenantUserDetails;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Provisions tenants and their users at runtime. Changes take effect on this node
+ * immediately and on the other nodes at their next reload.
+ */
+@RestController
+public class TenantController {
+
+	private final TenantRegistry tenantRegistry;
+
+	private final TenantReloader tenantReloader;
+
+	private final PasswordEncoder passwordEncoder;
+
+	/**
+	 * Separators of the {@code blog.tenant.users} format.
+	 */
+	private static final Pattern RESERVED_CHARACTERS = Pattern.compile("[|=,]");
+
+	private final Logger logger = LoggerFactory.getLogger(TenantController.class);
+
+	public TenantController(TenantRegistry tenantRegistry, TenantReloader tenantReloader,
+			PasswordEncoder passwordEncoder) {
+		this.tenantRegistry = tenantRegistry;
+		this.tenantReloader = tenantReloader;
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	@GetMapping(path = "/admin/tenants")
+	public List<TenantResponse> getTenants() {
+		return this.tenantRegistry.findAllTenants().stream().map(TenantResponse::of).toList();
+	}
+
+	@PutMapping(path = "/admin/tenants/{tenantId}")
+	public TenantResponse putTenant(@PathVariable String tenantId, @RequestBody TenantRequest request) {
+		if (EntryKey.isDefaultTenant(tenantId)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The default tenant cannot be provisioned");
+		}
+		if (Stream.of(request.contentOwner(), request.contentRepo(), request.accessToken(), request.webhookSecret())
+			.anyMatch(value -> !StringUtils.hasText(value))) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"contentOwner, contentRepo, accessToken and webhookSecret are required");
+		}
+		RegisteredTenant tenant = new RegisteredTenant(tenantId, request.contentOwner(), request.contentRepo(),
+				request.accessToken(), request.webhookSecret());
+		this.tenantRegistry.saveTenant(tenant);
+		logger.info("action=put_tenant tenantId={} owner={} repo={}", tenantId, tenant.contentOwner(),
+				tenant.contentRepo());
+		this.tenantReloader.reload();
+		return TenantResponse.of(tenant);
+	}
+
+	@DeleteMapping(path = "/admin/tenants/{tenantId}")
+	public ResponseEntity<Void> deleteTenant(@PathVariable String tenantId) {
+		this.tenantRegistry.deleteTenant(tenantId);
+		logger.info("action=delete_tenant tenantId={}", tenantId);
+		this.tenantReloader.reload();
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * Creates or replaces a user. A password without an encoding prefix such as
+	 * {@code {bcrypt}} is encoded before it is stored.
+	 */
+	@PutMapping(path = "/admin/tenant-users/{username}")
+	public ResponseEntity<Void> putUser(@PathVariable String username, @RequestBody TenantUserRequest request) {
+		String password = request.password();
+		if (!StringUtils.hasText(password) || request.privileges() == null || request.privileges().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "password and privileges are required");
+		}
+		// users are stored in the format of blog.tenant.users
+		if (username.contains("|") || password.contains("|")) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "username and password must not contain '|'");
+		}
+		request.privileges().forEach((tenantId, privileges) -> {
+			if (!StringUtils.hasText(tenantId) || RESERVED_CHARACTERS.matcher(tenantId).find()) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Tenant IDs must not be blank or contain '|', '=' or ','");
+			}
+			if (privileges == null || privileges.isEmpty() || privileges.stream().anyMatch(Objects::isNull)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						"Privileges of tenant " + tenantId + " must not be empty");
+			}
+		});
+		this.tenantRegistry.saveUser(new TenantUserDetails(username,
+				password.startsWith("{") ? password : this.passwordEncoder.encode(password), request.privileges()));
+		logger.info("action=put_tenant_user username={} privileges={}", username, request.privileges());
+		this.tenantReloader.reload();
+		return ResponseEntity.noContent().build();
+	}
+
+	@DeleteMapping(path = "/admin/tenant-users/{username}")
+	public ResponseEntity<Void> deleteUser(@PathVariable String username) {
+		this.tenantRegistry.deleteUser(username);
+		logger.info("action=delete_tenant_user username={}", username);
+		this.tenantReloader.reload();
+		return ResponseEntity.noContent().build();
+	}
+
+	public record TenantRequest(@Nullable String contentOwner, @Nullable String contentRepo,
+			@Nullable String accessToken, @Nullable String webhookSecret) {
+
+	}
+
+	public record TenantUserRequest(@Nullable String password, @Nullable Map<String, List<Privilege>> privileges) {
+
+	}
+
+	/**
+	 * A tenant without its credentials.
+	 */
+	public record TenantResponse(String tenantId, String contentOwner, String contentRepo) {
+
+		static TenantResponse of(RegisteredTenant tenant) {
+			return new TenantResponse(tenant.tenantId(), tenant.contentOwner(), tenant.contentRepo());
+		}
+
+	}
+
+}
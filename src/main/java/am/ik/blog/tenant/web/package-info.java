@@ -0,0 +1,4 @@
+@NullMarked
+package am.ik.blog.tenant.web;
+
+import org.jspecify.annotations.NullMarked;
\ No newline at end of file
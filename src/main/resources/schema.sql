@@ -35,3 +35,31 @@ CREATE TABLE IF NOT EXISTS entry_tokens (
     token VARCHAR(255) NOT NULL,
     PRIMARY KEY (entry_id, token)
 );;
+
+-- Progress of resumable batch jobs, e.g. the summary backfill
+CREATE TABLE IF NOT EXISTS batch_checkpoint (
+    job_name VARCHAR(128) NOT NULL,
+    tenant_id VARCHAR(128) NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    last_modified_date TIMESTAMP WITH TIME ZONE NOT NULL default CURRENT_TIMESTAMP,
+    PRIMARY KEY (job_name, tenant_id)
+);;
+
+-- Tenants provisioned at runtime in addition to blog.github.tenants. access_token and
+-- webhook_secret are encrypted with blog.tenant.credentials-password and -salt
+CREATE TABLE IF NOT EXISTS tenant (
+    tenant_id VARCHAR(128) PRIMARY KEY,
+    content_owner VARCHAR(255) NOT NULL,
+    content_repo VARCHAR(255) NOT NULL,
+    access_token TEXT NOT NULL,
+    webhook_secret TEXT NOT NULL,
+    last_modified_date TIMESTAMP WITH TIME ZONE NOT NULL default CURRENT_TIMESTAMP
+);;
+
+-- Users provisioned at runtime in addition to blog.tenant.users
+CREATE TABLE IF NOT EXISTS tenant_user (
+    username VARCHAR(128) PRIMARY KEY,
+    password VARCHAR(255) NOT NULL,
+    privileges TEXT NOT NULL,
+    last_modified_date TIMESTAMP WITH TIME ZONE NOT NULL default CURRENT_TIMESTAMP
+);;
@@ -34,6 +34,7 @@ public class MockConfig {
 			int port = mockServer.port();
 			registry.add("blog.github.api-url", () -> "http://127.0.0.1:%d".formatted(port));
 			registry.add("blog.github.tenants.t1.api-url", () -> "http://127.0.0.1:%d".formatted(port));
+			registry.add("blog.github.raw-content-url", () -> "http://127.0.0.1:%d/raw".formatted(port));
 			registry.add("spring.ai.openai.base-url", () -> "http://127.0.0.1:%d".formatted(port));
 		};
 	}
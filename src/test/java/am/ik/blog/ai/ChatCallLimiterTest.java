@@ -0,0 +1,110 @@
+package am.ik.blog.ai;
+
+import am.ik.blog.BlogProps;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatCallLimiterTest {
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	ChatCallLimiter limiter(int maxConcurrentCalls, int maxConcurrentCallsPerTenant, int maxQueueSize,
+			Duration queueTimeout) {
+		BlogProps props = new BlogProps();
+		props.getAi().setMaxConcurrentCalls(maxConcurrentCalls);
+		props.getAi().setMaxConcurrentCallsPerTenant(maxConcurrentCallsPerTenant);
+		props.getAi().setMaxQueueSize(maxQueueSize);
+		props.getAi().setQueueTimeout(queueTimeout);
+		return new ChatCallLimiter(props, this.meterRegistry);
+	}
+
+	@Test
+	void queueCallsOverTenantLimitWithoutBlockingOtherTenants() {
+		ChatCallLimiter limiter = limiter(3, 1, 10, Duration.ofSeconds(10));
+		CompletableFuture<ChatCallLimiter.Permit> a1 = limiter.acquire("a");
+		CompletableFuture<ChatCallLimiter.Permit> a2 = limiter.acquire("a");
+		CompletableFuture<ChatCallLimiter.Permit> b1 = limiter.acquire("b");
+		assertThat(a1).isCompleted();
+		assertThat(a2).isNotDone();
+		assertThat(b1).isCompleted();
+		assertThat(limiter.queued()).isEqualTo(1);
+		a1.join().release();
+		assertThat(a2).isCompleted();
+		assertThat(limiter.inFlight()).isEqualTo(2);
+		assertThat(limiter.queued()).isZero();
+	}
+
+	@Test
+	void admitQueuedCallsInOrder() {
+		ChatCallLimiter limiter = limiter(1, 1, 10, Duration.ofSeconds(10));
+		CompletableFuture<ChatCallLimiter.Permit> first = limiter.acquire("a");
+		CompletableFuture<ChatCallLimiter.Permit> second = limiter.acquire("b");
+		CompletableFuture<ChatCallLimiter.Permit> third = limiter.acquire("c");
+		first.join().release();
+		assertThat(second).isCompleted();
+		assertThat(third).isNotDone();
+		second.join().release();
+		assertThat(third).isCompleted();
+	}
+
+	@Test
+	void rejectWhenQueueIsFullOrTimedOut() {
+		ChatCallLimiter limiter = limiter(1, 1, 1, Duration.ofMillis(50));
+		limiter.acquire("a");
+		Flux<String> queued = limiter.limit("b", () -> Flux.just("never"));
+		CompletableFuture<String> waiting = queued.next().toFuture();
+		assertThatThrownBy(() -> limiter.limit("c", () -> Flux.just("never")).blockLast()).isInstanceOfSatisfying(
+				ResponseStatusException.class,
+				e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+		assertThatThrownBy(waiting::join).hasCauseInstanceOf(ResponseStatusException.class);
+		assertThat(limiter.queued()).isZero();
+		assertThat(this.meterRegistry.timer("ai.chat.calls.wait", "tenant", "b", "outcome", "timeout").count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void halveLimitOnceForConcurrentRejections() {
+		ChatCallLimiter limiter = limiter(8, 8, 10, Duration.ofSeconds(10));
+		Sinks.Many<String> first = Sinks.many().unicast().onBackpressureBuffer();
+		Sinks.Many<String> second = Sinks.many().unicast().onBackpressureBuffer();
+		limiter.limit("a", first::asFlux).subscribe(s -> {
+		}, e -> {
+		});
+		limiter.limit("a", second::asFlux).subscribe(s -> {
+		}, e -> {
+		});
+		assertThat(limiter.inFlight()).isEqualTo(2);
+		first.tryEmitError(new TransientAiException("429 - Rate limit reached"));
+		second.tryEmitError(new TransientAiException("429 - Rate limit reached"));
+		assertThat(limiter.limit()).isEqualTo(4);
+		assertThat(limiter.inFlight()).isZero();
+		assertThat(this.meterRegistry.counter("ai.chat.calls.throttled").count()).isEqualTo(2);
+		limiter.limit("a", () -> Flux.just("ok")).blockLast();
+		assertThat(limiter.limit()).isEqualTo(4.25);
+		limiter.limit("a", () -> Flux.<String>error(new TransientAiException("500 - Internal Server Error")))
+			.onErrorComplete()
+			.blockLast();
+		assertThat(limiter.limit()).isEqualTo(4.25);
+	}
+
+	@Test
+	void releaseSlotWhenCancelledWhileWaiting() {
+		ChatCallLimiter limiter = limiter(1, 1, 10, Duration.ofSeconds(10));
+		CompletableFuture<ChatCallLimiter.Permit> running = limiter.acquire("a");
+		limiter.limit("b", () -> Flux.just("never")).subscribe().dispose();
+		assertThat(limiter.queued()).isZero();
+		running.join().release();
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+}
@@ -0,0 +1,96 @@
+package am.ik.blog.ai;
+
+import am.ik.blog.BlogProps;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeneratedTextCacheTest {
+
+	ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+	AtomicInteger generated = new AtomicInteger();
+
+	GeneratedTextCache.Key key = GeneratedTextCache.Key.of("gpt-4o-mini", "summary", "Summarize.", "Hello");
+
+	GeneratedTextCache generatedTextCache(CacheManager cacheManager) {
+		return new GeneratedTextCache(new ObjectProvider<>() {
+			@Override
+			public CacheManager getIfAvailable() {
+				return cacheManager;
+			}
+		}, new BlogProps());
+	}
+
+	Supplier<Flux<String>> generator(String... chunks) {
+		return () -> Flux.defer(() -> {
+			this.generated.incrementAndGet();
+			return Flux.just(chunks);
+		});
+	}
+
+	@Test
+	void returnCachedTextWithoutGenerating() {
+		GeneratedTextCache cache = generatedTextCache(this.cacheManager);
+		assertThat(cache.get(this.key, generator("Hello", " world")).collectList().block()).containsExactly("Hello",
+				" world");
+		assertThat(cache.get(this.key, generator("Hello", " world")).collectList().block())
+			.containsExactly("Hello world");
+		assertThat(this.generated).hasValue(1);
+		GeneratedTextCache.Key otherMode = GeneratedTextCache.Key.of("gpt-4o-mini", "summary", "Summarize briefly.",
+				"Hello");
+		assertThat(cache.get(otherMode, generator("Hi")).collectList().block()).containsExactly("Hi");
+		assertThat(this.generated).hasValue(2);
+	}
+
+	@Test
+	void coalesceConcurrentGenerations() {
+		GeneratedTextCache cache = generatedTextCache(this.cacheManager);
+		Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+		Supplier<Flux<String>> generator = () -> {
+			this.generated.incrementAndGet();
+			return upstream.asFlux();
+		};
+		List<String> first = new ArrayList<>();
+		List<String> second = new ArrayList<>();
+		cache.get(this.key, generator).subscribe(first::add);
+		upstream.tryEmitNext("Hello");
+		cache.get(this.key, generator).subscribe(second::add);
+		upstream.tryEmitNext(" world");
+		upstream.tryEmitComplete();
+		assertThat(first).containsExactly("Hello", " world");
+		assertThat(second).containsExactly("Hello", " world");
+		assertThat(this.generated).hasValue(1);
+	}
+
+	@Test
+	void doNotCacheFailedGeneration() {
+		GeneratedTextCache cache = generatedTextCache(this.cacheManager);
+		Supplier<Flux<String>> failing = () -> Flux.concat(Flux.just("Hel"),
+				Flux.error(new IllegalStateException("rate limited")));
+		assertThatThrownBy(() -> cache.get(this.key, failing).blockLast(Duration.ofSeconds(1)))
+			.isInstanceOf(IllegalStateException.class);
+		assertThat(cache.get(this.key, generator("Hello")).collectList().block()).containsExactly("Hello");
+		assertThat(this.generated).hasValue(1);
+	}
+
+	@Test
+	void generateEveryTimeWithoutCacheManager() {
+		GeneratedTextCache cache = generatedTextCache(null);
+		cache.get(this.key, generator("Hello")).blockLast();
+		cache.get(this.key, generator("Hello")).blockLast();
+		assertThat(this.generated).hasValue(2);
+	}
+
+}
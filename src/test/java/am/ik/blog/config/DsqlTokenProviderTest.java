@@ -0,0 +1,56 @@
+package am.ik.blog.config;
+
+import com.zaxxer.hikari.util.Credentials;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DsqlTokenProviderTest {
+
+	AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2025-01-01T00:00:00Z"));
+
+	AtomicInteger generated = new AtomicInteger();
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	DsqlTokenProvider tokenProvider = new DsqlTokenProvider("test", "admin",
+			() -> "token-" + this.generated.incrementAndGet(), Duration.ofMinutes(60), this::instant,
+			this.meterRegistry);
+
+	Instant instant() {
+		return this.now.get();
+	}
+
+	@Test
+	void reuseTokenUntilRefreshed() {
+		this.tokenProvider.refresh();
+		Credentials first = this.tokenProvider.getCredentials();
+		this.now.set(this.now.get().plus(Duration.ofMinutes(30)));
+		Credentials second = this.tokenProvider.getCredentials();
+		assertThat(first.getUsername()).isEqualTo("admin");
+		assertThat(first.getPassword()).isEqualTo("token-1");
+		assertThat(second.getPassword()).isEqualTo("token-1");
+		this.tokenProvider.refresh();
+		assertThat(this.tokenProvider.getCredentials().getPassword()).isEqualTo("token-2");
+		assertThat(this.meterRegistry.timer(DsqlTokenProvider.METRIC_NAME, "datasource", "test").count()).isEqualTo(2);
+	}
+
+	@Test
+	void generateTokenInlineWhenCloseToExpiry() {
+		this.tokenProvider.refresh();
+		this.now.set(this.now.get().plus(Duration.ofMinutes(46)));
+		assertThat(this.tokenProvider.getCredentials().getPassword()).isEqualTo("token-2");
+		assertThat(this.tokenProvider.getCredentials().getPassword()).isEqualTo("token-2");
+	}
+
+	@Test
+	void generateTokenOnFirstUse() {
+		assertThat(this.tokenProvider.getCredentials().getPassword()).isEqualTo("token-1");
+	}
+
+}
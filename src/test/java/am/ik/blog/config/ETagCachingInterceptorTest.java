@@ -0,0 +1,113 @@
+package am.ik.blog.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ETagCachingInterceptorTest {
+
+	ETagCachingInterceptor interceptor = new ETagCachingInterceptor(2);
+
+	MockRestServiceServer server;
+
+	RestClient restClient;
+
+	@BeforeEach
+	void setUp() {
+		RestClient.Builder builder = RestClient.builder()
+			.baseUrl("https://api.github.com")
+			.requestInterceptor(this.interceptor);
+		this.server = MockRestServiceServer.bindTo(builder).build();
+		this.restClient = builder.build();
+	}
+
+	@Test
+	void serveNotModifiedFromCache() {
+		this.server.expect(requestTo("https://api.github.com/repos/a/b/contents/x.md"))
+			.andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+			.andRespond(withSuccess("{\"sha\":\"1\"}", MediaType.APPLICATION_JSON).headers(headers("\"v1\"")));
+		this.server.expect(requestTo("https://api.github.com/repos/a/b/contents/x.md"))
+			.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+			.andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(headers("\"v1\"")));
+		assertThat(get("/repos/a/b/contents/x.md")).isEqualTo("{\"sha\":\"1\"}");
+		var response = this.restClient.get().uri("/repos/a/b/contents/x.md").retrieve().toEntity(String.class);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(response.getBody()).isEqualTo("{\"sha\":\"1\"}");
+		this.server.verify();
+	}
+
+	@Test
+	void replaceCachedResponseWhenModified() {
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andRespond(withSuccess("v1", MediaType.TEXT_PLAIN).headers(headers("\"v1\"")));
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+			.andRespond(withSuccess("v2", MediaType.TEXT_PLAIN).headers(headers("\"v2\"")));
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v2\""))
+			.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+		assertThat(get("/x")).isEqualTo("v1");
+		assertThat(get("/x")).isEqualTo("v2");
+		assertThat(get("/x")).isEqualTo("v2");
+		this.server.verify();
+	}
+
+	@Test
+	void doNotCacheOtherMethodsOrResponsesWithoutETag() {
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andRespond(withSuccess("no etag", MediaType.TEXT_PLAIN));
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+			.andRespond(withSuccess("no etag", MediaType.TEXT_PLAIN));
+		this.server.expect(requestTo("https://api.github.com/x"))
+			.andExpect(method(HttpMethod.PUT))
+			.andRespond(withSuccess("put", MediaType.TEXT_PLAIN).headers(headers("\"p\"")));
+		assertThat(get("/x")).isEqualTo("no etag");
+		assertThat(get("/x")).isEqualTo("no etag");
+		this.restClient.put().uri("/x").retrieve().toBodilessEntity();
+		assertThat(this.interceptor.size()).isZero();
+		this.server.verify();
+	}
+
+	@Test
+	void evictLeastRecentlyUsed() {
+		for (String path : new String[] { "/a", "/b", "/c" }) {
+			this.server.expect(requestTo("https://api.github.com" + path))
+				.andRespond(withSuccess(path, MediaType.TEXT_PLAIN).headers(headers("\"" + path + "\"")));
+		}
+		this.server.expect(requestTo("https://api.github.com/a"))
+			.andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+			.andRespond(withSuccess("/a", MediaType.TEXT_PLAIN));
+		get("/a");
+		get("/b");
+		get("/c");
+		assertThat(this.interceptor.size()).isEqualTo(2);
+		get("/a");
+		this.server.verify();
+	}
+
+	String get(String path) {
+		return this.restClient.get().uri(path).retrieve().body(String.class);
+	}
+
+	static HttpHeaders headers(String etag) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(etag);
+		return headers;
+	}
+
+}
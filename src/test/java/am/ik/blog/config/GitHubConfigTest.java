@@ -0,0 +1,128 @@
+package am.ik.blog.config;
+
+import am.ik.blog.GitHubProps;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.Repository;
+import am.ik.blog.mockserver.MockServer;
+import com.sun.net.httpserver.Filter;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GitHubConfigTest {
+
+	MockServer mockServer = new MockServer(0);
+
+	GitHubProps props = new GitHubProps();
+
+	RestClient restClient() {
+		this.mockServer.run();
+		return RestClient.builder()
+			.baseUrl("http://127.0.0.1:" + this.mockServer.port())
+			.requestFactory(GitHubConfig.requestFactory(this.props))
+			.requestInterceptor(GitHubConfig.retryInterceptor(this.props))
+			.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.mockServer.close();
+	}
+
+	@Test
+	void retryTransientErrors() {
+		this.props.setRetryInterval(Duration.ofMillis(10));
+		AtomicInteger attempts = new AtomicInteger();
+		this.mockServer.GET("/repos/owner/repo",
+				request -> attempts.incrementAndGet() < 3
+						? MockServer.Response.builder().status(502).body("Bad Gateway").build()
+						: MockServer.Response.json("{\"name\":\"repo\"}"));
+		String body = restClient().get().uri("/repos/owner/repo").retrieve().body(String.class);
+		assertThat(body).isEqualTo("{\"name\":\"repo\"}");
+		assertThat(attempts).hasValue(3);
+	}
+
+	@Test
+	void doNotRetryWrites() {
+		this.props.setRetryInterval(Duration.ofMillis(10));
+		AtomicInteger attempts = new AtomicInteger();
+		this.mockServer.PUT("/repos/owner/repo/contents/content/00001.md", request -> {
+			attempts.incrementAndGet();
+			return MockServer.Response.builder().status(502).body("Bad Gateway").build();
+		});
+		assertThatThrownBy(() -> restClient().put()
+			.uri("/repos/owner/repo/contents/content/00001.md")
+			.body("{}")
+			.retrieve()
+			.toBodilessEntity()).isInstanceOf(HttpServerErrorException.BadGateway.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void giveUpOnReadTimeoutAfterBackOff() {
+		this.props.setReadTimeout(Duration.ofMillis(100));
+		this.props.setRetryInterval(Duration.ofMillis(10));
+		this.props.setRetryMaxElapsedTime(Duration.ofMillis(50));
+		this.mockServer.GET("/repos/owner/repo", request -> {
+			try {
+				Thread.sleep(500);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return MockServer.Response.json("{}");
+		});
+		assertThatThrownBy(() -> restClient().get().uri("/repos/owner/repo").retrieve().body(String.class))
+			.isInstanceOf(ResourceAccessException.class)
+			.hasRootCauseInstanceOf(HttpTimeoutException.class);
+	}
+
+	@Test
+	void createClientsOfRegisteredTenants() {
+		Map<String, String> authorizations = new ConcurrentHashMap<>();
+		this.mockServer.addFilter(
+				Filter.beforeHandler("authorization", exchange -> authorizations.put(exchange.getRequestURI().getPath(),
+						exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION))));
+		this.mockServer
+			.GET("/repos/owner/repo",
+					request -> MockServer.Response
+						.json("{\"name\":\"repo\",\"full_name\":\"owner/repo\",\"default_branch\":\"main\"}"))
+			.GET("/raw/owner/repo/main/content/00001.md", request -> MockServer.Response.ok("# Hello"));
+		this.mockServer.run();
+		this.props.setApiUrl("http://127.0.0.1:" + this.mockServer.port());
+		this.props.setRawContentUrl("http://127.0.0.1:" + this.mockServer.port() + "/raw");
+		GitHubProps tenantProps = new GitHubProps();
+		tenantProps.setContentOwner("owner");
+		tenantProps.setContentRepo("repo");
+		tenantProps.setAccessToken("t2-token");
+		@SuppressWarnings("unchecked")
+		ObjectProvider<RestClient.Builder> restClientBuilder = mock(ObjectProvider.class);
+		when(restClientBuilder.getObject()).thenAnswer(invocation -> RestClient.builder());
+		GitHubTenant tenant = new GitHubConfig().gitHubTenantClientFactory(this.props, restClientBuilder)
+			.create("t2", tenantProps);
+		assertThat(tenant.owner()).isEqualTo("owner");
+		assertThat(tenant.client().getRepository("owner", "repo").getBody())
+			.isEqualTo(new Repository("repo", "owner/repo", "main"));
+		assertThat(tenant.userContentClient().getContent("owner", "repo", "main", "content/00001.md").getBody())
+			.asString(StandardCharsets.UTF_8)
+			.isEqualTo("# Hello");
+		assertThat(authorizations).containsEntry("/repos/owner/repo", "token t2-token")
+			.containsEntry("/raw/owner/repo/main/content/00001.md", "token t2-token");
+	}
+
+}
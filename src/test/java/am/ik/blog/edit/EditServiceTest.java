@@ -0,0 +1,50 @@
+package am.ik.blog.edit;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.ai.ChatCallLimiter;
+import am.ik.blog.ai.GeneratedTextCache;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class EditServiceTest {
+
+	EditService editService = new EditService(mock(ChatClient.Builder.class), "N/A", mock(GeneratedTextCache.class),
+			mock(ChatCallLimiter.class), JsonMapper.builder().build(), new BlogProps());
+
+	@Test
+	void parsePatches() {
+		assertThat(this.editService.parsePatches("""
+				[{"index": 1, "text": "Fixed"}, {"index": 5, "text": "Not sent"}]
+				""", List.of(1, 2))).containsOnlyKeys(1).containsEntry(1, "Fixed");
+	}
+
+	@Test
+	void parsePatchesInCodeBlock() {
+		assertThat(this.editService.parsePatches("""
+				```json
+				[{"index": 1, "text": "Fixed"}]
+				```
+				""", List.of(1))).containsEntry(1, "Fixed");
+	}
+
+	@Test
+	void parsePatchesInUnterminatedCodeBlock() {
+		assertThat(this.editService.parsePatches("""
+				```json
+				[{"index": 1, "text": "Fixed"}]
+				""", List.of(1))).containsEntry(1, "Fixed");
+		assertThatThrownBy(() -> this.editService.parsePatches("""
+				```json
+				[{"index": 1, "text": "Trunc""", List.of(1))).isInstanceOfSatisfying(ResponseStatusException.class,
+				e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+	}
+
+}
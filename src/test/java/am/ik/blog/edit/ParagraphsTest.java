@@ -0,0 +1,67 @@
+package am.ik.blog.edit;
+
+import am.ik.blog.edit.Paragraphs.Paragraph;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParagraphsTest {
+
+	static final String MARKDOWN = """
+
+			# Getting started
+
+			This is teh first paragraph.
+			It spans two lines.
+
+			```java
+
+			System.out.println("hello");
+			```
+			![diagram](https://example.com/diagram.png)
+
+			| a | b |
+			|---|---|
+			| 1 | 2 |
+
+
+			Last paragraph""";
+
+	@Test
+	void splitAndJoin() {
+		List<Paragraph> paragraphs = Paragraphs.split(MARKDOWN);
+		assertThat(paragraphs).extracting(Paragraph::text)
+			.containsExactly("", "# Getting started", "This is teh first paragraph.\nIt spans two lines.",
+					"```java\n\nSystem.out.println(\"hello\");\n```", "![diagram](https://example.com/diagram.png)",
+					"| a | b |\n|---|---|\n| 1 | 2 |", "Last paragraph");
+		assertThat(paragraphs).extracting(Paragraph::editable)
+			.containsExactly(false, true, true, false, false, true, true);
+		assertThat(Paragraphs.apply(paragraphs, Map.of())).isEqualTo(MARKDOWN);
+	}
+
+	@Test
+	void applyPatchesToEditableParagraphsOnly() {
+		List<Paragraph> paragraphs = Paragraphs.split(MARKDOWN);
+		String edited = Paragraphs.apply(paragraphs,
+				Map.of(2, "This is the first paragraph.\nIt spans two lines.\n", 3, "```java\n```"));
+		assertThat(edited).isEqualTo(MARKDOWN.replace("teh", "the"));
+	}
+
+	@Test
+	void batchEditableParagraphs() {
+		List<Paragraph> paragraphs = Paragraphs.split("aaaa\n\nbbbb\n\n```\ncode\n```\n\ncccc\n\n" + "d".repeat(20));
+		assertThat(Paragraphs.batches(paragraphs, 8)).containsExactly(List.of(0, 1), List.of(3), List.of(4));
+		assertThat(Paragraphs.batches(paragraphs, 100)).containsExactly(List.of(0, 1, 3, 4));
+	}
+
+	@Test
+	void splitCrLf() {
+		String markdown = "first\r\n\r\nsecond\r\n";
+		List<Paragraph> paragraphs = Paragraphs.split(markdown);
+		assertThat(paragraphs).extracting(Paragraph::text).containsExactly("first", "second");
+		assertThat(Paragraphs.apply(paragraphs, Map.of(1, "2nd"))).isEqualTo("first\r\n\r\n2nd\r\n");
+	}
+
+}
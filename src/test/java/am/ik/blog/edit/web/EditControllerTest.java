@@ -14,6 +14,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.client.RestTestClient;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @Testcontainers(disabledWithoutDocker = true)
 @Import({ TestcontainersConfiguration.class, MockConfig.class })
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
@@ -133,6 +135,47 @@ class EditControllerTest {
 			.isEqualTo(editedText);
 	}
 
+	@Test
+	void edit_stream() {
+		String editedText = "This is the edited text.";
+		setupOpenAiMock(editedText);
+
+		this.client.post()
+			.uri("/tenants/{tenantId}/edit", "_")
+			.headers(headers -> headers.setBasicAuth("admin", "changeme"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.accept(MediaType.TEXT_EVENT_STREAM)
+			.body("""
+					{"content": "Sample blog content about Spring Boot"}
+					""")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+			.expectBody(String.class)
+			.value(body -> assertThat(body).contains("data:{\"content\":\"" + editedText + "\"}"));
+	}
+
+	@Test
+	void edit_successWithProofreadingPatchMode() {
+		setupOpenAiMock("[{\\\"index\\\":1,\\\"text\\\":\\\"This is the first paragraph.\\\"}]");
+
+		this.client.post()
+			.uri("/tenants/{tenantId}/edit", "_")
+			.headers(headers -> headers.setBasicAuth("admin", "changeme"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.body("""
+					{"content": "# Title\\n\\nThis is teh first paragraph.\\n\\n```\\necho hello\\n```\\n", "mode": "PROOFREADING_PATCH"}
+					""")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.content")
+			.isEqualTo("# Title\n\nThis is the first paragraph.\n\n```\necho hello\n```\n");
+	}
+
 	@Test
 	void edit_emptyContent_returnsBadRequest() {
 		this.client.post()
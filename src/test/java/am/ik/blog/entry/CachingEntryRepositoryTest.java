@@ -0,0 +1,245 @@
+package am.ik.blog.entry;
+
+import am.ik.pagination.CursorPage;
+import am.ik.pagination.CursorPageRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingEntryRepositoryTest {
+
+	static final CursorPageRequest<Instant> FIRST_PAGE = new CursorPageRequest<>(null, 20,
+			CursorPageRequest.Navigation.NEXT);
+
+	InMemoryEntryRepository delegate;
+
+	List<Runnable> refreshTasks = new ArrayList<>();
+
+	CachingEntryRepository entryRepository;
+
+	@BeforeEach
+	void setUp() {
+		this.delegate = new InMemoryEntryRepository();
+		this.delegate.saveAll(MockData.ALL_ENTRIES);
+		this.entryRepository = cachingEntryRepository(this.delegate, null, false);
+	}
+
+	CachingEntryRepository cachingEntryRepository(EntryRepository delegate, @Nullable PageLoadLock pageLoadLock,
+			boolean staleWhileRevalidate) {
+		return new CachingEntryRepository(delegate, new ConcurrentMapCache("entryPages"),
+				new ConcurrentMapCache("entry"), new InMemoryContentVersions(), pageLoadLock, Duration.ofMillis(200),
+				staleWhileRevalidate, this.refreshTasks::add);
+	}
+
+	@Test
+	void servePagesFromCache() {
+		SearchCriteria criteria = SearchCriteria.builder().tag("spring-boot").build();
+		CursorPage<Entry, Instant> first = this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		CursorPage<Entry, Instant> second = this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		assertThat(this.delegate.pageQueries).hasValue(1);
+		assertThat(second.content()).isEqualTo(first.content());
+		assertThat(second.hasNext()).isEqualTo(first.hasNext());
+		assertThat(second.tail()).isEqualTo(first.tail());
+	}
+
+	@Test
+	void normalizeCriteria() {
+		this.entryRepository.findOrderByUpdated(null, SearchCriteria.builder().query("spring  boot").build(),
+				FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated("_", SearchCriteria.builder().query(" spring boot ").build(),
+				FIRST_PAGE);
+		assertThat(this.delegate.pageQueries).hasValue(1);
+	}
+
+	@Test
+	void loadPagesWithNormalizedCriteria() {
+		List<Entry> expected = this.delegate
+			.findOrderByUpdated(null, SearchCriteria.builder().tag("spring-boot").build(), FIRST_PAGE)
+			.content();
+		assertThat(expected).isNotEmpty();
+		CursorPage<Entry, Instant> padded = this.entryRepository.findOrderByUpdated(null,
+				SearchCriteria.builder().tag(" spring-boot ").build(), FIRST_PAGE);
+		CursorPage<Entry, Instant> exact = this.entryRepository.findOrderByUpdated(null,
+				SearchCriteria.builder().tag("spring-boot").build(), FIRST_PAGE);
+		assertThat(padded.content()).isEqualTo(expected);
+		assertThat(exact.content()).isEqualTo(expected);
+		// a blank tag does not filter, like no tag
+		CursorPage<Entry, Instant> blank = this.entryRepository.findOrderByUpdated(null,
+				SearchCriteria.builder().tag(" ").build(), FIRST_PAGE);
+		assertThat(blank.content())
+			.isEqualTo(this.delegate.findOrderByUpdated(null, SearchCriteria.NULL_CRITERIA, FIRST_PAGE).content());
+	}
+
+	@Test
+	void distinguishCriteriaAndPageRequest() {
+		this.entryRepository.findOrderByUpdated(null, SearchCriteria.builder().tag("tutorial").build(), FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated(null, SearchCriteria.builder().tag("rest-api").build(), FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated(null,
+				SearchCriteria.builder().categories(List.of("Programming", "Spring")).build(), FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated(null, SearchCriteria.builder().tag("tutorial").build(),
+				new CursorPageRequest<>(Instant.now(), 20, CursorPageRequest.Navigation.NEXT));
+		this.entryRepository.findOrderByUpdated("demo", SearchCriteria.builder().tag("tutorial").build(), FIRST_PAGE);
+		assertThat(this.delegate.pageQueries).hasValue(5);
+	}
+
+	@Test
+	void invalidateTenantOnWrite() {
+		SearchCriteria criteria = SearchCriteria.NULL_CRITERIA;
+		this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated("demo", criteria, FIRST_PAGE);
+		this.entryRepository.updateSummary(MockData.ENTRY1.entryKey(), "updated");
+		this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		this.entryRepository.findOrderByUpdated("demo", criteria, FIRST_PAGE);
+		assertThat(this.delegate.pageQueries).hasValue(3);
+		this.entryRepository.deleteById(MockData.ENTRY2.entryKey());
+		this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		this.entryRepository.save(MockData.ENTRY2);
+		CursorPage<Entry, Instant> page = this.entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		assertThat(this.delegate.pageQueries).hasValue(5);
+		assertThat(page.content()).contains(MockData.ENTRY2);
+	}
+
+	@Test
+	void cacheEntriesUntilWritten() {
+		EntryKey entryKey = MockData.ENTRY1.entryKey();
+		this.entryRepository.findById(entryKey);
+		this.entryRepository.findById(entryKey);
+		assertThat(this.delegate.entryQueries).hasValue(1);
+		this.entryRepository.updateSummary(entryKey, "updated");
+		assertThat(this.entryRepository.findById(entryKey))
+			.hasValueSatisfying(entry -> assertThat(entry.frontMatter().summary()).isEqualTo("updated"));
+		assertThat(this.delegate.entryQueries).hasValue(2);
+		this.entryRepository.deleteById(entryKey);
+		assertThat(this.entryRepository.findById(entryKey)).isEmpty();
+	}
+
+	@Test
+	void serveStalePageWhileRevalidating() {
+		CachingEntryRepository entryRepository = cachingEntryRepository(this.delegate, null, true);
+		SearchCriteria criteria = SearchCriteria.NULL_CRITERIA;
+		entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		entryRepository.deleteById(MockData.ENTRY2.entryKey());
+		CursorPage<Entry, Instant> stale = entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		assertThat(stale.content()).contains(MockData.ENTRY2);
+		assertThat(this.delegate.pageQueries).hasValue(1);
+		assertThat(this.refreshTasks).hasSize(1);
+		this.refreshTasks.getFirst().run();
+		CursorPage<Entry, Instant> refreshed = entryRepository.findOrderByUpdated(null, criteria, FIRST_PAGE);
+		assertThat(refreshed.content()).doesNotContain(MockData.ENTRY2);
+		assertThat(this.delegate.pageQueries).hasValue(2);
+	}
+
+	@Test
+	void coalesceConcurrentMisses() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger queries = new AtomicInteger();
+		InMemoryEntryRepository slowDelegate = new InMemoryEntryRepository() {
+			@Override
+			public CursorPage<Entry, Instant> findOrderByUpdated(@Nullable String tenantId,
+					SearchCriteria searchCriteria, CursorPageRequest<Instant> pageRequest) {
+				queries.incrementAndGet();
+				loading.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.findOrderByUpdated(tenantId, searchCriteria, pageRequest);
+			}
+		};
+		slowDelegate.saveAll(MockData.ALL_ENTRIES);
+		CachingEntryRepository entryRepository = cachingEntryRepository(slowDelegate, null, false);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<CursorPage<Entry, Instant>> first = executor
+				.submit(() -> entryRepository.findOrderByUpdated(null, SearchCriteria.NULL_CRITERIA, FIRST_PAGE));
+			assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+			List<Future<CursorPage<Entry, Instant>>> others = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				others.add(executor
+					.submit(() -> entryRepository.findOrderByUpdated(null, SearchCriteria.NULL_CRITERIA, FIRST_PAGE)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			List<Entry> content = first.get(5, TimeUnit.SECONDS).content();
+			for (Future<CursorPage<Entry, Instant>> other : others) {
+				assertThat(other.get(5, TimeUnit.SECONDS).content()).isEqualTo(content);
+			}
+		}
+		assertThat(queries).hasValue(1);
+	}
+
+	@Test
+	void releaseLockAfterLoading() {
+		List<String> events = new ArrayList<>();
+		PageLoadLock lock = new PageLoadLock() {
+			@Override
+			public boolean tryLock(String key) {
+				events.add("lock");
+				return true;
+			}
+
+			@Override
+			public void unlock(String key) {
+				events.add("unlock");
+			}
+		};
+		CachingEntryRepository entryRepository = cachingEntryRepository(this.delegate, lock, false);
+		entryRepository.findOrderByUpdated(null, SearchCriteria.NULL_CRITERIA, FIRST_PAGE);
+		assertThat(events).containsExactly("lock", "unlock");
+		assertThat(this.delegate.pageQueries).hasValue(1);
+	}
+
+	@Test
+	void loadWhenLockHolderDoesNotCachePage() {
+		PageLoadLock lock = new PageLoadLock() {
+			@Override
+			public boolean tryLock(String key) {
+				return false;
+			}
+
+			@Override
+			public void unlock(String key) {
+			}
+		};
+		CachingEntryRepository entryRepository = cachingEntryRepository(this.delegate, lock, false);
+		CursorPage<Entry, Instant> page = entryRepository.findOrderByUpdated(null, SearchCriteria.NULL_CRITERIA,
+				FIRST_PAGE);
+		assertThat(page.content()).hasSize(MockData.ALL_ENTRIES.size());
+		assertThat(this.delegate.pageQueries).hasValue(1);
+	}
+
+	static class InMemoryContentVersions implements ContentVersions {
+
+		private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+		@Override
+		public long current(String tenantId) {
+			return this.versions.computeIfAbsent(tenantId, k -> new AtomicLong()).get();
+		}
+
+		@Override
+		public long increment(String tenantId) {
+			return this.versions.computeIfAbsent(tenantId, k -> new AtomicLong()).incrementAndGet();
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package am.ik.blog.entry;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.GitHubProps;
+import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubGraphQLClient;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
+import am.ik.blog.github.GitHubUserContentClient;
+import am.ik.blog.github.WebhookSignature;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EntryCacheWarmerTest {
+
+	InMemoryEntryRepository entryRepository = new InMemoryEntryRepository();
+
+	EntryHitCounter entryHitCounter = new EntryHitCounter();
+
+	GitHubTenants gitHubTenants = new GitHubTenants(new GitHubProps(), mock(HttpServiceProxyRegistry.class),
+			(tenantId, tenantProps) -> new GitHubTenant(tenantId, tenantProps.getContentOwner(),
+					tenantProps.getContentRepo(), mock(GitHubClient.class), mock(GitHubGraphQLClient.class),
+					mock(GitHubUserContentClient.class), new WebhookSignature(tenantProps.getWebhookSecret())));
+
+	EntryCacheWarmer warmer() {
+		BlogProps blogProps = new BlogProps();
+		blogProps.getCache().setWarmUpTopEntries(2);
+		return new EntryCacheWarmer(this.entryRepository, this.gitHubTenants, this.entryHitCounter, blogProps);
+	}
+
+	@Test
+	void loadLatestAndMostRequestedEntriesOfTenants() {
+		this.entryHitCounter.increment(new EntryKey(1L));
+		this.entryHitCounter.increment(new EntryKey(2L));
+		this.entryHitCounter.increment(new EntryKey(3L));
+		this.entryHitCounter.increment(new EntryKey(4L, "demo"));
+		warmer().warmUp(List.of(EntryKey.DEFAULT_TENANT_ID, "demo"));
+		assertThat(this.entryRepository.pageQueries).hasValue(2);
+		assertThat(this.entryRepository.entryQueries).hasValue(3);
+	}
+
+	@Test
+	void warmUpRegisteredTenantsOnStartup() {
+		GitHubProps registered = new GitHubProps();
+		registered.setContentOwner("owner");
+		registered.setContentRepo("repo");
+		this.gitHubTenants.refresh(Map.of("demo", registered));
+		this.entryHitCounter.increment(new EntryKey(4L, "demo"));
+		warmer().warmUpOnStartup();
+		assertThat(this.entryRepository.pageQueries).hasValue(2);
+		assertThat(this.entryRepository.entryQueries).hasValue(1);
+	}
+
+}
@@ -0,0 +1,37 @@
+package am.ik.blog.entry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntryHitCounterTest {
+
+	@Test
+	void topEntriesOfTenant() {
+		EntryHitCounter counter = new EntryHitCounter();
+		for (int i = 0; i < 3; i++) {
+			counter.increment(new EntryKey(1L));
+		}
+		for (int i = 0; i < 5; i++) {
+			counter.increment(new EntryKey(2L));
+		}
+		counter.increment(new EntryKey(3L));
+		for (int i = 0; i < 10; i++) {
+			counter.increment(new EntryKey(4L, "demo"));
+		}
+		assertThat(counter.top(EntryKey.DEFAULT_TENANT_ID, 2)).containsExactly(new EntryKey(2L), new EntryKey(1L));
+		assertThat(counter.top("demo", 2)).containsExactly(new EntryKey(4L, "demo"));
+	}
+
+	@Test
+	void ignoreNewEntriesOnceLimitIsReached() {
+		EntryHitCounter counter = new EntryHitCounter();
+		for (long i = 0; i < EntryHitCounter.MAX_TRACKED_ENTRIES; i++) {
+			counter.increment(new EntryKey(i));
+		}
+		counter.increment(new EntryKey(-1L));
+		counter.increment(new EntryKey(0L));
+		assertThat(counter.top(EntryKey.DEFAULT_TENANT_ID, 1)).containsExactly(new EntryKey(0L));
+	}
+
+}
@@ -0,0 +1,61 @@
+package am.ik.blog.entry;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.GitHubProps;
+import am.ik.blog.github.GitHubTenants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EntryInitializerTest {
+
+	InMemoryEntryRepository entryRepository = new InMemoryEntryRepository();
+
+	List<String> fetched = new ArrayList<>();
+
+	@Test
+	void skipOnlyFailingEntriesOfFailedBatch() throws Exception {
+		EntryFetcher entryFetcher = new EntryFetcher() {
+			@Override
+			public Optional<Entry> fetch(@Nullable String tenantId, String owner, String repo, String path) {
+				fetched.add(path);
+				return switch (path) {
+					case "content/00001.md" -> Optional.of(MockData.ENTRY1);
+					case "content/00002.md" -> throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+					case "content/00003.md" -> throw new HttpClientErrorException(HttpStatus.FORBIDDEN);
+					default -> Optional.of(MockData.ENTRY2);
+				};
+			}
+
+			@Override
+			public List<Entry> fetchAll(@Nullable String tenantId, String owner, String repo, @Nullable String ref,
+					List<String> paths) {
+				throw new HttpClientErrorException(HttpStatus.FORBIDDEN);
+			}
+		};
+		BlogProps blogProps = new BlogProps();
+		blogProps.getInit().setEnabled(true);
+		blogProps.getInit().getFetch().setFrom(1);
+		blogProps.getInit().getFetch().setTo(4);
+		GitHubProps gitHubProps = new GitHubProps();
+		gitHubProps.setContentOwner("owner");
+		gitHubProps.setContentRepo("repo");
+		GitHubTenants gitHubTenants = new GitHubTenants(gitHubProps, mock(HttpServiceProxyRegistry.class), (_, _) -> {
+			throw new UnsupportedOperationException();
+		});
+		new EntryInitializer(blogProps, gitHubTenants, entryFetcher, this.entryRepository).run();
+		assertThat(this.fetched).containsExactly("content/00001.md", "content/00002.md", "content/00003.md",
+				"content/00004.md");
+		assertThat(this.entryRepository.findById(MockData.ENTRY1.entryKey())).isPresent();
+		assertThat(this.entryRepository.findById(MockData.ENTRY2.entryKey())).isPresent();
+	}
+
+}
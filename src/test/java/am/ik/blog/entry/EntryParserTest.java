@@ -0,0 +1,98 @@
+package am.ik.blog.entry;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntryParserTest {
+
+	EntryParser entryParser = new EntryParser();
+
+	Author created = Author.builder().name("foo").build();
+
+	Author updated = Author.builder().name("bar").build();
+
+	@Test
+	void fromMarkdown() {
+		Entry entry = this.entryParser.fromMarkdown(new EntryKey(100L, "t1"), """
+				---
+				title: Hello World
+				summary: A greeting
+				tags: ["Java", "Spring Boot"]
+				categories: ["Programming", "Java"]
+				date: 2025-01-01T09:00:00Z
+				updated: 2025-01-02T10:30:00.123Z
+				---
+
+				# Hello
+
+				World
+				""", this.created, this.updated).build();
+		assertThat(entry.entryKey()).isEqualTo(new EntryKey(100L, "t1"));
+		assertThat(entry.frontMatter()).isEqualTo(
+				new FrontMatter("Hello World", "A greeting", List.of(new Category("Programming"), new Category("Java")),
+						List.of(new Tag("Java"), new Tag("Spring Boot"))));
+		assertThat(entry.content()).isEqualTo("# Hello\n\nWorld");
+		assertThat(entry.created()).isEqualTo(new Author("foo", Instant.parse("2025-01-01T09:00:00Z")));
+		assertThat(entry.updated()).isEqualTo(new Author("bar", Instant.parse("2025-01-02T10:30:00.123Z")));
+	}
+
+	@Test
+	void coerceScalarsToStrings() {
+		Entry entry = this.entryParser.fromMarkdown(new EntryKey(1L), """
+				---
+				title: 2024
+				summary: true
+				tags: [{name: "Java", version: 21}, {name: "Spring"}]
+				categories: [{name: "a"}, "b"]
+				---
+				Content
+				""", this.created, this.updated).build();
+		assertThat(entry.frontMatter()).isEqualTo(new FrontMatter("2024", "true",
+				List.of(new Category("a"), new Category("b")), List.of(new Tag("Java", "21"), new Tag("Spring"))));
+		assertThat(entry.created()).isEqualTo(this.created);
+		assertThat(entry.updated()).isEqualTo(this.updated);
+	}
+
+	@Test
+	void defaultsForMissingFields() {
+		Entry entry = this.entryParser.fromMarkdown(new EntryKey(1L), """
+				---
+				title: Hello
+				---
+				Content
+				""", this.created, this.updated).build();
+		assertThat(entry.frontMatter()).isEqualTo(new FrontMatter("Hello", "", List.of(), List.of()));
+	}
+
+	@Test
+	void rejectMarkdownWithoutFrontMatter() {
+		assertThatThrownBy(() -> this.entryParser.fromMarkdown(new EntryKey(1L), "# Hello", this.created, this.updated))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("FrontMatter must not be null");
+	}
+
+	@Test
+	void rejectUnbindableValues() {
+		assertThatThrownBy(() -> this.entryParser.fromMarkdown(new EntryKey(1L), """
+				---
+				title: Hello
+				tags: [2024]
+				---
+				Content
+				""", this.created, this.updated)).isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("tags");
+		assertThatThrownBy(() -> this.entryParser.fromMarkdown(new EntryKey(1L), """
+				---
+				title: Hello
+				categories: a
+				---
+				Content
+				""", this.created, this.updated)).isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("categories");
+	}
+
+}
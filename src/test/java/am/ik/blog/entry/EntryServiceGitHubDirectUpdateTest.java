@@ -3,11 +3,14 @@ package am.ik.blog.entry;
 import am.ik.blog.GitHubProps;
 import am.ik.blog.MockConfig;
 import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubTenants;
 import am.ik.blog.mockserver.MockServer;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,7 +26,6 @@ import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 import org.springframework.web.service.registry.HttpServiceProxyRegistry;
-import tools.jackson.databind.json.JsonMapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -86,13 +88,20 @@ class EntryServiceGitHubDirectUpdateTest {
 
 		@Bean
 		EntryParser entryParser() {
-			return new EntryParser(JsonMapper.builder().build());
+			return new EntryParser();
 		}
 
 		@Bean
-		EntryService entryService(EntryRepository entryRepository, GitHubProps gitHubProps,
-				HttpServiceProxyRegistry registry, EntryParser entryParser) {
-			return new EntryService(entryRepository, gitHubProps, registry, entryParser);
+		GitHubTenants gitHubTenants(GitHubProps gitHubProps, HttpServiceProxyRegistry registry) {
+			return new GitHubTenants(gitHubProps, registry, (tenantId, props) -> {
+				throw new UnsupportedOperationException(tenantId);
+			});
+		}
+
+		@Bean
+		EntryService entryService(EntryRepository entryRepository, GitHubProps gitHubProps, GitHubTenants gitHubTenants,
+				EntryParser entryParser) {
+			return new EntryService(entryRepository, gitHubProps, gitHubTenants, entryParser);
 		}
 
 	}
@@ -424,6 +433,148 @@ class EntryServiceGitHubDirectUpdateTest {
 		}
 	}
 
+	@Test
+	void saveAll_shouldCommitAllEntriesAtOnce() {
+		List<Entry> entries = List.of(createTestEntry(8L), createTestEntry(9L));
+		List<String> treeRequests = new CopyOnWriteArrayList<>();
+		List<String> commitRequests = new CopyOnWriteArrayList<>();
+		stubGitDataApi(treeRequests, commitRequests, new AtomicInteger(), 0);
+
+		this.entryService.saveAll(null, entries);
+
+		assertThat(treeRequests).hasSize(1);
+		assertThat(treeRequests.getFirst()).contains("\"base_tree\":\"tree1\"")
+			.contains("\"path\":\"content/00008.md\"")
+			.contains("\"path\":\"content/00009.md\"")
+			.contains("Test content for entry 9");
+		assertThat(commitRequests).hasSize(1);
+		assertThat(commitRequests.getFirst()).contains("\"message\":\"Update 2 entries\"")
+			.contains("\"parents\":[\"head1\"]");
+		verify(this.entryRepository).saveAll(entries);
+	}
+
+	@Test
+	void saveAll_shouldRetryWhenBranchMoved() {
+		List<Entry> entries = List.of(createTestEntry(10L));
+		List<String> treeRequests = new CopyOnWriteArrayList<>();
+		List<String> commitRequests = new CopyOnWriteArrayList<>();
+		AtomicInteger branchUpdates = new AtomicInteger();
+		stubGitDataApi(treeRequests, commitRequests, branchUpdates, 1);
+
+		this.entryService.saveAll(null, entries);
+
+		assertThat(branchUpdates).hasValue(2);
+		assertThat(treeRequests).hasSize(2);
+		assertThat(commitRequests).hasSize(2);
+		assertThat(commitRequests.getLast()).contains("\"message\":\"Update entry 00010\"")
+			.contains("\"parents\":[\"head2\"]");
+		verify(this.entryRepository).saveAll(entries);
+	}
+
+	@Test
+	void saveAll_shouldNotSaveToRepositoryWhenCommitFails() {
+		this.mockServer
+			.GET("/repos/test-owner/test-repo",
+					request -> MockServer.Response.json("{\"name\":\"test-repo\",\"default_branch\":\"main\"}"))
+			.GET("/repos/test-owner/test-repo/git/ref/heads/main",
+					request -> MockServer.Response.builder()
+						.status(500)
+						.contentType(MediaType.APPLICATION_JSON_VALUE)
+						.body("{\"message\":\"Server Error\"}")
+						.build());
+
+		assertThatThrownBy(() -> this.entryService.saveAll(null, List.of(createTestEntry(11L))))
+			.isInstanceOf(ResponseStatusException.class)
+			.hasMessageContaining("Failed to get branch on GitHub");
+
+		verify(this.entryRepository, never()).saveAll(any(List.class));
+	}
+
+	@Test
+	void saveAndDeleteAll_shouldCommitDeletionsInTheSameTree() {
+		List<Entry> entries = List.of(createTestEntry(8L));
+		List<String> treeRequests = new CopyOnWriteArrayList<>();
+		List<String> commitRequests = new CopyOnWriteArrayList<>();
+		stubGitDataApi(treeRequests, commitRequests, new AtomicInteger(), 0);
+
+		this.entryService.saveAndDeleteAll(null, entries, List.of(new EntryKey(12L, null), new EntryKey(13L, null)));
+
+		assertThat(treeRequests).hasSize(1);
+		assertThat(treeRequests.getFirst()).contains("\"path\":\"content/00008.md\"")
+			.contains("{\"path\":\"content/00012.md\",\"mode\":\"100644\",\"type\":\"blob\",\"sha\":null}")
+			.doesNotContain("content/00013.md");
+		assertThat(commitRequests).hasSize(1);
+		assertThat(commitRequests.getFirst()).contains("\"message\":\"Update entry 00008 and delete 2 entries\"");
+		verify(this.entryRepository).saveAll(entries);
+		verify(this.entryRepository).deleteById(new EntryKey(12L, null));
+		verify(this.entryRepository).deleteById(new EntryKey(13L, null));
+	}
+
+	@Test
+	void deleteAll_shouldNotCommitWhenNoFileExists() {
+		List<String> treeRequests = new CopyOnWriteArrayList<>();
+		List<String> commitRequests = new CopyOnWriteArrayList<>();
+		AtomicInteger branchUpdates = new AtomicInteger();
+		stubGitDataApi(treeRequests, commitRequests, branchUpdates, 0);
+
+		this.entryService.deleteAll(null, List.of(new EntryKey(13L, null)));
+
+		assertThat(treeRequests).isEmpty();
+		assertThat(commitRequests).isEmpty();
+		assertThat(branchUpdates).hasValue(0);
+		verify(this.entryRepository).deleteById(new EntryKey(13L, null));
+	}
+
+	/**
+	 * Stubs the Git Data API of a branch that moves under the first {@code conflicts}
+	 * updates.
+	 */
+	private void stubGitDataApi(List<String> treeRequests, List<String> commitRequests, AtomicInteger branchUpdates,
+			int conflicts) {
+		this.mockServer
+			.GET("/repos/test-owner/test-repo",
+					request -> MockServer.Response.json("{\"name\":\"test-repo\",\"default_branch\":\"main\"}"))
+			.GET("/repos/test-owner/test-repo/git/ref/heads/main",
+					request -> MockServer.Response
+						.json("{\"ref\":\"refs/heads/main\",\"object\":{\"sha\":\"head%d\",\"type\":\"commit\"}}"
+							.formatted(branchUpdates.get() + 1)))
+			.GET("/repos/test-owner/test-repo/git/commits/head1",
+					request -> MockServer.Response.json("{\"sha\":\"head1\",\"tree\":{\"sha\":\"tree1\"}}"))
+			.GET("/repos/test-owner/test-repo/git/commits/head2",
+					request -> MockServer.Response.json("{\"sha\":\"head2\",\"tree\":{\"sha\":\"tree2\"}}"))
+			.GET("/repos/test-owner/test-repo/git/trees/tree1", request -> MockServer.Response.json("""
+					{"sha":"tree1","tree":[
+					  {"path":"README.md","mode":"100644","type":"blob","sha":"readme"},
+					  {"path":"content","mode":"040000","type":"tree","sha":"content1"}
+					]}
+					"""))
+			.GET("/repos/test-owner/test-repo/git/trees/content1", request -> MockServer.Response.json("""
+					{"sha":"content1","tree":[
+					  {"path":"00008.md","mode":"100644","type":"blob","sha":"blob8"},
+					  {"path":"00012.md","mode":"100644","type":"blob","sha":"blob12"}
+					]}
+					"""))
+			.POST("/repos/test-owner/test-repo/git/trees", request -> {
+				treeRequests.add(request.body());
+				return MockServer.Response.json("{\"sha\":\"newtree\"}");
+			})
+			.POST("/repos/test-owner/test-repo/git/commits", request -> {
+				commitRequests.add(request.body());
+				return MockServer.Response.json("{\"sha\":\"newcommit\",\"tree\":{\"sha\":\"newtree\"}}");
+			})
+			.PATCH("/repos/test-owner/test-repo/git/refs/heads/main", request -> {
+				if (branchUpdates.incrementAndGet() <= conflicts) {
+					return MockServer.Response.builder()
+						.status(422)
+						.contentType(MediaType.APPLICATION_JSON_VALUE)
+						.body("{\"message\":\"Update is not a fast forward\"}")
+						.build();
+				}
+				return MockServer.Response
+					.json("{\"ref\":\"refs/heads/main\",\"object\":{\"sha\":\"newcommit\",\"type\":\"commit\"}}");
+			});
+	}
+
 	private Entry createTestEntry(Long id) {
 		Instant now = Instant.now();
 		return Entry.builder()
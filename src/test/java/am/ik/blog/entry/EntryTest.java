@@ -0,0 +1,74 @@
+package am.ik.blog.entry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntryTest {
+
+	static final List<Entry> ENTRIES = List.of(MockData.ENTRY1, MockData.ENTRY2, MockData.ENTRY3, MockData.ENTRY4,
+			MockData.ENTRY5, MockData.ENTRY6, MockData.ENTRY7, MockData.ENTRY8, MockData.ENTRY9,
+			Entry.builder()
+				.entryKey(new EntryKey(100L, "t1"))
+				.frontMatter(FrontMatter.builder()
+					.title("日本語のタイトル")
+					.summary("要約 ✨")
+					.categories(new Category("a"))
+					.tags(new Tag("x"), new Tag("y", "1.0"))
+					.build())
+				.content("本文\n\n```java\nclass Foo {}\n```")
+				.created(Author.builder().name("foo").date(Instant.parse("2025-01-01T00:00:00.123Z")).build())
+				.updated(Author.builder().name("bar").build())
+				.build(),
+			Entry.builder()
+				.entryKey(new EntryKey(101L, null))
+				.frontMatter(FrontMatter.builder().title("Untitled").build())
+				.created(Author.builder().name("foo").build())
+				.updated(Author.builder().name("foo").date(Instant.parse("2025-01-01T00:00:00Z")).build())
+				.build());
+
+	@Test
+	void toMarkdownIsIdenticalToFormattedMarkdown() {
+		for (Entry entry : ENTRIES) {
+			assertThat(entry.toMarkdown()).isEqualTo(formattedMarkdown(entry));
+		}
+	}
+
+	@Test
+	void toBase64Markdown() {
+		for (Entry entry : ENTRIES) {
+			assertThat(entry.toBase64Markdown()).isEqualTo(
+					Base64.getEncoder().encodeToString(formattedMarkdown(entry).getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	/**
+	 * The original implementation of {@link Entry#toMarkdown()}.
+	 */
+	static String formattedMarkdown(Entry entry) {
+		FrontMatter frontMatter = entry.frontMatter();
+		return """
+				---
+				title: %s%s
+				tags: %s
+				categories: %s%s%s
+				---
+
+				%s
+				""".formatted(frontMatter.title(),
+				StringUtils.hasLength(frontMatter.summary()) ? "%nsummary: %s".formatted(frontMatter.summary()) : "",
+				frontMatter.tags().stream().map(t -> "\"%s\"".formatted(t.name())).toList(),
+				frontMatter.categories().stream().map(c -> "\"%s\"".formatted(c.name())).toList(),
+				entry.created().date() == null ? ""
+						: "%n%s: %s".formatted(FrontMatter.DATE_FIELD, entry.created().date()),
+				entry.updated().date() == null ? ""
+						: "%n%s: %s".formatted(FrontMatter.UPDATE_FIELD, entry.updated().date()),
+				entry.content());
+	}
+
+}
@@ -0,0 +1,118 @@
+package am.ik.blog.entry;
+
+import am.ik.pagination.CursorPage;
+import am.ik.pagination.CursorPageRequest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Simple {@link EntryRepository} for unit tests that counts page and entry queries.
+ */
+public class InMemoryEntryRepository implements EntryRepository {
+
+	private final Map<EntryKey, Entry> entries = new ConcurrentHashMap<>();
+
+	final AtomicInteger pageQueries = new AtomicInteger();
+
+	final AtomicInteger entryQueries = new AtomicInteger();
+
+	@Override
+	public Optional<Entry> findById(EntryKey entryKey) {
+		this.entryQueries.incrementAndGet();
+		return Optional.ofNullable(this.entries.get(entryKey));
+	}
+
+	@Override
+	public List<Entry> findAll(List<EntryKey> entryKeys) {
+		return entryKeys.stream().map(this.entries::get).filter(Objects::nonNull).toList();
+	}
+
+	@Override
+	public CursorPage<Entry, Instant> findOrderByUpdated(@Nullable String tenantId, SearchCriteria searchCriteria,
+			CursorPageRequest<Instant> pageRequest) {
+		this.pageQueries.incrementAndGet();
+		String tag = searchCriteria.tag();
+		List<Entry> matched = this.entries.values()
+			.stream()
+			.filter(entry -> entry.entryKey().tenantId().equals(EntryKey.requireNonNullTenantId(tenantId)))
+			.filter(entry -> tag == null || entry.frontMatter().tags().stream().anyMatch(t -> t.name().equals(tag)))
+			.sorted(Comparator.comparing(Entry::toCursor, Comparator.nullsLast(Comparator.reverseOrder())))
+			.toList();
+		List<Entry> content = matched.stream().limit(pageRequest.pageSize()).toList();
+		return new CursorPage<>(content, pageRequest.pageSize(), entry -> Objects.requireNonNull(entry.toCursor()),
+				false, matched.size() > pageRequest.pageSize());
+	}
+
+	@Override
+	public List<List<Category>> findAllCategories(@Nullable String tenantId) {
+		return List.of();
+	}
+
+	@Override
+	public List<TagAndCount> findAllTags(@Nullable String tenantId) {
+		return List.of();
+	}
+
+	@Override
+	public Entry save(Entry entry) {
+		this.entries.put(entry.entryKey(), entry);
+		return entry;
+	}
+
+	@Override
+	public Long nextId(@Nullable String tenantId) {
+		return this.entries.size() + 1L;
+	}
+
+	@Override
+	public void saveAll(Entry... entries) {
+		this.saveAll(Arrays.asList(entries));
+	}
+
+	@Override
+	public void saveAll(List<Entry> entries) {
+		entries.forEach(this::save);
+	}
+
+	@Override
+	public void deleteById(EntryKey entryKey) {
+		this.entries.remove(entryKey);
+	}
+
+	@Override
+	public void updateSummary(EntryKey entryKey, String summary) {
+		this.entries.computeIfPresent(entryKey,
+				(key, entry) -> entry.toBuilder()
+					.frontMatter(entry.frontMatter().toBuilder().summary(summary).build())
+					.build());
+	}
+
+	@Override
+	public void updateSummaries(Map<EntryKey, String> summaries) {
+		summaries.forEach((entryKey, summary) -> this.entries
+			.computeIfPresent(entryKey, (key, entry) -> entry.frontMatter().summary().isEmpty()
+					? entry.toBuilder().frontMatter(entry.frontMatter().toBuilder().summary(summary).build()).build()
+					: entry));
+	}
+
+	@Override
+	public List<Entry> findWithoutSummary(String tenantId, long afterEntryId, int limit) {
+		return this.entries.values()
+			.stream()
+			.filter(entry -> entry.entryKey().tenantId().equals(tenantId))
+			.filter(entry -> entry.entryKey().entryId() > afterEntryId)
+			.filter(entry -> entry.frontMatter().summary().isEmpty())
+			.sorted(Comparator.comparing(entry -> entry.entryKey().entryId()))
+			.limit(limit)
+			.toList();
+	}
+
+}
@@ -0,0 +1,73 @@
+package am.ik.blog.entry.codec;
+
+import am.ik.blog.entry.CachingEntryRepository.CachedPage;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.MockData;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JacksonJsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodecRedisSerializerTest {
+
+	JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	JacksonJsonRedisSerializer<Entry> entryJson = new JacksonJsonRedisSerializer<>(this.jsonMapper, Entry.class);
+
+	CodecRedisSerializer<Entry> entrySerializer = new CodecRedisSerializer<>(new EntryCodec(), Entry.class,
+			this.entryJson, 2048);
+
+	@Test
+	void roundTripEntry() {
+		for (Entry entry : List.of(MockData.ENTRY1, MockData.ENTRY2, MockData.ENTRY3)) {
+			byte[] bytes = this.entrySerializer.serialize(entry);
+			assertThat(bytes[0]).isEqualTo(CodecRedisSerializer.MAGIC);
+			assertThat(bytes.length).isLessThan(this.entryJson.serialize(entry).length);
+			assertThat(this.entrySerializer.deserialize(bytes)).isEqualTo(entry);
+		}
+	}
+
+	@Test
+	void roundTripCachedPage() {
+		CodecRedisSerializer<CachedPage> serializer = new CodecRedisSerializer<>(new CachedPageCodec(),
+				CachedPage.class, new JacksonJsonRedisSerializer<>(this.jsonMapper, CachedPage.class), -1);
+		CachedPage page = new CachedPage(List.of(MockData.ENTRY1, MockData.ENTRY2), 2, false, true, 42);
+		assertThat(serializer.deserialize(serializer.serialize(page))).isEqualTo(page);
+	}
+
+	@Test
+	void compressLargeValues() {
+		Entry entry = MockData.ENTRY1.toBuilder().content("Hello World!\n".repeat(1000)).build();
+		byte[] bytes = this.entrySerializer.serialize(entry);
+		assertThat(bytes[2] & CodecRedisSerializer.FLAG_DEFLATED).isNotZero();
+		assertThat(bytes.length).isLessThan(2048);
+		assertThat(this.entrySerializer.deserialize(bytes)).isEqualTo(entry);
+	}
+
+	@Test
+	void readJsonValues() {
+		byte[] json = this.entryJson.serialize(MockData.ENTRY1);
+		assertThat(this.entrySerializer.deserialize(json)).isEqualTo(MockData.ENTRY1);
+	}
+
+	@Test
+	void treatUnknownFormatVersionAsMiss() {
+		byte[] bytes = this.entrySerializer.serialize(MockData.ENTRY1);
+		bytes[1] = (byte) 99;
+		assertThat(this.entrySerializer.deserialize(bytes)).isNull();
+	}
+
+	@Test
+	void rejectTruncatedValues() {
+		byte[] bytes = this.entrySerializer.serialize(MockData.ENTRY1);
+		byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+		assertThatThrownBy(() -> this.entrySerializer.deserialize(truncated))
+			.isInstanceOf(SerializationException.class);
+	}
+
+}
@@ -0,0 +1,106 @@
+package am.ik.blog.entry.dsql;
+
+import am.ik.blog.BlogProps;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConflictRetryOperationsTest {
+
+	SimpleMeterRegistry meterRegistry;
+
+	BlogProps blogProps;
+
+	@BeforeEach
+	void setUp() {
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.blogProps = new BlogProps();
+		this.blogProps.getRetry().setDelay(Duration.ofMillis(1));
+		this.blogProps.getRetry().setJitter(Duration.ZERO);
+		this.blogProps.getRetry().setMaxDelay(Duration.ofMillis(5));
+	}
+
+	@Test
+	void retryUntilSuccess() {
+		ConflictRetryOperations retryOperations = new ConflictRetryOperations(this.blogProps, this.meterRegistry);
+		AtomicInteger attempts = new AtomicInteger();
+		String result = retryOperations.execute("save", () -> {
+			if (attempts.incrementAndGet() < 3) {
+				throw new OptimisticLockingFailureException("conflict");
+			}
+			return "ok";
+		});
+		assertThat(result).isEqualTo("ok");
+		assertThat(attempts).hasValue(3);
+		assertThat(count("save", "retry")).isEqualTo(2);
+		assertThat(count("save", "recovered")).isEqualTo(1);
+	}
+
+	@Test
+	void rethrowWhenRetriesAreExhausted() {
+		this.blogProps.getRetry().setMaxRetries(2);
+		ConflictRetryOperations retryOperations = new ConflictRetryOperations(this.blogProps, this.meterRegistry);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatThrownBy(() -> retryOperations.execute("delete", () -> {
+			attempts.incrementAndGet();
+			throw new OptimisticLockingFailureException("conflict");
+		})).isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(attempts).hasValue(3);
+		assertThat(count("delete", "exhausted")).isEqualTo(1);
+	}
+
+	@Test
+	void doNotRetryOtherExceptions() {
+		ConflictRetryOperations retryOperations = new ConflictRetryOperations(this.blogProps, this.meterRegistry);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatThrownBy(() -> retryOperations.execute("save", () -> {
+			attempts.incrementAndGet();
+			throw new DataIntegrityViolationException("duplicate");
+		})).isInstanceOf(DataIntegrityViolationException.class);
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	void stopRetryingWhenBudgetIsExhausted() {
+		this.blogProps.getRetry().setBudgetCapacity(1);
+		this.blogProps.getRetry().setBudgetRatio(0);
+		ConflictRetryOperations retryOperations = new ConflictRetryOperations(this.blogProps, this.meterRegistry);
+		AtomicInteger attempts = new AtomicInteger();
+		assertThatThrownBy(() -> retryOperations.execute("save", () -> {
+			attempts.incrementAndGet();
+			throw new OptimisticLockingFailureException("conflict");
+		})).isInstanceOf(OptimisticLockingFailureException.class);
+		assertThat(attempts).hasValue(2);
+		assertThat(retryOperations.retryBudget().available()).isZero();
+	}
+
+	@Test
+	void budgetIsReplenishedByOperations() {
+		ConflictRetryOperations.RetryBudget budget = new ConflictRetryOperations.RetryBudget(2, 0.5);
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isTrue();
+		assertThat(budget.tryAcquire()).isFalse();
+		budget.deposit();
+		assertThat(budget.tryAcquire()).isFalse();
+		budget.deposit();
+		assertThat(budget.tryAcquire()).isTrue();
+		for (int i = 0; i < 10; i++) {
+			budget.deposit();
+		}
+		assertThat(budget.available()).isEqualTo(2.0);
+	}
+
+	double count(String operation, String outcome) {
+		return this.meterRegistry
+			.counter(ConflictRetryOperations.METRIC_NAME, "operation", operation, "outcome", outcome)
+			.count();
+	}
+
+}
@@ -15,6 +15,7 @@ import am.ik.pagination.CursorPageRequest;
 import am.ik.pagination.CursorPageRequest.Navigation;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -81,6 +82,23 @@ class DsqlEntryRepositoryTest {
 			.build();
 	}
 
+	@Test
+	void findWithoutSummaryAndUpdateSummaries() {
+		List<Entry> entries = this.entryRepository.findWithoutSummary(EntryKey.DEFAULT_TENANT_ID, 2L, 3);
+		assertThat(entries).extracting(e -> e.entryKey().entryId()).containsExactly(3L, 4L, 5L);
+		assertThat(entries).allSatisfy(e -> assertThat(e.content()).isNotEmpty());
+		this.entryRepository.updateSummary(new EntryKey(5L), "Edited 5");
+		this.entryRepository.updateSummaries(
+				Map.of(new EntryKey(3L), "Summary 3", new EntryKey(4L), "Summary 4", new EntryKey(5L), "Summary 5"));
+		assertThat(this.entryRepository.findById(new EntryKey(4L)).orElseThrow().frontMatter().summary())
+			.isEqualTo("Summary 4");
+		assertThat(this.entryRepository.findById(new EntryKey(5L)).orElseThrow().frontMatter().summary())
+			.isEqualTo("Edited 5");
+		assertThat(this.entryRepository.findWithoutSummary(EntryKey.DEFAULT_TENANT_ID, 2L, 3))
+			.extracting(e -> e.entryKey().entryId())
+			.containsExactly(6L, 7L, 8L);
+	}
+
 	@Test
 	void findAllWithEntryKeys() {
 		List<Entry> entries = this.entryRepository
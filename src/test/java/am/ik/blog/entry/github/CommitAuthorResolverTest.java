@@ -0,0 +1,93 @@
+package am.ik.blog.entry.github;
+
+import am.ik.blog.entry.Author;
+import am.ik.blog.github.GraphQLResponse;
+import am.ik.blog.github.LocalCommitHistory;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CommitAuthorResolverTest {
+
+	CommitAuthorResolver resolver = new CommitAuthorResolver();
+
+	LocalCommitHistory history = new LocalCommitHistory();
+
+	@Test
+	void resolveFirstAndLastAuthors() {
+		this.history.commit("content/00001.md", "alice", Instant.parse("2025-01-01T00:00:00Z"))
+			.commit("content/00001.md", "bob", Instant.parse("2025-01-02T00:00:00Z"))
+			.commit("content/00001.md", "carol", Instant.parse("2025-01-03T00:00:00Z"))
+			.commit("content/00002.md", "dave", Instant.parse("2025-02-01T00:00:00Z"));
+		Map<String, CommitAuthorResolver.Authors> authors = this.resolver.resolve(this.history, "owner", "repo",
+				List.of("content/00001.md", "content/00002.md", "content/00003.md"));
+		assertThat(authors).containsOnlyKeys("content/00001.md", "content/00002.md", "content/00003.md");
+		assertThat(authors.get("content/00001.md"))
+			.isEqualTo(new CommitAuthorResolver.Authors(new Author("alice", Instant.parse("2025-01-01T00:00:00Z")),
+					new Author("carol", Instant.parse("2025-01-03T00:00:00Z"))));
+		assertThat(authors.get("content/00002.md"))
+			.isEqualTo(new CommitAuthorResolver.Authors(new Author("dave", Instant.parse("2025-02-01T00:00:00Z")),
+					new Author("dave", Instant.parse("2025-02-01T00:00:00Z"))));
+		assertThat(authors.get("content/00003.md")).isEqualTo(CommitAuthorResolver.Authors.unknown());
+		assertThat(this.history.queries()).isEqualTo(2);
+	}
+
+	@Test
+	void skipSecondQueryWhenEveryPathHasOneCommit() {
+		this.history.commit("content/00001.md", "alice", Instant.parse("2025-01-01T00:00:00Z"));
+		assertThat(this.resolver.resolve(this.history, "owner", "repo", List.of("content/00001.md")))
+			.containsOnlyKeys("content/00001.md");
+		assertThat(this.history.queries()).isEqualTo(1);
+	}
+
+	@Test
+	void resolveManyPathsInBatches() {
+		List<String> paths = IntStream.rangeClosed(1, CommitAuthorResolver.BATCH_SIZE + 1)
+			.mapToObj("content/%05d.md"::formatted)
+			.toList();
+		paths.forEach(path -> this.history.commit(path, "alice", Instant.parse("2025-01-01T00:00:00Z"))
+			.commit(path, "bob", Instant.parse("2025-01-02T00:00:00Z")));
+		Map<String, CommitAuthorResolver.Authors> authors = this.resolver.resolve(this.history, "owner", "repo", paths);
+		assertThat(authors).hasSize(paths.size());
+		assertThat(authors.values()).allSatisfy(a -> {
+			assertThat(a.created().name()).isEqualTo("alice");
+			assertThat(a.updated().name()).isEqualTo("bob");
+		});
+		assertThat(this.history.queries()).isEqualTo(4);
+	}
+
+	@Test
+	void failWhenRepositoryIsNotAccessible() {
+		assertThatThrownBy(() -> this.resolver.resolve(
+				_ -> ResponseEntity.ok(new GraphQLResponse(null,
+						List.of(new GraphQLResponse.Error("Could not resolve to a Repository")))),
+				"owner", "repo", List.of("content/00001.md")))
+			.isInstanceOfSatisfying(ResponseStatusException.class,
+					e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY));
+	}
+
+	@Test
+	void failWhenRequestIsRejected() {
+		assertThatThrownBy(() -> this.resolver.resolve(
+				_ -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new GraphQLResponse(null, null)), "owner",
+				"repo", List.of("content/00001.md")))
+			.isInstanceOfSatisfying(ResponseStatusException.class,
+					e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED));
+	}
+
+	@Test
+	void failWhenNoDataIsReturned() {
+		assertThatThrownBy(() -> this.resolver.resolve(_ -> ResponseEntity.ok(new GraphQLResponse(null, null)), "owner",
+				"repo", List.of("content/00001.md")))
+			.isInstanceOf(ResponseStatusException.class);
+	}
+
+}
@@ -0,0 +1,28 @@
+package am.ik.blog.entry.web;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedInputStreamTest {
+
+	@Test
+	void rejectBodyLargerThanLimit() {
+		BoundedInputStream body = new BoundedInputStream(new ByteArrayInputStream(
+				"{\"repository\": {\"full_name\": \"public/blog\"}, \"commits\": []}".getBytes(StandardCharsets.UTF_8)),
+				16);
+		assertThatThrownBy(() -> StreamUtils.drain(body)).isInstanceOfSatisfying(ResponseStatusException.class,
+				e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONTENT_TOO_LARGE));
+		assertThatThrownBy(() -> BoundedInputStream.checkContentLength(17, 16))
+			.isInstanceOf(ResponseStatusException.class);
+		assertThatNoException().isThrownBy(() -> BoundedInputStream.checkContentLength(-1, 16));
+	}
+
+}
@@ -33,6 +33,7 @@ import org.springframework.web.client.RestClient;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import static am.ik.blog.entry.MockData.ENTRY1;
+import static am.ik.blog.entry.MockData.ENTRY2;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -389,4 +390,80 @@ class EntryControllerDirectUpdateTest {
 		assertThat(this.entryRepository.findById(entry1.entryKey())).isEmpty();
 	}
 
+	@ParameterizedTest
+	@CsvSource({ "/entries/batch,admin,changeme,", "/entries/batch,editor,password,",
+			"/tenants/t1/entries/batch,admin,changeme,t1", "/tenants/t1/entries/batch,editor,password,t1" })
+	void postEntriesBatch_shouldCommitOnceOnGitHub(String path, String username, String password, String tenantId) {
+		prepareMockData(tenantId);
+		Entry entry1 = withTenantId(ENTRY1, tenantId);
+		Entry entry2 = withTenantId(ENTRY2, tenantId);
+		String owner = getOwner(tenantId);
+		String repo = getRepo(tenantId);
+		String prefix = "/repos/%s/%s".formatted(owner, repo);
+
+		AtomicReference<String> treeBody = new AtomicReference<>();
+		AtomicReference<String> commitBody = new AtomicReference<>();
+
+		// Mock GitHub Git Data API
+		this.mockServer.GET(prefix, request -> Response.json("""
+				{"name": "%s", "default_branch": "main"}
+				""".formatted(repo))).GET(prefix + "/git/ref/heads/main", request -> Response.json("""
+				{"ref": "refs/heads/main", "object": {"sha": "head1", "type": "commit"}}
+				""")).GET(prefix + "/git/commits/head1", request -> Response.json("""
+				{"sha": "head1", "tree": {"sha": "tree1"}}
+				""")).GET(prefix + "/git/trees/tree1", request -> Response.json("""
+				{"sha": "tree1", "tree": [{"path": "content", "mode": "040000", "type": "tree", "sha": "content1"}]}
+				""")).GET(prefix + "/git/trees/content1", request -> Response.json("""
+				{"sha": "content1", "tree": [
+				  {"path": "%s.md", "mode": "100644", "type": "blob", "sha": "blob1"},
+				  {"path": "%s.md", "mode": "100644", "type": "blob", "sha": "blob2"}
+				]}
+				""".formatted(entry1.formatId(), entry2.formatId()))).POST(prefix + "/git/trees", request -> {
+			treeBody.set(request.body());
+			return Response.json("""
+					{"sha": "newtree"}
+					""");
+		}).POST(prefix + "/git/commits", request -> {
+			commitBody.set(request.body());
+			return Response.json("""
+					{"sha": "newcommit", "tree": {"sha": "newtree"}}
+					""");
+		}).PATCH(prefix + "/git/refs/heads/main", request -> Response.json("""
+				{"ref": "refs/heads/main", "object": {"sha": "newcommit", "type": "commit"}}
+				"""));
+
+		var response = this.restClient.post()
+			.uri(path)
+			.contentType(MediaType.APPLICATION_JSON)
+			.headers(configureAuth(username, password))
+			.body("""
+					{
+					  "entries": [
+					    {"entryId": %d, "markdown": "---\\ntitle: Updated in a Batch\\n---\\nThis entry was updated in a batch.\\n"}
+					  ],
+					  "deletedEntryIds": [%d]
+					}
+					"""
+				.formatted(entry1.entryKey().entryId(), entry2.entryKey().entryId()))
+			.retrieve()
+			.toEntity(Entry[].class);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).singleElement()
+			.satisfies(e -> assertThat(e.frontMatter().title()).isEqualTo("Updated in a Batch"));
+
+		// Verify the update and the deletion went into a single tree
+		assertThat(treeBody.get()).contains("\"path\":\"content/%s.md\"".formatted(entry1.formatId()))
+			.contains("This entry was updated in a batch.")
+			.contains("{\"path\":\"content/%s.md\",\"mode\":\"100644\",\"type\":\"blob\",\"sha\":null}"
+				.formatted(entry2.formatId()));
+		assertThat(commitBody.get()).contains(
+				"\"message\":\"Update entry %s and delete entry %s\"".formatted(entry1.formatId(), entry2.formatId()));
+
+		// Verify the repository was updated as well
+		assertThat(this.entryRepository.findById(entry1.entryKey()))
+			.hasValueSatisfying(e -> assertThat(e.frontMatter().title()).isEqualTo("Updated in a Batch"));
+		assertThat(this.entryRepository.findById(entry2.entryKey())).isEmpty();
+	}
+
 }
@@ -0,0 +1,154 @@
+package am.ik.blog.entry.web;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.entry.Author;
+import am.ik.blog.entry.ContentVersions;
+import am.ik.blog.entry.EntriesUpdatedEvent;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.MockData;
+import am.ik.blog.entry.web.EntryResponseCache.EncodedResponse;
+import am.ik.blog.entry.web.EntryResponseCache.Format;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntryResponseCacheTest {
+
+	AtomicInteger encoded = new AtomicInteger();
+
+	AtomicLong version = new AtomicLong();
+
+	Function<Entry, byte[]> encoder = entry -> {
+		this.encoded.incrementAndGet();
+		return entry.toMarkdown().getBytes(StandardCharsets.UTF_8);
+	};
+
+	ContentVersions contentVersions = new ContentVersions() {
+		@Override
+		public long current(String tenantId) {
+			return version.get();
+		}
+
+		@Override
+		public long increment(String tenantId) {
+			return version.incrementAndGet();
+		}
+	};
+
+	EntryResponseCache responseCache(BlogProps blogProps) {
+		return responseCache(blogProps, this.contentVersions);
+	}
+
+	EntryResponseCache responseCache(BlogProps blogProps, @Nullable ContentVersions contentVersions) {
+		return new EntryResponseCache(blogProps, new ObjectProvider<>() {
+			@Override
+			public @Nullable ContentVersions getIfAvailable() {
+				return contentVersions;
+			}
+		});
+	}
+
+	@Test
+	void encodeOncePerModification() throws IOException {
+		EntryResponseCache responseCache = responseCache(new BlogProps());
+		EncodedResponse first = responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, 0);
+		EncodedResponse second = responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, 0);
+		assertThat(second).isSameAs(first);
+		assertThat(this.encoded).hasValue(1);
+		assertThat(new String(first.identity(), StandardCharsets.UTF_8)).isEqualTo(MockData.ENTRY1.toMarkdown());
+		Entry modified = MockData.ENTRY1.toBuilder()
+			.updated(Author.builder().name("foo").date(Instant.parse("2030-01-01T00:00:00Z")).build())
+			.build();
+		EncodedResponse third = responseCache.get(modified, Format.MARKDOWN, this.encoder, 0);
+		assertThat(this.encoded).hasValue(2);
+		assertThat(gunzip(third)).isEqualTo(modified.toMarkdown());
+	}
+
+	@Test
+	void reencodeWhenContentChangesWithoutModification() {
+		EntryResponseCache responseCache = responseCache(new BlogProps(), null);
+		long version = responseCache.version(MockData.ENTRY1.entryKey());
+		assertThat(version).isEqualTo(-1);
+		responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, version);
+		Entry summarized = MockData.ENTRY1.toBuilder()
+			.frontMatter(MockData.ENTRY1.frontMatter().toBuilder().summary("updated summary").build())
+			.build();
+		EncodedResponse response = responseCache.get(summarized, Format.MARKDOWN, this.encoder, version);
+		assertThat(this.encoded).hasValue(2);
+		assertThat(new String(response.identity(), StandardCharsets.UTF_8)).contains("updated summary");
+		assertThat(responseCache.getIfUnchanged(MockData.ENTRY1.entryKey(), Format.MARKDOWN, version)).isNull();
+	}
+
+	@Test
+	void serveUnchangedContentVersionWithoutLoading() {
+		EntryResponseCache responseCache = responseCache(new BlogProps());
+		EncodedResponse encoded = responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder,
+				responseCache.version(MockData.ENTRY1.entryKey()));
+		assertThat(responseCache.getIfUnchanged(MockData.ENTRY1.entryKey(), Format.MARKDOWN, 0)).isSameAs(encoded);
+		assertThat(responseCache.getIfUnchanged(MockData.ENTRY1.entryKey(), Format.JSON, 0)).isNull();
+		this.contentVersions.increment("_");
+		long version = responseCache.version(MockData.ENTRY1.entryKey());
+		assertThat(responseCache.getIfUnchanged(MockData.ENTRY1.entryKey(), Format.MARKDOWN, version)).isNull();
+		// the entry itself did not change, so it is only stamped with the new version
+		responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, version);
+		assertThat(this.encoded).hasValue(1);
+		assertThat(responseCache.getIfUnchanged(MockData.ENTRY1.entryKey(), Format.MARKDOWN, version)).isNotNull();
+	}
+
+	@Test
+	void evict() {
+		EntryResponseCache responseCache = responseCache(new BlogProps());
+		responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, 0);
+		responseCache.get(MockData.ENTRY1, Format.JSON, this.encoder, 0);
+		responseCache.get(MockData.ENTRY2, Format.MARKDOWN, this.encoder, 0);
+		responseCache.evict(MockData.ENTRY1.entryKey());
+		assertThat(responseCache.size()).isEqualTo(1);
+		responseCache.onEntriesUpdated(new EntriesUpdatedEvent("_", List.of(MockData.ENTRY2.entryKey())));
+		assertThat(responseCache.size()).isZero();
+	}
+
+	@Test
+	void boundNumberAndSizeOfResponses() {
+		BlogProps blogProps = new BlogProps();
+		blogProps.getResponseCache().setMaxEntries(2);
+		blogProps.getResponseCache().setMaxEntrySize(DataSize.ofKilobytes(1));
+		EntryResponseCache responseCache = responseCache(blogProps);
+		responseCache.get(MockData.ENTRY1, Format.MARKDOWN, this.encoder, 0);
+		responseCache.get(MockData.ENTRY2, Format.MARKDOWN, this.encoder, 0);
+		responseCache.get(MockData.ENTRY3, Format.MARKDOWN, this.encoder, 0);
+		assertThat(responseCache.size()).isEqualTo(2);
+		Entry large = MockData.ENTRY4.toBuilder().content("a".repeat(2048)).build();
+		responseCache.get(large, Format.MARKDOWN, this.encoder, 0);
+		assertThat(responseCache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void acceptsGzip() {
+		assertThat(EntryController.acceptsGzip("gzip, deflate, br")).isTrue();
+		assertThat(EntryController.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+		assertThat(EntryController.acceptsGzip("*")).isTrue();
+		assertThat(EntryController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(EntryController.acceptsGzip("identity")).isFalse();
+		assertThat(EntryController.acceptsGzip(null)).isFalse();
+	}
+
+	static String gunzip(EncodedResponse response) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.gzipped()))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -10,6 +10,7 @@ import am.ik.blog.entry.EntryRepository;
 import am.ik.blog.entry.FrontMatter;
 import am.ik.blog.entry.MockData;
 import am.ik.blog.entry.Tag;
+import am.ik.blog.github.LocalCommitHistory;
 import am.ik.blog.mockserver.MockServer;
 import java.time.Instant;
 import java.util.Base64;
@@ -108,15 +109,10 @@ class WebhookControllerTest {
 								""".formatted(Base64.getEncoder().encodeToString(entry.toMarkdown().getBytes(UTF_8)),
 								port, repo))
 						.build())
-			.route(req -> ("/repos/%s/commits".formatted(repo)).equals(req.path())
-					&& "content/00100.md".equals(req.queryParam("path")),
-					req -> MockServer.Response.builder()
-						.contentType(MediaType.APPLICATION_JSON_VALUE)
-						.status(200)
-						.body("""
-								[{"commit":{"author":{"name":"Test User2","date":"2025-06-27T15:55:20Z"}}},{"commit":{"author":{"name":"Test User1","date":"2025-06-27T15:45:58Z"}}}]
-								""")
-						.build());
+			.POST("/graphql",
+					new LocalCommitHistory()
+						.commit("content/00100.md", "Test User1", Instant.parse("2025-06-27T15:45:58Z"))
+						.commit("content/00100.md", "Test User2", Instant.parse("2025-06-27T15:55:20Z"))::respond);
 		var response = this.restClient.post()
 			.uri(path)
 			.header(X_HUB_SIGNATURE_256, "sha256=" + signature)
@@ -141,6 +137,89 @@ class WebhookControllerTest {
 			.build());
 	}
 
+	@ParameterizedTest
+	@CsvSource({ "/webhook,public/blog,5bf0a4cd04cc322425c70c430921494be195679c76c47f13668f6c77d5ff4a79",
+			"/tenants/t1/webhook,private/blog,7721b464eea57a1bd6255efd919d354a9a419f06370eec7d7327dde41a247eeb" })
+	void webhookAddedFromRawContent(String path, String repo, String signature) {
+		String tenantId = path.startsWith("/tenants/") ? path.split("/")[2] : null;
+		String sha = "3f786850e387550fdab836ed7e6dc881de23001b";
+		Entry entry = Entry.builder()
+			.entryKey(new EntryKey(100L, tenantId))
+			.content("""
+					# Raw Entry
+					This entry is read from raw content.
+					""".trim())
+			.frontMatter(FrontMatter.builder().title("Raw Entry").categories(List.of(new Category("Java"))).build())
+			.created(Author.builder().name("demo").build())
+			.updated(Author.builder().name("demo").build())
+			.build();
+		// the contents API is not stubbed, so the entry can only come from raw content
+		this.mockServer
+			.GET("/raw/%s/%s/content/00100.md".formatted(repo, sha),
+					req -> MockServer.Response.ok(entry.toMarkdown(), MediaType.TEXT_PLAIN_VALUE))
+			.POST("/graphql", new LocalCommitHistory().commit("content/00100.md", "Test User1",
+					Instant.parse("2025-06-27T15:45:58Z"))::respond);
+		var response = this.restClient.post()
+			.uri(path)
+			.header(X_HUB_SIGNATURE_256, "sha256=" + signature)
+			.contentType(MediaType.APPLICATION_JSON)
+			.body("""
+					{
+					  "ref": "refs/heads/main",
+					  "repository": {"full_name": "%s", "default_branch": "main"},
+					  "commits": [
+					    {"id": "%s", "added": ["content/00100.md"], "modified": [],"removed": []}
+					  ]
+					}
+					""".formatted(repo, sha))
+			.retrieve()
+			.toEntity(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+			});
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isEqualTo(List
+			.of(Map.of("added", Map.of("entryId", 100, "tenantId", EntryKey.requireNonNullTenantId(tenantId)))));
+		Author author = Author.builder().name("Test User1").date(Instant.parse("2025-06-27T15:45:58Z")).build();
+		assertThat(this.entryRepository.findById(new EntryKey(100L, tenantId)))
+			.contains(entry.toBuilder().created(author).updated(author).build());
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "/webhook,public/blog,7bf239f2d39286180472559cf0fee09577e698348acd3f07ddce3b7951bb637c",
+			"/tenants/t1/webhook,private/blog,fc1f992c9d42d49bed7cf4595413af31906d46c84b7477db7163af6911a4eb26" })
+	void webhookIgnoresPushToOtherBranch(String path, String repo, String signature) {
+		String tenantId = path.startsWith("/tenants/") ? path.split("/")[2] : null;
+		String sha = "3f786850e387550fdab836ed7e6dc881de23001b";
+		Entry entry = Entry.builder()
+			.entryKey(new EntryKey(100L, tenantId))
+			.content("Unmerged draft")
+			.frontMatter(FrontMatter.builder().title("Draft Entry").build())
+			.created(Author.builder().name("demo").build())
+			.updated(Author.builder().name("demo").build())
+			.build();
+		// the draft is readable at the pushed commit, but must not be published
+		this.mockServer.GET("/raw/%s/%s/content/00100.md".formatted(repo, sha),
+				req -> MockServer.Response.ok(entry.toMarkdown(), MediaType.TEXT_PLAIN_VALUE));
+		var response = this.restClient.post()
+			.uri(path)
+			.header(X_HUB_SIGNATURE_256, "sha256=" + signature)
+			.contentType(MediaType.APPLICATION_JSON)
+			.body("""
+					{
+					  "ref": "refs/heads/draft",
+					  "repository": {"full_name": "%s", "default_branch": "main"},
+					  "commits": [
+					    {"id": "%s", "added": ["content/00100.md"], "modified": [],"removed": []}
+					  ]
+					}
+					""".formatted(repo, sha))
+			.retrieve()
+			.toEntity(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+			});
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).isEmpty();
+		assertThat(this.entryRepository.findById(new EntryKey(100L, tenantId))).isEmpty();
+	}
+
 	@ParameterizedTest
 	@CsvSource({ "/webhook,public/blog,c7ea28fd87477e248dab1ed0b07be97a5dc288b01c16a1fb2fc282f4f5a9823f",
 			"/tenants/t1/webhook,private/blog,0d3e938aeee5f5089a68da65cd97a70eb18f870f061ac2bcca2669274f04820f" })
@@ -170,15 +249,10 @@ class WebhookControllerTest {
 								""".formatted(Base64.getEncoder().encodeToString(entry.toMarkdown().getBytes(UTF_8)),
 								port, repo))
 						.build())
-			.route(req -> ("/repos/%s/commits".formatted(repo)).equals(req.path())
-					&& "content/00100.md".equals(req.queryParam("path")),
-					req -> MockServer.Response.builder()
-						.contentType(MediaType.APPLICATION_JSON_VALUE)
-						.status(200)
-						.body("""
-								[{"commit":{"author":{"name":"Test User2","date":"2025-06-27T15:55:20Z"}}},{"commit":{"author":{"name":"Test User1","date":"2025-06-27T15:45:58Z"}}}]
-								""")
-						.build());
+			.POST("/graphql",
+					new LocalCommitHistory()
+						.commit("content/00100.md", "Test User1", Instant.parse("2025-06-27T15:45:58Z"))
+						.commit("content/00100.md", "Test User2", Instant.parse("2025-06-27T15:55:20Z"))::respond);
 		var response = this.restClient.post()
 			.uri(path)
 			.header(X_HUB_SIGNATURE_256, "sha256=" + signature)
@@ -221,15 +295,10 @@ class WebhookControllerTest {
 								""".formatted(Base64.getEncoder().encodeToString(entry.toMarkdown().getBytes(UTF_8)),
 								port, repo))
 						.build())
-			.route(req -> ("/repos/%s/commits".formatted(repo)).equals(req.path())
-					&& "content/00001.md".equals(req.queryParam("path")),
-					req -> MockServer.Response.builder()
-						.contentType(MediaType.APPLICATION_JSON_VALUE)
-						.status(200)
-						.body("""
-								[{"commit":{"author":{"name":"Test User2","date":"2025-06-27T15:55:20Z"}}},{"commit":{"author":{"name":"Test User1","date":"2025-06-27T15:45:58Z"}}}]
-								""")
-						.build());
+			.POST("/graphql",
+					new LocalCommitHistory()
+						.commit("content/00001.md", "Test User1", Instant.parse("2025-06-27T15:45:58Z"))
+						.commit("content/00001.md", "Test User2", Instant.parse("2025-06-27T15:55:20Z"))::respond);
 		var response = this.restClient.post()
 			.uri(path)
 			.header(X_HUB_SIGNATURE_256, "sha256=" + signature)
@@ -0,0 +1,85 @@
+package am.ik.blog.entry.web;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookPayloadTest {
+
+	JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	WebhookPayload parse(String json) {
+		try (JsonParser parser = this.jsonMapper.createParser(json)) {
+			return WebhookPayload.parse(parser);
+		}
+	}
+
+	@Test
+	void parsePushEvent() {
+		WebhookPayload payload = parse(
+				"""
+						{
+						  "ref": "refs/heads/main",
+						  "commits": [
+						    {"id": "1", "added": ["content/00100.md"], "modified": [], "removed": [], "author": {"name": "foo"}},
+						    {"id": "2", "added": [], "modified": ["content/00101.md", "content/00102.md"], "removed": ["content/00103.md"]}
+						  ],
+						  "repository": {"id": 1, "owner": {"name": "public"}, "full_name": "public/blog", "default_branch": "main", "topics": []},
+						  "head_commit": {"added": ["ignored.md"]}
+						}
+						""");
+		assertThat(payload).isEqualTo(new WebhookPayload("public", "blog", "refs/heads/main", "main",
+				List.of(new WebhookPayload.Commit("1", List.of("content/00100.md"), List.of(), List.of()),
+						new WebhookPayload.Commit("2", List.of(), List.of("content/00101.md", "content/00102.md"),
+								List.of("content/00103.md")))));
+		assertThat(payload.isDefaultBranch()).isTrue();
+		assertThat(payload.isOtherRef()).isFalse();
+	}
+
+	@Test
+	void parsePushEventToOtherBranch() {
+		WebhookPayload payload = parse("""
+				{
+				  "ref": "refs/heads/draft",
+				  "repository": {"full_name": "public/blog", "default_branch": "main"},
+				  "commits": [{"id": "1", "added": ["content/00100.md"], "modified": [], "removed": []}]
+				}
+				""");
+		assertThat(payload).isNotNull();
+		assertThat(payload.isDefaultBranch()).isFalse();
+		assertThat(payload.isOtherRef()).isTrue();
+	}
+
+	@Test
+	void parsePushEventWithoutRef() {
+		WebhookPayload payload = parse("""
+				{
+				  "repository": {"full_name": "public/blog"},
+				  "commits": [{"id": "1", "added": ["content/00100.md"], "modified": [], "removed": []}]
+				}
+				""");
+		assertThat(payload).isNotNull();
+		assertThat(payload.isDefaultBranch()).isFalse();
+		assertThat(payload.isOtherRef()).isFalse();
+	}
+
+	@Test
+	void parseEventWithoutCommits() {
+		WebhookPayload payload = parse("""
+				{"zen": "Keep it logically awesome.", "repository": {"full_name": "public/blog"}}
+				""");
+		assertThat(payload).isEqualTo(new WebhookPayload("public", "blog", null, null, null));
+	}
+
+	@Test
+	void rejectEventWithoutRepository() {
+		assertThat(parse("""
+				{"commits": []}
+				""")).isNull();
+		assertThat(parse("[]")).isNull();
+	}
+
+}
@@ -0,0 +1,104 @@
+package am.ik.blog.github;
+
+import am.ik.blog.GitHubProps;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GitHubTenantsTest {
+
+	GitHubClient defaultClient = mock(GitHubClient.class);
+
+	GitHubClient t1Client = mock(GitHubClient.class);
+
+	HttpServiceProxyRegistry registry = mock(HttpServiceProxyRegistry.class);
+
+	GitHubProps props = new GitHubProps();
+
+	List<String> created = new ArrayList<>();
+
+	GitHubTenants.ClientFactory clientFactory = (tenantId, tenantProps) -> {
+		this.created.add(tenantId);
+		return new GitHubTenant(tenantId, tenantProps.getContentOwner(), tenantProps.getContentRepo(),
+				mock(GitHubClient.class), mock(GitHubGraphQLClient.class), mock(GitHubUserContentClient.class),
+				new WebhookSignature(tenantProps.getWebhookSecret()));
+	};
+
+	GitHubTenantsTest() {
+		when(this.registry.getClient("github", GitHubClient.class)).thenReturn(this.defaultClient);
+		when(this.registry.getClient("github.t1", GitHubClient.class)).thenReturn(this.t1Client);
+		when(this.registry.getClient(eq("github.t2"), any())).thenThrow(new IllegalArgumentException("No group"));
+		this.props.setContentOwner("owner");
+		this.props.setContentRepo("repo");
+		this.props.setTenants(Map.of("t1", tenantProps("t1-owner", "t1-repo")));
+	}
+
+	@Test
+	void resolveDefaultAndConfiguredTenants() {
+		GitHubTenants tenants = new GitHubTenants(this.props, this.registry, this.clientFactory);
+		assertThat(tenants.get(null)).isSameAs(tenants.get("_")).isSameAs(tenants.defaultTenant());
+		assertThat(tenants.defaultTenant().owner()).isEqualTo("owner");
+		assertThat(tenants.defaultTenant().repo()).isEqualTo("repo");
+		assertThat(tenants.defaultTenant().client()).isSameAs(this.defaultClient);
+		GitHubTenant t1 = tenants.get("t1");
+		assertThat(t1.tenantId()).isEqualTo("t1");
+		assertThat(t1.owner()).isEqualTo("t1-owner");
+		assertThat(t1.repo()).isEqualTo("t1-repo");
+		assertThat(t1.client()).isSameAs(this.t1Client);
+		assertThat(tenants.find("unknown")).isEmpty();
+		assertThatThrownBy(() -> tenants.get("unknown")).isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Unknown tenant: unknown");
+	}
+
+	@Test
+	void refreshFromChangedProperties() {
+		GitHubTenants tenants = new GitHubTenants(this.props, this.registry, this.clientFactory);
+		GitHubTenant before = tenants.get("t1");
+		this.props
+			.setTenants(Map.of("t1", tenantProps("t1-owner", "renamed"), "t2", tenantProps("t2-owner", "t2-repo")));
+		assertThat(tenants.get("t1")).isSameAs(before);
+		tenants.refresh();
+		assertThat(tenants.get("t1").repo()).isEqualTo("renamed");
+		// tenants without registered clients are skipped
+		assertThat(tenants.find("t2")).isEmpty();
+	}
+
+	@Test
+	void createClientsOfRegisteredTenants() {
+		GitHubTenants tenants = new GitHubTenants(this.props, this.registry, this.clientFactory);
+		tenants.refresh(Map.of("t3", tenantProps("t3-owner", "t3-repo")));
+		GitHubTenant t3 = tenants.get("t3");
+		assertThat(t3.owner()).isEqualTo("t3-owner");
+		assertThat(tenants.get("t1").client()).isSameAs(this.t1Client);
+		// unchanged tenants keep their clients
+		tenants.refresh(Map.of("t3", tenantProps("t3-owner", "t3-repo")));
+		assertThat(tenants.get("t3")).isSameAs(t3);
+		assertThat(this.created).containsExactly("t3");
+		// registered tenants take precedence over configured ones
+		tenants.refresh(Map.of("t1", tenantProps("t1-owner", "moved"), "t3", tenantProps("t3-owner", "moved")));
+		assertThat(tenants.get("t1").repo()).isEqualTo("moved");
+		assertThat(tenants.get("t1").client()).isNotSameAs(this.t1Client);
+		assertThat(tenants.get("t3")).isNotSameAs(t3);
+		assertThat(this.created).containsExactlyInAnyOrder("t3", "t1", "t3");
+		tenants.refresh(Map.of());
+		assertThat(tenants.find("t3")).isEmpty();
+		assertThat(tenants.get("t1").client()).isSameAs(this.t1Client);
+	}
+
+	static GitHubProps tenantProps(String owner, String repo) {
+		GitHubProps props = new GitHubProps();
+		props.setContentOwner(owner);
+		props.setContentRepo(repo);
+		return props;
+	}
+
+}
@@ -0,0 +1,82 @@
+package am.ik.blog.github;
+
+import am.ik.blog.mockserver.MockServer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Local stand-in for the commit history queries of GitHub's GraphQL API. It answers the
+ * aliased {@code history} lookups by the path ({@code $pN}) and cursor ({@code $cN})
+ * variables rather than by parsing the query.
+ */
+public class LocalCommitHistory implements GitHubGraphQLClient {
+
+	static final String HEAD = "0123456789abcdef0123456789abcdef01234567";
+
+	private final Map<String, List<GitCommitter>> histories = new ConcurrentHashMap<>();
+
+	private final AtomicInteger queries = new AtomicInteger();
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	/**
+	 * Adds a commit to the history of the path. Commits are added oldest first.
+	 */
+	public LocalCommitHistory commit(String path, String author, Instant date) {
+		this.histories.computeIfAbsent(path, _ -> new ArrayList<>())
+			.addFirst(new GitCommitter(author, author + "@example.com", date));
+		return this;
+	}
+
+	public int queries() {
+		return this.queries.get();
+	}
+
+	@Override
+	public ResponseEntity<GraphQLResponse> query(GraphQLRequest request) {
+		this.queries.incrementAndGet();
+		Map<String, Object> variables = request.variables();
+		ObjectNode data = JsonNodeFactory.instance.objectNode();
+		ObjectNode repository = data.putObject("repository");
+		boolean oldest = variables.containsKey("oid");
+		ObjectNode commit = oldest ? repository.putObject("object")
+				: repository.putObject("defaultBranchRef").putObject("target").put("oid", HEAD);
+		for (int i = 0; variables.containsKey("p" + i); i++) {
+			List<GitCommitter> history = this.histories.getOrDefault((String) variables.get("p" + i), List.of());
+			ObjectNode connection = commit.putObject("h" + i);
+			int index = 0;
+			if (oldest) {
+				String cursor = (String) variables.get("c" + i);
+				index = Integer.parseInt(cursor.substring(cursor.indexOf(' ') + 1)) + 1;
+			}
+			else {
+				connection.put("totalCount", history.size());
+			}
+			ArrayNode nodes = connection.putArray("nodes");
+			if (index < history.size()) {
+				GitCommitter author = history.get(index);
+				nodes.addObject().putObject("author").put("name", author.name()).put("date", author.date().toString());
+			}
+		}
+		return ResponseEntity.ok(new GraphQLResponse(data, null));
+	}
+
+	/**
+	 * Answers a GraphQL request sent to a {@link MockServer}.
+	 */
+	public MockServer.Response respond(MockServer.Request request) {
+		GraphQLResponse response = this.query(this.jsonMapper.readValue(request.body(), GraphQLRequest.class))
+			.getBody();
+		return MockServer.Response.json(this.jsonMapper.writeValueAsString(response));
+	}
+
+}
@@ -0,0 +1,41 @@
+package am.ik.blog.github;
+
+import am.ik.webhook.WebhookAuthenticationException;
+import am.ik.webhook.WebhookVerifier;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebhookSignatureTest {
+
+	String payload = """
+			{"repository": {"full_name": "public/blog"}, "commits": []}
+			""";
+
+	WebhookSignature webhookSignature = new WebhookSignature("dummy");
+
+	@Test
+	void verifyWhileReading() throws IOException {
+		String signature = WebhookVerifier.gitHubSha256("dummy").sign(this.payload);
+		WebhookSignature.SigningInputStream body = this.webhookSignature
+			.sign(new ByteArrayInputStream(this.payload.getBytes(StandardCharsets.UTF_8)));
+		StreamUtils.drain(body);
+		assertThatNoException().isThrownBy(() -> this.webhookSignature.verify(body, signature));
+	}
+
+	@Test
+	void rejectInvalidSignature() throws IOException {
+		String signature = WebhookVerifier.gitHubSha256("other").sign(this.payload);
+		WebhookSignature.SigningInputStream body = this.webhookSignature
+			.sign(new ByteArrayInputStream(this.payload.getBytes(StandardCharsets.UTF_8)));
+		StreamUtils.drain(body);
+		assertThatThrownBy(() -> this.webhookSignature.verify(body, signature))
+			.isInstanceOf(WebhookAuthenticationException.class);
+	}
+
+}
@@ -185,4 +185,64 @@ class YamlFrontMatterParserTest {
 		assertThat(result.getContent()).isEqualTo("Content");
 	}
 
-}
\ No newline at end of file
+	@Test
+	@DisplayName("Normalize Windows line endings in content")
+	void normalizeWindowsLineEndingsInContent() {
+		String markdown = "---\r\ntitle: Sample Post\r\n---\r\n\r\n# Hello\r\n\r\nWorld\r\n";
+
+		YamlFrontMatterParser.ParseResult result = YamlFrontMatterParser.parse(markdown);
+
+		assertThat(result.getFrontMatter()).containsEntry("title", "Sample Post");
+		assertThat(result.getContent()).isEqualTo("# Hello\n\nWorld");
+	}
+
+	@Test
+	@DisplayName("Only a line consisting of --- closes the front matter")
+	void closeFrontMatterOnlyWithDelimiterLine() {
+		String markdown = """
+				---
+				title: Sample Post
+				description: |
+				  ----
+				  --- not a delimiter
+				---
+				Content
+				---
+				More content
+				""";
+
+		YamlFrontMatterParser.ParseResult result = YamlFrontMatterParser.parse(markdown);
+
+		assertThat(result.getFrontMatter()).containsEntry("title", "Sample Post")
+			.containsEntry("description", "----\n--- not a delimiter");
+		assertThat(result.getContent()).isEqualTo("Content\n---\nMore content");
+	}
+
+	@Test
+	@DisplayName("Parse blank front matter")
+	void parseBlankFrontMatter() {
+		String markdown = """
+				---
+
+				---
+				Content
+				""";
+
+		YamlFrontMatterParser.ParseResult result = YamlFrontMatterParser.parse(markdown);
+
+		assertThat(result.getFrontMatter()).isEmpty();
+		assertThat(result.getContent()).isEqualTo("Content");
+	}
+
+	@Test
+	@DisplayName("Treat unterminated front matter as content")
+	void parseUnterminatedFrontMatter() {
+		String markdown = "---\ntitle: Sample Post\nContent";
+
+		YamlFrontMatterParser.ParseResult result = YamlFrontMatterParser.parse(markdown);
+
+		assertThat(result.getFrontMatter()).isEmpty();
+		assertThat(result.getContent()).isEqualTo(markdown);
+	}
+
+}
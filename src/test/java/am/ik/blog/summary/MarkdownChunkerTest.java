@@ -0,0 +1,64 @@
+package am.ik.blog.summary;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownChunkerTest {
+
+	@Test
+	void estimateTokens() {
+		assertThat(MarkdownChunker.estimateTokens("")).isZero();
+		assertThat(MarkdownChunker.estimateTokens("abcd")).isEqualTo(1);
+		assertThat(MarkdownChunker.estimateTokens("abcde")).isEqualTo(2);
+		assertThat(MarkdownChunker.estimateTokens("こんにちは")).isEqualTo(5);
+	}
+
+	@Test
+	void splitAtHeadingsOutsideCodeBlocks() {
+		String markdown = """
+				Intro
+
+				## First
+				```bash
+				# not a heading
+				echo hello
+				```
+
+				### Nested
+				Text
+				#hashtag is not a heading
+				""";
+		List<String> sections = MarkdownChunker.sections(markdown);
+		assertThat(sections).containsExactly("Intro\n\n", "## First\n```bash\n# not a heading\necho hello\n```\n\n",
+				"### Nested\nText\n#hashtag is not a heading\n");
+		assertThat(String.join("", sections)).isEqualTo(markdown);
+	}
+
+	@Test
+	void packSectionsIntoChunks() {
+		String section = "## Heading\n" + "a".repeat(36) + "\n";
+		List<String> chunks = MarkdownChunker.split(section.repeat(5), 25);
+		assertThat(chunks).hasSize(3);
+		assertThat(chunks.get(0)).isEqualTo((section + section).strip());
+		assertThat(chunks.get(2)).isEqualTo(section.strip());
+	}
+
+	@Test
+	void splitOversizedSectionsAtParagraphsThenLines() {
+		String paragraph = "x".repeat(40) + "\n" + "y".repeat(40) + "\n\n";
+		String markdown = "## Long\n\n" + paragraph.repeat(3);
+		List<String> chunks = MarkdownChunker.split(markdown, 22);
+		assertThat(chunks)
+			.allSatisfy(chunk -> assertThat(MarkdownChunker.estimateTokens(chunk)).isLessThanOrEqualTo(22));
+		assertThat(String.join("", chunks).replaceAll("\\s", "")).isEqualTo(markdown.replaceAll("\\s", ""));
+	}
+
+	@Test
+	void splitWithinLinesAsLastResort() {
+		List<String> chunks = MarkdownChunker.split("あ".repeat(25), 10);
+		assertThat(chunks).containsExactly("あ".repeat(10), "あ".repeat(10), "あ".repeat(5));
+	}
+
+}
@@ -0,0 +1,165 @@
+package am.ik.blog.summary;
+
+import am.ik.blog.BlogProps;
+import am.ik.blog.GitHubProps;
+import am.ik.blog.entry.Entry;
+import am.ik.blog.entry.EntryKey;
+import am.ik.blog.entry.InMemoryEntryRepository;
+import am.ik.blog.entry.MockData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.InstantSource;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SummaryBackfillJobTest {
+
+	InMemoryEntryRepository entryRepository = new InMemoryEntryRepository();
+
+	SummaryService summaryService = mock(SummaryService.class);
+
+	Map<String, Long> savedCheckpoints = new ConcurrentHashMap<>();
+
+	SummaryBackfillCheckpoints checkpoints = new SummaryBackfillCheckpoints() {
+		@Override
+		public Optional<Long> load(String tenantId) {
+			return Optional.ofNullable(savedCheckpoints.get(tenantId));
+		}
+
+		@Override
+		public void save(String tenantId, long lastEntryId) {
+			savedCheckpoints.put(tenantId, lastEntryId);
+		}
+
+		@Override
+		public void delete(String tenantId) {
+			savedCheckpoints.remove(tenantId);
+		}
+	};
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	SummaryBackfillJob job;
+
+	@BeforeEach
+	void setUp() {
+		this.entryRepository.saveAll(MockData.ALL_ENTRIES);
+		BlogProps blogProps = new BlogProps();
+		blogProps.getAi().getBackfill().setBatchSize(3);
+		blogProps.getAi().getBackfill().setBackoff(Duration.ofMillis(1));
+		this.job = new SummaryBackfillJob(this.entryRepository, this.summaryService, this.checkpoints,
+				new GitHubProps(), blogProps, InstantSource.system(), this.meterRegistry);
+		when(this.summaryService.summarize(eq(EntryKey.DEFAULT_TENANT_ID), anyString()))
+			.thenAnswer(invocation -> "Summary of " + invocation.getArgument(1, String.class).length());
+	}
+
+	SummaryBackfillJob.Run execute(boolean restart) {
+		SummaryBackfillJob.Run run = new SummaryBackfillJob.Run(EntryKey.DEFAULT_TENANT_ID, Instant.now());
+		this.job.execute(run, restart);
+		return run;
+	}
+
+	String summary(Entry entry) {
+		return this.entryRepository.findById(entry.entryKey()).orElseThrow().frontMatter().summary();
+	}
+
+	@Test
+	void backfillAllEntriesInBatches() {
+		SummaryBackfillJob.Run run = execute(false);
+		assertThat(run.state).hasValue(SummaryBackfillJob.State.COMPLETED);
+		assertThat(run.succeeded).hasValue(MockData.ALL_ENTRIES.size());
+		assertThat(MockData.ALL_ENTRIES).allSatisfy(entry -> assertThat(summary(entry)).startsWith("Summary of "));
+		assertThat(this.savedCheckpoints).isEmpty();
+		assertThat(
+				this.meterRegistry.counter("summary.backfill.entries", "tenant", "_", "outcome", "succeeded").count())
+			.isEqualTo(MockData.ALL_ENTRIES.size());
+	}
+
+	@Test
+	void resumeFromCheckpoint() {
+		this.savedCheckpoints.put(EntryKey.DEFAULT_TENANT_ID, MockData.ENTRY5.entryKey().entryId());
+		SummaryBackfillJob.Run run = execute(false);
+		assertThat(run.succeeded).hasValue(5);
+		assertThat(summary(MockData.ENTRY5)).isEmpty();
+		assertThat(summary(MockData.ENTRY6)).isNotEmpty();
+		assertThat(execute(true).succeeded).hasValue(5);
+		assertThat(summary(MockData.ENTRY5)).isNotEmpty();
+	}
+
+	@Test
+	void retryRateLimitedEntriesAndSkipFailedOnes() {
+		AtomicInteger calls = new AtomicInteger();
+		when(this.summaryService.summarize(EntryKey.DEFAULT_TENANT_ID, MockData.ENTRY1.content()))
+			.thenAnswer(invocation -> {
+				if (calls.incrementAndGet() < 3) {
+					throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS);
+				}
+				return "Rate limited twice";
+			});
+		when(this.summaryService.summarize(EntryKey.DEFAULT_TENANT_ID, MockData.ENTRY2.content()))
+			.thenThrow(new IllegalStateException("Bad request"));
+		SummaryBackfillJob.Run run = execute(false);
+		assertThat(run.state).hasValue(SummaryBackfillJob.State.COMPLETED);
+		assertThat(summary(MockData.ENTRY1)).isEqualTo("Rate limited twice");
+		assertThat(summary(MockData.ENTRY2)).isEmpty();
+		assertThat(run.failed).hasValue(1);
+		assertThat(run.succeeded).hasValue(MockData.ALL_ENTRIES.size() - 1);
+	}
+
+	@Test
+	void stopAfterCurrentBatchAndResume() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		when(this.summaryService.summarize(eq(EntryKey.DEFAULT_TENANT_ID), anyString())).thenAnswer(invocation -> {
+			if (calls.incrementAndGet() == 1) {
+				this.job.stop(EntryKey.DEFAULT_TENANT_ID);
+			}
+			return "Summary";
+		});
+		this.job.start(EntryKey.DEFAULT_TENANT_ID, false);
+		SummaryBackfillJob.Progress progress = awaitInactive();
+		assertThat(progress.state()).isEqualTo(SummaryBackfillJob.State.STOPPED);
+		assertThat(progress.succeeded()).isEqualTo(3);
+		assertThat(this.savedCheckpoints).containsEntry(EntryKey.DEFAULT_TENANT_ID, progress.lastEntryId());
+		this.job.start(EntryKey.DEFAULT_TENANT_ID, false);
+		progress = awaitInactive();
+		assertThat(progress.state()).isEqualTo(SummaryBackfillJob.State.COMPLETED);
+		assertThat(MockData.ALL_ENTRIES).allSatisfy(entry -> assertThat(summary(entry)).isEqualTo("Summary"));
+	}
+
+	@Test
+	void keepFinalStateWhenStoppedAfterFinishing() throws Exception {
+		this.job.start(EntryKey.DEFAULT_TENANT_ID, false);
+		assertThat(awaitInactive().state()).isEqualTo(SummaryBackfillJob.State.COMPLETED);
+		assertThat(this.job.stop(EntryKey.DEFAULT_TENANT_ID)).get()
+			.extracting(SummaryBackfillJob.Progress::state)
+			.isEqualTo(SummaryBackfillJob.State.COMPLETED);
+		this.job.start(EntryKey.DEFAULT_TENANT_ID, true);
+		assertThat(awaitInactive().state()).isEqualTo(SummaryBackfillJob.State.COMPLETED);
+	}
+
+	SummaryBackfillJob.Progress awaitInactive() throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			SummaryBackfillJob.Progress progress = this.job.progress(EntryKey.DEFAULT_TENANT_ID).orElseThrow();
+			if (progress.state() != SummaryBackfillJob.State.RUNNING
+					&& progress.state() != SummaryBackfillJob.State.STOPPING) {
+				return progress;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Backfill did not finish");
+	}
+
+}
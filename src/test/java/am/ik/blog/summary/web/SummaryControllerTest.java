@@ -4,6 +4,10 @@ import am.ik.blog.MockConfig;
 import am.ik.blog.TestcontainersConfiguration;
 import am.ik.blog.mockserver.MockServer;
 import am.ik.blog.mockserver.MockServer.Response;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +18,19 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.client.RestTestClient;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @Testcontainers(disabledWithoutDocker = true)
 @Import({ TestcontainersConfiguration.class, MockConfig.class })
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
 		properties = { "blog.tenant.users[0]=blog-ui|{noop}empty|_=GET,LIST",
 				"blog.tenant.users[1]=readonly|{noop}secret|_=GET,LIST",
-				"blog.tenant.users[2]=editor|{noop}password|_=EDIT" })
+				"blog.tenant.users[2]=editor|{noop}password|_=EDIT", "blog.ai.summary.max-input-tokens=100",
+				"blog.ai.summary.chunk-tokens=80" })
 class SummaryControllerTest {
 
+	static final Pattern SECTION = Pattern.compile("## Section ([A-C])");
+
 	RestTestClient client;
 
 	@Autowired
@@ -37,6 +46,10 @@ class SummaryControllerTest {
 	}
 
 	void setupOpenAiMock(String summaryText) {
+		this.mockServer.POST("/v1/chat/completions", request -> sse(summaryText));
+	}
+
+	static Response sse(String summaryText) {
 		String sseResponse = """
 				data: {"id":"chatcmpl-123","object":"chat.completion.chunk","created":1234567890,"model":"gpt-4o-mini","choices":[{"index":0,"delta":{"role":"assistant","content":""},"finish_reason":null}]}
 
@@ -48,9 +61,19 @@ class SummaryControllerTest {
 
 				"""
 			.formatted(summaryText);
+		return Response.builder().status(200).contentType("text/event-stream").body(sseResponse).build();
+	}
 
-		this.mockServer.POST("/v1/chat/completions",
-				request -> Response.builder().status(200).contentType("text/event-stream").body(sseResponse).build());
+	/**
+	 * An article of three sections that exceeds the input token budget, one section per
+	 * chunk.
+	 */
+	static String longArticle(String topic) {
+		StringBuilder article = new StringBuilder();
+		for (String section : List.of("A", "B", "C")) {
+			article.append("## Section %s\\n\\n%s\\n\\n".formatted(section, (topic + " ").repeat(30)));
+		}
+		return article.toString();
 	}
 
 	@Test
@@ -93,6 +116,28 @@ class SummaryControllerTest {
 			.isEqualTo(summaryText);
 	}
 
+	@Test
+	void summarize_stream() {
+		String summaryText = "This article explains how to get started with Spring Boot.";
+		setupOpenAiMock(summaryText);
+
+		this.client.post()
+			.uri("/tenants/{tenantId}/summary", "_")
+			.headers(headers -> headers.setBasicAuth("admin", "changeme"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.accept(MediaType.TEXT_EVENT_STREAM)
+			.body("""
+					{"content": "Sample blog content about Spring Boot"}
+					""")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+			.expectBody(String.class)
+			.value(body -> assertThat(body).contains("data:{\"summary\":\"" + summaryText + "\"}"));
+	}
+
 	@Test
 	void summarize_emptyContent_returnsBadRequest() {
 		this.client.post()
@@ -179,4 +224,70 @@ class SummaryControllerTest {
 			.isForbidden();
 	}
 
+	@Test
+	void summarize_longArticle_combinesChunkSummariesInOrder() {
+		List<String> reduceRequests = new CopyOnWriteArrayList<>();
+		this.mockServer.POST("/v1/chat/completions", request -> {
+			String body = request.body();
+			if (body.contains("summaries of the consecutive sections")) {
+				reduceRequests.add(body);
+				return sse("This article walks through sections A, B and C.");
+			}
+			Matcher matcher = SECTION.matcher(body);
+			assertThat(matcher.find()).isTrue();
+			return sse("Summary of section " + matcher.group(1));
+		});
+
+		this.client.post()
+			.uri("/tenants/{tenantId}/summary", "_")
+			.headers(headers -> headers.setBasicAuth("admin", "changeme"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.body("""
+					{"content": "%s"}
+					""".formatted(longArticle("ordering")))
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody()
+			.jsonPath("$.summary")
+			.isEqualTo("This article walks through sections A, B and C.");
+
+		assertThat(reduceRequests).singleElement()
+			.asString()
+			.contains("Summary of section A\\n\\nSummary of section B\\n\\nSummary of section C");
+	}
+
+	@Test
+	void summarize_longArticle_failsWhenAChunkFails() {
+		List<String> reduceRequests = new CopyOnWriteArrayList<>();
+		this.mockServer.POST("/v1/chat/completions", request -> {
+			String body = request.body();
+			if (body.contains("summaries of the consecutive sections")) {
+				reduceRequests.add(body);
+				return sse("This article walks through sections A, B and C.");
+			}
+			Matcher matcher = SECTION.matcher(body);
+			assertThat(matcher.find()).isTrue();
+			if (matcher.group(1).equals("B")) {
+				return Response.builder().status(400).contentType(MediaType.APPLICATION_JSON_VALUE).body("""
+						{"error": {"message": "Bad request", "type": "invalid_request_error"}}
+						""").build();
+			}
+			return sse("Summary of section " + matcher.group(1));
+		});
+
+		this.client.post()
+			.uri("/tenants/{tenantId}/summary", "_")
+			.headers(headers -> headers.setBasicAuth("admin", "changeme"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.body("""
+					{"content": "%s"}
+					""".formatted(longArticle("failure")))
+			.exchange()
+			.expectStatus()
+			.is5xxServerError();
+
+		assertThat(reduceRequests).isEmpty();
+	}
+
 }
@@ -0,0 +1,31 @@
+package am.ik.blog.tenant;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantCredentialsEncryptorTest {
+
+	@Test
+	void encryptAndDecrypt() {
+		TenantCredentialsEncryptor encryptor = new TenantCredentialsEncryptor(
+				new TenantUserProps(null, Duration.ZERO, "password", "5c0744940b5c369b"));
+		String encrypted = encryptor.encrypt("ghp_token");
+		assertThat(encrypted).doesNotContain("ghp_token").isNotEqualTo(encryptor.encrypt("ghp_token"));
+		assertThat(encryptor.decrypt(encrypted)).isEqualTo("ghp_token");
+		assertThatThrownBy(() -> new TenantCredentialsEncryptor(
+				new TenantUserProps(null, Duration.ZERO, "other", "5c0744940b5c369b"))
+			.decrypt(encrypted)).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void rejectCredentialsWithoutKey() {
+		TenantCredentialsEncryptor encryptor = new TenantCredentialsEncryptor(
+				new TenantUserProps(null, Duration.ZERO, null, null));
+		assertThatThrownBy(() -> encryptor.encrypt("ghp_token")).isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("blog.tenant.credentials-password");
+	}
+
+}
@@ -0,0 +1,112 @@
+package am.ik.blog.tenant;
+
+import am.ik.blog.GitHubProps;
+import am.ik.blog.github.GitHubClient;
+import am.ik.blog.github.GitHubGraphQLClient;
+import am.ik.blog.github.GitHubTenant;
+import am.ik.blog.github.GitHubTenants;
+import am.ik.blog.github.GitHubUserContentClient;
+import am.ik.blog.github.WebhookSignature;
+import am.ik.blog.security.Privilege;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TenantReloaderTest {
+
+	InMemoryTenantRegistry tenantRegistry = new InMemoryTenantRegistry();
+
+	GitHubProps gitHubProps = new GitHubProps();
+
+	GitHubTenants gitHubTenants = new GitHubTenants(this.gitHubProps, mock(HttpServiceProxyRegistry.class),
+			(tenantId, props) -> new GitHubTenant(tenantId, props.getContentOwner(), props.getContentRepo(),
+					mock(GitHubClient.class), mock(GitHubGraphQLClient.class), mock(GitHubUserContentClient.class),
+					new WebhookSignature(props.getWebhookSecret())));
+
+	TenantUsers tenantUsers = new TenantUsers(new TenantUserProps(
+			List.of(TenantUserDetails.valueOf("blog-ui|{noop}empty|_=GET,LIST")), Duration.ZERO, null, null));
+
+	TenantReloader tenantReloader = new TenantReloader(this.tenantRegistry, this.gitHubTenants, this.tenantUsers,
+			this.gitHubProps, new TenantUserProps(null, Duration.ZERO, null, null));
+
+	@Test
+	void applyRegisteredTenantsAndUsers() {
+		this.tenantRegistry.saveTenant(new RegisteredTenant("t2", "owner", "repo", "token", "secret"));
+		this.tenantRegistry.saveUser(TenantUserDetails.valueOf("t2-editor|{noop}password|t2=GET,LIST,EDIT"));
+		this.tenantRegistry.saveUser(TenantUserDetails.valueOf("blog-ui|{noop}changed|_=GET"));
+		assertThat(this.tenantReloader.reload()).isTrue();
+		GitHubTenant t2 = this.gitHubTenants.get("t2");
+		assertThat(t2.owner()).isEqualTo("owner");
+		assertThat(t2.repo()).isEqualTo("repo");
+		assertThat(this.tenantUsers.find("t2-editor"))
+			.hasValueSatisfying(user -> assertThat(user.getAuthorities()).extracting(Object::toString)
+				.containsExactlyInAnyOrder("t2:entry:get", "t2:entry:list", "t2:entry:edit"));
+		assertThat(this.tenantUsers.find("blog-ui"))
+			.hasValueSatisfying(user -> assertThat(user.getPassword()).isEqualTo("{noop}changed"));
+		// nothing is replaced while the registry is unchanged
+		assertThat(this.tenantReloader.reload()).isFalse();
+		assertThat(this.gitHubTenants.get("t2")).isSameAs(t2);
+		this.tenantRegistry.deleteTenant("t2");
+		this.tenantRegistry.deleteUser("t2-editor");
+		this.tenantRegistry.deleteUser("blog-ui");
+		assertThat(this.tenantReloader.reload()).isTrue();
+		assertThat(this.gitHubTenants.find("t2")).isEmpty();
+		assertThat(this.tenantUsers.find("t2-editor")).isEmpty();
+		assertThat(this.tenantUsers.find("blog-ui"))
+			.hasValueSatisfying(user -> assertThat(user.getPassword()).isEqualTo("{noop}empty"));
+	}
+
+	@Test
+	void formatPrivilegesLikeConfiguredUsers() {
+		TenantUserDetails user = new TenantUserDetails("editor", "{noop}password",
+				Map.of("t1", List.of(Privilege.EDIT, Privilege.DELETE), "_", List.of(Privilege.GET)));
+		assertThat(JdbcTenantRegistry.formatPrivileges(user)).isEqualTo("_=GET|t1=EDIT,DELETE");
+		assertThat(TenantUserDetails.valueOf("editor|{noop}password|" + JdbcTenantRegistry.formatPrivileges(user)))
+			.isEqualTo(user);
+	}
+
+	static class InMemoryTenantRegistry implements TenantRegistry {
+
+		final Map<String, RegisteredTenant> tenants = new ConcurrentSkipListMap<>();
+
+		final Map<String, TenantUserDetails> users = new ConcurrentSkipListMap<>();
+
+		@Override
+		public List<RegisteredTenant> findAllTenants() {
+			return List.copyOf(this.tenants.values());
+		}
+
+		@Override
+		public void saveTenant(RegisteredTenant tenant) {
+			this.tenants.put(tenant.tenantId(), tenant);
+		}
+
+		@Override
+		public void deleteTenant(String tenantId) {
+			this.tenants.remove(tenantId);
+		}
+
+		@Override
+		public List<TenantUserDetails> findAllUsers() {
+			return List.copyOf(this.users.values());
+		}
+
+		@Override
+		public void saveUser(TenantUserDetails user) {
+			this.users.put(user.username(), user);
+		}
+
+		@Override
+		public void deleteUser(String username) {
+			this.users.remove(username);
+		}
+
+	}
+
+}
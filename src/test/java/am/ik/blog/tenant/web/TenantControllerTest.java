@@ -0,0 +1,67 @@
+package am.ik.blog.tenant.web;
+
+import am.ik.blog.security.Privilege;
+import am.ik.blog.tenant.TenantRegistry;
+import am.ik.blog.tenant.TenantReloader;
+import am.ik.blog.tenant.TenantUserDetails;
+import am.ik.blog.tenant.web.TenantController.TenantUserRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TenantControllerTest {
+
+	TenantRegistry tenantRegistry = mock(TenantRegistry.class);
+
+	TenantReloader tenantReloader = mock(TenantReloader.class);
+
+	@SuppressWarnings("deprecation")
+	TenantController tenantController = new TenantController(this.tenantRegistry, this.tenantReloader,
+			NoOpPasswordEncoder.getInstance());
+
+	@Test
+	void putUser() {
+		this.tenantController.putUser("t1-editor", new TenantUserRequest("{noop}password",
+				Map.of("t1", List.of(Privilege.GET, Privilege.EDIT), "_", List.of(Privilege.LIST))));
+		ArgumentCaptor<TenantUserDetails> user = ArgumentCaptor.forClass(TenantUserDetails.class);
+		verify(this.tenantRegistry).saveUser(user.capture());
+		assertThat(user.getValue().privileges()).containsOnlyKeys("t1", "_");
+		verify(this.tenantReloader).reload();
+	}
+
+	@Test
+	void rejectEmptyPrivilegesOfTenant() {
+		assertBadRequest(new TenantUserRequest("{noop}password", Map.of("t1", List.of())));
+		assertBadRequest(new TenantUserRequest("{noop}password",
+				Map.of("_", List.of(Privilege.GET), "t1", new ArrayList<>(Arrays.asList((Privilege) null)))));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", " ", "t1|t2", "t1=EDIT", "t1,t2" })
+	void rejectTenantIdsBreakingTheStoredFormat(String tenantId) {
+		assertBadRequest(new TenantUserRequest("{noop}password", Map.of(tenantId, List.of(Privilege.GET))));
+	}
+
+	void assertBadRequest(TenantUserRequest request) {
+		assertThatThrownBy(() -> this.tenantController.putUser("t1-editor", request)).isInstanceOfSatisfying(
+				ResponseStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		verify(this.tenantRegistry, never()).saveUser(any());
+		verify(this.tenantReloader, never()).reload();
+	}
+
+}